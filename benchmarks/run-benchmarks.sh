@@ -0,0 +1,35 @@
+#!/bin/bash
+# Builds the application and the JMH benchmarks, then runs them with the GC profiler
+# so every result also reports the allocation rate per operation.
+#
+# Usage (from anywhere):  benchmarks/run-benchmarks.sh [JMH options] [benchmark regex]
+#   e.g. benchmarks/run-benchmarks.sh Runner
+#        benchmarks/run-benchmarks.sh -rf json -rff benchmarks/target/results.json
+#
+# Needs the JMH jars in benchmarks/lib (see benchmarks/README.md). Set JAVAFX_LIB to the
+# lib folder of the JavaFX SDK for your platform if it is not the bundled one.
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+BENCH="$ROOT/benchmarks"
+JAVAFX_LIB="${JAVAFX_LIB:-$ROOT/lib/JavaFX/javafx-sdk-23.0.2/lib}"
+OUT="$BENCH/target/classes"
+
+if ! ls "$BENCH"/lib/jmh-core-*.jar > /dev/null 2>&1; then
+    echo "JMH jars not found in $BENCH/lib - see benchmarks/README.md" >&2
+    exit 1
+fi
+
+join() { local IFS=':'; echo "$*"; }
+APP_CP="$(join "$ROOT"/lib/Gson/*.jar "$ROOT"/lib/JAR/*.jar "$JAVAFX_LIB"/*.jar)"
+JMH_CP="$(join "$BENCH"/lib/*.jar)"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+cd "$ROOT"
+javac -encoding UTF-8 -Xlint:deprecation,unchecked -d "$OUT" \
+    -cp "$APP_CP:$JMH_CP" -processorpath "$JMH_CP" \
+    $(find src benchmarks/src -name '*.java')
+
+# Run from the repository root so the games find their assets.
+java -cp "$OUT:$APP_CP:$JMH_CP" org.openjdk.jmh.Main -prof gc "$@"
@@ -0,0 +1,74 @@
+package src.main.benchmarks;
+
+import javafx.application.Platform;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Shared setup for the benchmarks: generated question data and JavaFX start-up.
+ */
+public class Fixtures {
+    private static boolean platformStarted = false;
+
+    /**
+     * Builds a question bank in the same JSON layout as the Supabase table and the local cache.
+     *
+     * @param count number of questions.
+     * @return the questions as a JSON array string.
+     */
+    public static String questionJson(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) sb.append(',');
+            sb.append('{').append(questionFields(i, 0)).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * The fields of one generated question, without the surrounding braces.
+     *
+     * @param id       primary key; also varies the text.
+     * @param revision bumped on every edit so an edited row has different content.
+     */
+    public static String questionFields(int id, int revision) {
+        return "\"id\":" + id
+                + ",\"question\":\"What does Java statement number " + id + " print?"
+                + (revision > 0 ? " (rev " + revision + ")" : "") + "\""
+                + ",\"optionA\":\"Compilation error\""
+                + ",\"optionB\":\"" + id + "\""
+                + ",\"optionC\":\"Runtime exception\""
+                + ",\"optionD\":\"Nothing\""
+                + ",\"correctOption\":" + (1 + id % 4)
+                + ",\"hint\":\"Trace the loop variable.\""
+                + ",\"keywords\":\"java,loops,topic" + (id % 25) + "\""
+                + ",\"explanation\":\"The loop runs " + id + " times before printing.\"";
+    }
+
+    // Writes a generated question bank to a file and returns the file.
+    public static Path writeQuestionFile(Path file, int count) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, questionJson(count).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Starts the JavaFX platform once per JVM.
+     * Needed by benchmarks that load images from disk; requires a display (or xvfb-run).
+     */
+    public static synchronized void startPlatform() throws InterruptedException {
+        if (platformStarted) return;
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyRunning) {
+            started.countDown();
+        }
+        started.await();
+        Platform.setImplicitExit(false);
+        platformStarted = true;
+    }
+}
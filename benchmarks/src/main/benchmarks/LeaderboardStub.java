@@ -0,0 +1,294 @@
+package src.main.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Supabase leaderboard table and its increment_leaderboard_score(s) functions.
+ * Keeps the scores in memory and answers the subset of PostgREST used by LeaderboardService:
+ * POST /rest/v1/rpc/increment_leaderboard_score (adds to a player's score atomically and returns
+ * the new total), POST /rest/v1/rpc/increment_leaderboard_scores (adds a batch, once per batch id),
+ * GET on /rest/v1/leaderboard with "eq." filters on Name, Difficulty and Mode, order=Score.desc,Name.asc,
+ * limit and the keyset "or" filter of LeaderboardService.loadLeaderboardPage, and PATCH ("Name=eq.")
+ * and POST for the read-then-write fallback. Can leave the functions out, so calling them gets a 404 like on a
+ * server where they were never installed, and can lose batch responses after applying the batch.
+ * Run the JVM with -Dsun.net.httpserver.nodelay=true, as for QuestionBankStub.
+ */
+public class LeaderboardStub {
+    public static final String PATH = "/rest/v1/leaderboard";
+    public static final String RPC_PATH = "/rest/v1/rpc/increment_leaderboard_score";
+    public static final String BATCH_PATH = "/rest/v1/rpc/increment_leaderboard_scores";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final boolean hasFunction;
+    private static final String[] DIFFICULTIES = { "Grandmaster", "Pro", "Elite", "Beginner", "Amateur" };
+    private static final Comparator<Row> LEADERBOARD_ORDER =
+            Comparator.comparingInt((Row r) -> -r.score).thenComparing(r -> r.name);
+    // The keyset filter sent for pages after the first.
+    private static final Pattern KEYSET = Pattern.compile(
+            "\\(Score\\.lt\\.(-?\\d+),and\\(Score\\.eq\\.-?\\d+,Name\\.gt\\.\"((?:[^\"\\\\]|\\\\.)*)\"\\)\\)");
+
+    private static class Row {
+        final String name;
+        int score;
+        String difficulty;
+        String mode;
+
+        Row(String name, int score, String difficulty, String mode) {
+            this.name = name;
+            this.score = score;
+            this.difficulty = difficulty;
+            this.mode = mode;
+        }
+    }
+
+    // Rows by player name, in insertion order.
+    private final Map<String, Row> rows = new LinkedHashMap<>();
+    // Rows in leaderboard order; rebuilt after a change, the way an index on the table would be kept.
+    private List<Row> ordered;
+    private final AtomicInteger requests = new AtomicInteger();
+    // Ids of the batches applied so far.
+    private final Set<String> batches = new HashSet<>();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private volatile int lostResponseEvery = 0;
+
+    /**
+     * Starts the stub on a free local port.
+     *
+     * @param hasFunction whether the increment functions are installed; without them calls get a 404.
+     */
+    public LeaderboardStub(boolean hasFunction) throws IOException {
+        this.hasFunction = hasFunction;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, this::handleTable);
+        server.createContext(RPC_PATH, this::handleIncrement);
+        server.createContext(BATCH_PATH, this::handleBatch);
+        // Concurrent requests, so read-then-write updates can interleave as against a real server.
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    // URL of the leaderboard table, for SUPABASE_API_LEADERBOARD_URL.
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    // A player's score, or 0 without an entry.
+    public synchronized int getScore(String name) {
+        Row row = rows.get(name);
+        return row == null ? 0 : row.score;
+    }
+
+    // Adds generated players with random scores, spread over the difficulties and two modes.
+    public synchronized void addPlayers(int players, Random random) {
+        for (int i = 0; i < players; i++) {
+            String name = String.format("Player %06d", rows.size());
+            rows.put(name, new Row(name, random.nextInt(100_000), DIFFICULTIES[random.nextInt(DIFFICULTIES.length)],
+                    random.nextBoolean() ? "Classic" : "Matching"));
+        }
+        ordered = null;
+    }
+
+    // Answers every nth batch call with a 503 after applying it, as if the response was lost; 0 for never.
+    public void loseBatchResponses(int every) {
+        lostResponseEvery = every;
+    }
+
+    // Number of requests answered so far.
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleIncrement(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (!hasFunction || !exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 404, "{\"code\":\"PGRST202\",\"message\":\"Could not find the function\"}");
+            return;
+        }
+        JsonObject params = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+        String name = params.get("p_name").getAsString();
+        int score = params.get("p_score").getAsInt();
+        int total;
+        synchronized (this) {
+            total = increment(name, score, params.get("p_difficulty").getAsString(), params.get("p_mode").getAsString());
+        }
+        respond(exchange, 200, Integer.toString(total));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (!hasFunction || !exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 404, "{\"code\":\"PGRST202\",\"message\":\"Could not find the function\"}");
+            return;
+        }
+        JsonObject params = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+        synchronized (this) {
+            if (batches.add(params.get("p_batch").getAsString())) {
+                for (JsonElement element : params.getAsJsonArray("p_scores")) {
+                    JsonObject entry = element.getAsJsonObject();
+                    increment(entry.get("name").getAsString(), entry.get("score").getAsInt(),
+                            entry.get("difficulty").getAsString(), entry.get("mode").getAsString());
+                }
+            }
+        }
+        int every = lostResponseEvery;
+        respond(exchange, every > 0 && batchCalls.incrementAndGet() % every == 0 ? 503 : 204, null);
+    }
+
+    // Adds to a player's score, creating the row if needed; returns the new score.
+    private int increment(String name, int score, String difficulty, String mode) {
+        Row row = rows.get(name);
+        if (row == null) {
+            row = new Row(name, 0, difficulty, mode);
+            rows.put(name, row);
+        }
+        row.score += score;
+        ordered = null;
+        return row.score;
+    }
+
+    private void handleTable(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String name = valueOf(query.get("Name"));
+        switch (exchange.getRequestMethod()) {
+            case "GET": {
+                respond(exchange, 200, select(query, name));
+                return;
+            }
+            case "PATCH": {
+                int score = JsonParser.parseString(readBody(exchange)).getAsJsonObject().get("Score").getAsInt();
+                synchronized (this) {
+                    Row row = rows.get(name);
+                    if (row != null) row.score = score;
+                    ordered = null;
+                }
+                respond(exchange, 204, null);
+                return;
+            }
+            case "POST": {
+                JsonObject body = JsonParser.parseString(readBody(exchange)).getAsJsonObject();
+                synchronized (this) {
+                    // Last write wins, as the table has no unique constraint in the fallback setup.
+                    String rowName = body.get("Name").getAsString();
+                    rows.put(rowName, new Row(rowName, body.get("Score").getAsInt(),
+                            body.get("Difficulty").getAsString(), body.get("Mode").getAsString()));
+                    ordered = null;
+                }
+                respond(exchange, 201, null);
+                return;
+            }
+            default:
+                respond(exchange, 405, null);
+        }
+    }
+
+    // The rows matching a GET, as a JSON array.
+    private synchronized String select(Map<String, String> query, String name) {
+        String difficulty = valueOf(query.get("Difficulty"));
+        String mode = valueOf(query.get("Mode"));
+        int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : Integer.MAX_VALUE;
+        List<Row> source;
+        int start = 0;
+        if (!query.containsKey("order")) {
+            source = new ArrayList<>(rows.values());
+        } else {
+            if (ordered == null) {
+                ordered = new ArrayList<>(rows.values());
+                ordered.sort(LEADERBOARD_ORDER);
+            }
+            source = ordered;
+            String keyset = query.get("or");
+            if (keyset != null) {
+                Matcher matcher = KEYSET.matcher(keyset);
+                if (!matcher.matches()) throw new IllegalArgumentException("Unsupported filter: " + keyset);
+                Row after = new Row(matcher.group(2).replaceAll("\\\\(.)", "$1"),
+                        Integer.parseInt(matcher.group(1)), null, null);
+                // First row ordered after the cursor.
+                int index = Collections.binarySearch(ordered, after, LEADERBOARD_ORDER);
+                start = index >= 0 ? index + 1 : -index - 1;
+            }
+        }
+        StringBuilder sb = new StringBuilder("[");
+        int count = 0;
+        for (int i = start; i < source.size() && count < limit; i++) {
+            Row row = source.get(i);
+            if (name != null && !name.equals(row.name)) continue;
+            if (difficulty != null && !difficulty.equals(row.difficulty)) continue;
+            if (mode != null && !mode.equals(row.mode)) continue;
+            if (count++ > 0) sb.append(',');
+            JsonObject json = new JsonObject();
+            json.addProperty("Name", row.name);
+            json.addProperty("Score", row.score);
+            json.addProperty("Difficulty", row.difficulty);
+            json.addProperty("Mode", row.mode);
+            sb.append(json);
+        }
+        return sb.append(']').toString();
+    }
+
+    // The value of an "eq." filter, or null without one.
+    private static String valueOf(String filter) {
+        return filter != null && filter.startsWith("eq.") ? filter.substring("eq.".length()) : null;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
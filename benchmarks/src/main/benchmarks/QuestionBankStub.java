@@ -0,0 +1,181 @@
+package src.main.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Supabase question bank table.
+ * Keeps the rows in memory, each with an updated_at version and a soft-delete flag, and answers the
+ * subset of PostgREST used by QuestionService at /rest/v1/questionbank: select=* or a single column,
+ * "gt.", "gte." and "not.is.true" filters, order, limit=1 and "Prefer: count=exact" (Content-Range).
+ * Optionally sends an ETag for full-table reads and answers If-None-Match with a 304.
+ * Run the JVM with -Dsun.net.httpserver.nodelay=true: otherwise small responses wait for delayed
+ * ACKs and every request takes about 40 ms longer than against a real server.
+ */
+public class QuestionBankStub {
+    public static final String PATH = "/rest/v1/questionbank";
+
+    private static class Row {
+        final int id;
+        int revision;
+        int updatedAt;
+        boolean deleted;
+
+        Row(int id, int updatedAt) {
+            this.id = id;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final HttpServer server;
+    private final boolean sendETag;
+    private final List<Row> rows = new ArrayList<>();
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger deltaResponses = new AtomicInteger();
+    // Table-wide version; every change stamps the touched row with the next value.
+    private int clock = 1;
+
+    /**
+     * Starts the stub on a free local port.
+     *
+     * @param questions number of generated questions to serve.
+     * @param sendETag  whether full-table reads carry an ETag and conditional requests get a 304.
+     */
+    public QuestionBankStub(int questions, boolean sendETag) throws IOException {
+        this.sendETag = sendETag;
+        for (int i = 1; i <= questions; i++) {
+            rows.add(new Row(i, clock));
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    // Appends a new question.
+    public synchronized void addQuestion() {
+        rows.add(new Row(rows.size() + 1, ++clock));
+    }
+
+    // Changes the text of a question.
+    public synchronized void editQuestion(int id) {
+        Row row = rows.get(id - 1);
+        row.revision++;
+        row.updatedAt = ++clock;
+    }
+
+    // Marks a question deleted, leaving a tombstone that delta queries still return.
+    public synchronized void deleteQuestion(int id) {
+        Row row = rows.get(id - 1);
+        row.deleted = true;
+        row.updatedAt = ++clock;
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    // Number of requests answered with the whole table.
+    public int getFullResponses() {
+        return fullResponses.get();
+    }
+
+    // Number of requests answered with the rows changed after a watermark.
+    public int getDeltaResponses() {
+        return deltaResponses.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private synchronized void handle(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String select = query.getOrDefault("select", "*");
+        String after = query.get("updated_at");
+        boolean liveOnly = "not.is.true".equals(query.get("deleted"));
+        boolean fullTable = select.equals("*") && after == null && !query.containsKey("limit");
+        String etag = "\"v" + clock + "\"";
+
+        if (sendETag && fullTable && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        List<Row> matching = new ArrayList<>();
+        for (Row row : rows) {
+            if (after != null && !after(row.updatedAt, after)) continue;
+            if (liveOnly && row.deleted) continue;
+            matching.add(row);
+        }
+        int total = matching.size();
+        String order = query.getOrDefault("order", "");
+        if (order.startsWith("updated_at.desc")) {
+            matching.sort(Comparator.comparingInt((Row r) -> r.updatedAt).reversed());
+        } else if (order.startsWith("updated_at")) {
+            matching.sort(Comparator.comparingInt((Row r) -> r.updatedAt));
+        }
+        if (query.containsKey("limit")) {
+            matching = matching.subList(0, Math.min(matching.size(), Integer.parseInt(query.get("limit"))));
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        for (Row row : matching) {
+            if (sb.length() > 1) sb.append(',');
+            if (select.equals("*")) {
+                sb.append('{').append(Fixtures.questionFields(row.id, row.revision))
+                  .append(",\"updated_at\":").append(row.updatedAt)
+                  .append(",\"deleted\":").append(row.deleted).append('}');
+            } else {
+                sb.append("{\"updated_at\":").append(row.updatedAt).append('}');
+            }
+        }
+        byte[] response = sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+        if (fullTable) fullResponses.incrementAndGet();
+        if (after != null) deltaResponses.incrementAndGet();
+        if (sendETag && fullTable) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        String prefer = exchange.getRequestHeaders().getFirst("Prefer");
+        if (prefer != null && prefer.contains("count=exact")) {
+            exchange.getResponseHeaders().set("Content-Range",
+                    (matching.isEmpty() ? "*" : "0-" + (matching.size() - 1)) + "/" + total);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    // Whether updatedAt passes a "gt." or "gte." filter.
+    private static boolean after(int updatedAt, String filter) {
+        if (filter.startsWith("gte.")) return updatedAt >= Integer.parseInt(filter.substring("gte.".length()));
+        return updatedAt > Integer.parseInt(filter.substring("gt.".length()));
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,73 @@
+package src.main.game.Classic.Fighting;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fighter physics and the attack collision test, as run twice per frame by FightingGame.
+ * Uses a blank in-memory sprite sheet, so no display is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FighterBenchmark {
+    private static final double WIDTH = 1600, HEIGHT = 900;
+
+    private Fighter player, enemy;
+    private Rectangle2D overlapA, overlapB, apart;
+    private long frame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        WritableImage sheet = new WritableImage(8 * 200, 200);
+        // Same geometry as the player and enemy built by FightingGame.
+        player = new Fighter(sheet, 120, 500, 2.5, 8, 215, 157, 0.7, new HashMap<>(), 20, 50, 40, 50);
+        enemy = new Fighter(sheet, 1300, 500, 2.5, 8, 215, 167, 0.7, new HashMap<>(), -10, 50, 10, 50);
+        overlapA = new Rectangle2D(100, 100, 80, 150);
+        overlapB = new Rectangle2D(150, 120, 80, 150);
+        apart = new Rectangle2D(900, 120, 80, 150);
+        frame = 0;
+    }
+
+    @Benchmark
+    public double fighterUpdate() {
+        // Run back and forth, jumping every second, so every branch of the physics is taken.
+        boolean forward = (frame / 120) % 2 == 0;
+        player.setVelocityX(forward ? 5 : -5);
+        if (frame++ % 60 == 0) player.jump(-20, HEIGHT);
+        player.update(WIDTH, HEIGHT);
+        return player.getX();
+    }
+
+    @Benchmark
+    public boolean collisionOverlapping() {
+        return Utility.rectangularCollision(overlapA, overlapB);
+    }
+
+    @Benchmark
+    public boolean collisionApart() {
+        return Utility.rectangularCollision(overlapA, apart);
+    }
+
+    // The per-frame check in FightingGame, including building the attack and body boxes.
+    @Benchmark
+    public boolean attackCheck() {
+        return Utility.rectangularCollision(player.getAttackBox(), enemy.getBounds());
+    }
+}
@@ -0,0 +1,73 @@
+package src.main.game.Classic.Fighting;
+
+import javafx.scene.input.KeyCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.Fixtures;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of the fighting game (update and render) with both fighters running back and forth.
+ * The game is built off-stage but its sprites are real images, so the JavaFX platform is started
+ * first: run with a display or under xvfb-run. Must run from the repository root to find the assets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FightingBenchmark {
+    // Frames each fighter runs in one direction before turning around.
+    private static final int FRAMES_PER_DIRECTION = 120;
+    // Simulated 60 fps clock, wrapped before the 60 s round timer runs out.
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final long FRAMES_PER_ROUND = 50 * 60;
+
+    private FightingGame game;
+    private long start;
+    private long frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        Fixtures.startPlatform();
+        game = FightingGame.createHeadless(1600, 900);
+        start = System.nanoTime();
+        frame = 0;
+    }
+
+    @Benchmark
+    public void update() {
+        steer();
+        game.update(clock());
+    }
+
+    @Benchmark
+    public void updateAndRender() {
+        steer();
+        game.update(clock());
+        game.render();
+    }
+
+    private long clock() {
+        return start + (frame % FRAMES_PER_ROUND) * FRAME_NANOS;
+    }
+
+    // Holds opposite movement keys for both fighters and swaps them periodically.
+    private void steer() {
+        boolean forward = (frame++ / FRAMES_PER_DIRECTION) % 2 == 0;
+        game.setKeyPressed(KeyCode.D, forward);
+        game.setKeyPressed(KeyCode.A, !forward);
+        game.setKeyPressed(KeyCode.LEFT, forward);
+        game.setKeyPressed(KeyCode.RIGHT, !forward);
+    }
+}
@@ -0,0 +1,81 @@
+package src.main.game.Classic.RetroRunning;
+
+import javafx.scene.canvas.Canvas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retro runner hot paths: one simulation step and one rendered frame.
+ * Runs without a stage; frames are drawn onto a canvas that is never shown.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RunnerBenchmark {
+    private static final double WIDTH = 800, HEIGHT = 600;
+    // Per-step probability that the bot presses jump or fire, as in HeadlessRunner.
+    private static final double JUMP_CHANCE = 0.03;
+    private static final double FIRE_CHANCE = 0.005;
+
+    private Random bot;
+    private long nextSeed;
+    private RunnerSimulation simulation;
+    private PixelRetroRunner view;
+    private Canvas canvas;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bot = new Random(42);
+        nextSeed = 1;
+        newGame();
+        view = new PixelRetroRunner();
+        canvas = new Canvas(WIDTH, HEIGHT);
+        // Play a while so the frame contains a typical number of entities.
+        for (int i = 0; i < 600; i++) {
+            advance();
+        }
+    }
+
+    @Benchmark
+    public int step() {
+        advance();
+        return simulation.getScore();
+    }
+
+    @Benchmark
+    public Canvas stepAndDraw() {
+        advance();
+        // A full clear lets the detached canvas drop the commands of the previous frame.
+        canvas.getGraphicsContext2D().clearRect(0, 0, WIDTH, HEIGHT);
+        view.renderFrame(canvas, simulation, 0.5);
+        return canvas;
+    }
+
+    private void advance() {
+        if (bot.nextDouble() < JUMP_CHANCE) simulation.jump();
+        if (bot.nextDouble() < FIRE_CHANCE) simulation.fireThunder();
+        if (!simulation.step()) {
+            newGame();
+        }
+    }
+
+    private void newGame() {
+        Random answers = new Random(nextSeed);
+        simulation = new RunnerSimulation(new Random(nextSeed++), WIDTH, HEIGHT,
+                type -> answers.nextBoolean() ? RunnerSimulation.QuizAnswer.CORRECT : RunnerSimulation.QuizAnswer.WRONG);
+    }
+}
@@ -0,0 +1,87 @@
+package src.main.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.LeaderboardStub;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cycling the leaderboard's difficulty filter: each step through LeaderboardCache (pages served from
+ * memory; past the TTL they are still served while one background reload runs) against loading the
+ * page from a local leaderboard stub every time. Setup also prints how many requests 16 simultaneous
+ * asks for one uncached page cost; single-flight makes it 1.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class LeaderboardCacheBenchmark {
+    private static final String[] DIFFICULTIES = { "Grandmaster", "Pro", "Elite", "Beginner", "Amateur" };
+    private static final int PAGE_SIZE = 20;
+
+    private Path configFile;
+    private LeaderboardStub stub;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        stub = new LeaderboardStub(true);
+        stub.addPlayers(10_000, new Random(42));
+        configFile = Files.createTempFile("leaderboard-bench", ".properties");
+        Files.write(configFile, List.of(
+                "SUPABASE_API_LEADERBOARD_URL=" + stub.getUrl(),
+                "SUPABASE_API_KEY=benchmark"),
+                StandardCharsets.UTF_8);
+        System.setProperty("config.path", configFile.toString());
+
+        int before = stub.getRequests();
+        for (int i = 0; i < 16; i++) {
+            LeaderboardCache.get("Pro", "Classic", null, PAGE_SIZE, null);
+        }
+        awaitCached("Pro", "Classic");
+        System.out.printf("%n16 simultaneous requests for one page: %d server requests%n", stub.getRequests() - before);
+        for (String difficulty : DIFFICULTIES) {
+            awaitCached(difficulty, null);
+        }
+    }
+
+    private static void awaitCached(String difficulty, String mode) throws InterruptedException {
+        while (LeaderboardCache.get(difficulty, mode, null, PAGE_SIZE, null) == null) {
+            Thread.sleep(5);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stub.stop();
+        Files.deleteIfExists(configFile);
+    }
+
+    @Benchmark
+    public LeaderboardPage switchFilterCached() {
+        return LeaderboardCache.get(DIFFICULTIES[step++ % DIFFICULTIES.length], null, null, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public LeaderboardPage switchFilterUncached() {
+        return LeaderboardService.loadLeaderboardPage(DIFFICULTIES[step++ % DIFFICULTIES.length], null, null, PAGE_SIZE);
+    }
+}
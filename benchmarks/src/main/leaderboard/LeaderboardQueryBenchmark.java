@@ -0,0 +1,88 @@
+package src.main.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.LeaderboardStub;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Opening the leaderboard on one difficulty: the old way (whole table downloaded, sorted and
+ * filtered on the client) against one server-side page, first or deep down. Served by a local stub
+ * holding the given number of players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class LeaderboardQueryBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({ "1000", "100000" })
+    public int players;
+
+    private Path configFile;
+    private LeaderboardStub stub;
+    // Entry the deep page starts after: halfway down the Pro leaderboard.
+    private LeaderboardEntry deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new LeaderboardStub(true);
+        stub.addPlayers(players, new Random(42));
+        configFile = Files.createTempFile("leaderboard-bench", ".properties");
+        Files.write(configFile, List.of(
+                "SUPABASE_API_LEADERBOARD_URL=" + stub.getUrl(),
+                "SUPABASE_API_KEY=benchmark"),
+                StandardCharsets.UTF_8);
+        System.setProperty("config.path", configFile.toString());
+        List<LeaderboardEntry> pro = loadAll();
+        deepCursor = pro.get(pro.size() / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        stub.stop();
+        Files.deleteIfExists(configFile);
+    }
+
+    // What LeaderboardScene used to do: everything, then sort and filter locally.
+    @Benchmark
+    public List<LeaderboardEntry> loadAll() {
+        return LeaderboardService.loadLeaderboard().stream()
+                .sorted(Comparator.comparing(LeaderboardEntry::getScore, Comparator.reverseOrder())
+                        .thenComparing(LeaderboardEntry::getName))
+                .filter(e -> e.getTime().equalsIgnoreCase("Pro"))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public LeaderboardPage firstPage() {
+        return LeaderboardService.loadLeaderboardPage("Pro", null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public LeaderboardPage deepPage() {
+        return LeaderboardService.loadLeaderboardPage("Pro", null, deepCursor, PAGE_SIZE);
+    }
+}
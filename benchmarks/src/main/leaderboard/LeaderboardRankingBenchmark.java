@@ -0,0 +1,129 @@
+package src.main.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking queries on LeaderboardRanking with players leaderboard entries: a score change, a
+ * player's rank, the top 10 of a difficulty and the players around someone, against the
+ * sort-everything way (change the score, sort all entries by difficulty, score and name, then look
+ * the player up). Every player is loaded, from keyset pages served out of memory, so the trees are
+ * far larger than the TOP_PLAYERS the game loads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeaderboardRankingBenchmark {
+    private static final String[] DIFFICULTIES = { "Grandmaster", "Pro", "Elite", "Beginner", "Amateur" };
+    private static final Comparator<int[]> SORTED_ORDER =
+            Comparator.comparingInt((int[] p) -> p[1]).thenComparingInt(p -> -p[2]).thenComparingInt(p -> p[0]);
+    private static final Comparator<LeaderboardEntry> LEADERBOARD_ORDER =
+            Comparator.comparingInt(LeaderboardEntry::getScore).reversed().thenComparing(LeaderboardEntry::getName);
+
+    @Param({ "1000", "100000" })
+    public int players;
+
+    private Path outboxFile;
+    private LeaderboardRanking ranking;
+    private String[] names;
+    // The same players as {index, difficulty, score}, for the sorting baseline.
+    private int[][] rows;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random setup = new Random(42);
+        names = new String[players];
+        rows = new int[players][];
+        Map<String, List<LeaderboardEntry>> table = new HashMap<>();
+        for (int i = 0; i < players; i++) {
+            names[i] = String.format("Player %06d", i);
+            int difficulty = setup.nextInt(DIFFICULTIES.length);
+            int score = setup.nextInt(100_000);
+            table.computeIfAbsent(DIFFICULTIES[difficulty], d -> new ArrayList<>()).add(new LeaderboardEntry(
+                    names[i], score, DIFFICULTIES[difficulty], setup.nextBoolean() ? "Classic" : "Matching"));
+            rows[i] = new int[] { i, difficulty, score };
+        }
+        table.values().forEach(entries -> entries.sort(LEADERBOARD_ORDER));
+        outboxFile = Files.createTempFile("score-outbox", ".jsonl");
+        ranking = new LeaderboardRanking(new ScoreOutbox(outboxFile.toFile()), (difficulty, after, limit) -> {
+            List<LeaderboardEntry> sorted = table.getOrDefault(difficulty, List.of());
+            int from = 0;
+            if (after != null) {
+                int index = Collections.binarySearch(sorted, after, LEADERBOARD_ORDER);
+                from = index >= 0 ? index + 1 : -index - 1;
+            }
+            int to = Math.min(sorted.size(), from + limit);
+            return new LeaderboardPage(new ArrayList<>(sorted.subList(from, to)), to < sorted.size());
+        }, players);
+        ranking.loadDue(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outboxFile);
+    }
+
+    @Benchmark
+    public int addScore() {
+        int player = random.nextInt(players);
+        ranking.addScore(names[player], random.nextInt(100), null, null);
+        return ranking.rankOf(names[player], 0).getRank();
+    }
+
+    @Benchmark
+    public int rankOf() {
+        return ranking.rankOf(names[random.nextInt(players)], 0).getRank();
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> top10() {
+        return ranking.top(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)], 10);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> around() {
+        return ranking.rankOf(names[random.nextInt(players)], 2).getAround();
+    }
+
+    @Benchmark
+    public int sortAndFind() {
+        int player = random.nextInt(players);
+        rows[player][2] += random.nextInt(100);
+        List<int[]> sorted = new ArrayList<>(List.of(rows));
+        sorted.sort(SORTED_ORDER);
+        // Rank within the player's difficulty.
+        int first = -1;
+        for (int i = 0; i < sorted.size(); i++) {
+            int[] row = sorted.get(i);
+            if (first < 0 && row[1] == rows[player][1]) first = i;
+            if (row[0] == player) return i - first + 1;
+        }
+        return -1;
+    }
+}
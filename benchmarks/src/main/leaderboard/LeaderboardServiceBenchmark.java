@@ -0,0 +1,78 @@
+package src.main.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.LeaderboardStub;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Score saves from four threads at once, all for the same player, against a local HTTP stub of the
+ * leaderboard. The server parameter selects whether the stub has the increment_leaderboard_score
+ * function ("function", one atomic request per save) or not ("fallback", read-then-write).
+ * At the end of a trial the benchmark prints how many points were lost to interleaved saves and
+ * how many requests a save took.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class LeaderboardServiceBenchmark {
+    private static final String PLAYER = "Benchmark Player";
+
+    @Param({ "function", "fallback" })
+    public String server;
+
+    private Path configFile;
+    private LeaderboardStub stub;
+    private final AtomicLong saved = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new LeaderboardStub(server.equals("function"));
+        configFile = Files.createTempFile("leaderboard-bench", ".properties");
+        Files.write(configFile, List.of(
+                "SUPABASE_API_LEADERBOARD_URL=" + stub.getUrl(),
+                "SUPABASE_API_KEY=benchmark"),
+                StandardCharsets.UTF_8);
+        // Read when LeaderboardService is first used, in the first save.
+        System.setProperty("config.path", configFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        long lost = saved.get() - stub.getScore(PLAYER);
+        System.out.printf("%n%d saves, %d points lost, %.2f requests per save%n",
+                saved.get(), lost, (double) stub.getRequests() / saved.get());
+        stub.stop();
+        Files.deleteIfExists(configFile);
+    }
+
+    // Adds one point, so the expected score is the number of saves.
+    @Benchmark
+    public int save() {
+        int total = LeaderboardService.pushLeaderboardData(PLAYER, 1, "Medium", "Classic");
+        if (total >= 0) saved.incrementAndGet();
+        return total;
+    }
+}
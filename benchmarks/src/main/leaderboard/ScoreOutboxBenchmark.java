@@ -0,0 +1,89 @@
+package src.main.leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.LeaderboardStub;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A score save as the UI sees it: ScoreOutbox.add, with the outbox sending to a local leaderboard
+ * stub in the background. With server "function" the stub loses every third batch response after
+ * applying the batch, so retries are exercised; "fallback" has no batch function and the outbox
+ * saves player by player. At the end of a trial the outbox is drained and the benchmark prints the
+ * saves, the points the stub is missing or has counted twice, and the requests per save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ScoreOutboxBenchmark {
+    private static final String[] PLAYERS = { "Ada", "Grace", "Linus", "Barbara" };
+
+    @Param({ "function", "fallback" })
+    public String server;
+
+    private Path fixtureDir;
+    private LeaderboardStub stub;
+    private ScoreOutbox outbox;
+    private long saved;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtureDir = Files.createTempDirectory("outbox-bench");
+        stub = new LeaderboardStub(server.equals("function"));
+        stub.loseBatchResponses(3);
+        Path config = fixtureDir.resolve("config.properties");
+        Files.write(config, List.of(
+                "SUPABASE_API_LEADERBOARD_URL=" + stub.getUrl(),
+                "SUPABASE_API_KEY=benchmark"),
+                StandardCharsets.UTF_8);
+        // Read when LeaderboardService is first used, in the first send.
+        System.setProperty("config.path", config.toString());
+        outbox = new ScoreOutbox(fixtureDir.resolve("score_outbox.jsonl").toFile());
+        outbox.startFlushing();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        outbox.stop();
+        boolean drained = false;
+        for (int attempt = 0; attempt < 10 && !drained; attempt++) {
+            drained = outbox.drain(10_000);
+        }
+        long stored = 0;
+        for (String player : PLAYERS) {
+            stored += stub.getScore(player);
+        }
+        System.out.printf("%n%d saves, %d pending, %d points missing (negative: counted twice), %.4f requests per save%n",
+                saved, outbox.pendingCount(), saved - stored, (double) stub.getRequests() / saved);
+        stub.stop();
+        Files.deleteIfExists(fixtureDir.resolve("score_outbox.jsonl"));
+        Files.deleteIfExists(fixtureDir.resolve("config.properties"));
+        Files.deleteIfExists(fixtureDir);
+    }
+
+    // One point for one of a few players; the expected total is the number of saves.
+    @Benchmark
+    public void add() {
+        outbox.add(PLAYERS[(int) (saved % PLAYERS.length)], 1, "Medium", "Classic");
+        saved++;
+    }
+}
@@ -0,0 +1,84 @@
+package src.main.quiz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.Fixtures;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over a bank of the given size: building the index, and the queries a
+ * search-as-you-type box sends, from a rare term to a prefix of a term every question contains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionSearchBenchmark {
+    private static final int RESULTS = 50;
+
+    @Param({ "1000", "10000", "100000" })
+    public int questions;
+
+    private File json;
+    private File storeFile;
+    private QuestionRepository repository;
+    private QuestionSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        json = Fixtures.writeQuestionFile(Files.createTempDirectory("search-bench").resolve("questions_cache.json"), questions).toFile();
+        storeFile = QuestionStore.storeFileFor(json);
+        repository = new QuestionRepository(QuestionStore.openFor(json, storeFile));
+        index = QuestionSearchIndex.build(repository);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Path dir = json.toPath().getParent();
+        Files.deleteIfExists(json.toPath());
+        Files.deleteIfExists(storeFile.toPath());
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public QuestionSearchIndex build() {
+        return QuestionSearchIndex.build(repository);
+    }
+
+    // A term in one question.
+    @Benchmark
+    public List<QuestionSearchIndex.Match> rareTerm() {
+        return index.search("777 ", RESULTS);
+    }
+
+    // Terms in every question, so every question is scored.
+    @Benchmark
+    public List<QuestionSearchIndex.Match> commonTerms() {
+        return index.search("loop variable ", RESULTS);
+    }
+
+    // Half a word typed: expanded to every term starting with it.
+    @Benchmark
+    public List<QuestionSearchIndex.Match> prefix() {
+        return index.search("compil", RESULTS);
+    }
+}
@@ -0,0 +1,93 @@
+package src.main.quiz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.Fixtures;
+import src.main.benchmarks.QuestionBankStub;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Question load as done at start-up, with the bank unchanged since the last sync and with one row
+ * edited. Supabase is replaced by a local HTTP stub and the working directory by a temporary fixture,
+ * so the real cache is never touched. The sync parameter selects what the server supports:
+ * "etag" (conditional GET, 304 when unchanged, full download otherwise), "watermark" (watermark
+ * query, then only the changed rows are merged) or "full" (whole bank downloaded every time).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class QuestionServiceBenchmark {
+    @Param({ "100", "1000" })
+    public int questions;
+
+    @Param({ "etag", "watermark", "full" })
+    public String sync;
+
+    private Path fixtureDir;
+    private QuestionBankStub server;
+    private int nextEdit;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixtureDir = Files.createTempDirectory("qs-bench");
+        Fixtures.writeQuestionFile(fixtureDir.resolve("resources/questions/questions_cache.json"), questions);
+        server = new QuestionBankStub(questions, sync.equals("etag"));
+
+        Path config = fixtureDir.resolve("config.properties");
+        Files.write(config, List.of(
+                "SUPABASE_API_QUESTIONBANK_URL=" + server.getUrl(),
+                "SUPABASE_API_KEY=benchmark",
+                sync.equals("watermark") ? "SUPABASE_QUESTIONBANK_WATERMARK_COLUMN=updated_at" : "",
+                sync.equals("watermark") ? "SUPABASE_QUESTIONBANK_DELETED_COLUMN=deleted" : ""),
+                StandardCharsets.UTF_8);
+        // Both are read when QuestionService is first used, in the warm-up call below.
+        System.setProperty("config.path", config.toString());
+        System.setProperty("user.dir", fixtureDir.toString());
+        // First sync stores the validators and watermark; every measured call then finds the bank unchanged.
+        QuestionService.loadQuestionsWithCache();
+        nextEdit = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.stop();
+        Path cache = fixtureDir.resolve("resources/questions/questions_cache.json");
+        Files.deleteIfExists(cache);
+        Files.deleteIfExists(cache.resolveSibling("questions_cache.state"));
+        Files.deleteIfExists(cache.getParent());
+        Files.deleteIfExists(cache.getParent().getParent());
+        Files.deleteIfExists(fixtureDir.resolve("config.properties"));
+        Files.deleteIfExists(fixtureDir);
+    }
+
+    @Benchmark
+    public List<Question> loadQuestionsWithCache() {
+        return QuestionService.loadQuestionsWithCache();
+    }
+
+    // One question is edited on the server before every load.
+    @Benchmark
+    public List<Question> loadAfterOneEdit() {
+        server.editQuestion(1 + nextEdit++ % questions);
+        return QuestionService.loadQuestionsWithCache();
+    }
+}
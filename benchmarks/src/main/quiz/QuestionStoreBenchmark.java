@@ -0,0 +1,133 @@
+package src.main.quiz;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import src.main.benchmarks.Fixtures;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preparing one quiz session of 10 questions from a bank of the given size: parsing the whole JSON
+ * cache and shuffling it (what every mode used to do) against opening the mapped store and sampling,
+ * and sampling from the shared QuestionRepository, which keeps the questions it has decoded.
+ * Also the near-duplicate check a store build runs over every question.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionStoreBenchmark {
+    private static final int SESSION = 10;
+    private static final List<String> FOCUS = List.of("topic3", "topic4");
+
+    @Param({ "1000", "10000", "100000" })
+    public int questions;
+
+    private File json;
+    private File storeFile;
+    private QuestionStore store;
+    private QuestionRepository repository;
+    private final List<Question> parsed = new ArrayList<>();
+    private final Random random = new Random();
+    // Statistics of a player who has answered every tenth question.
+    private final QuestionStats stats = new QuestionStats();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        json = Fixtures.writeQuestionFile(Files.createTempDirectory("store-bench").resolve("questions_cache.json"), questions).toFile();
+        storeFile = QuestionStore.storeFileFor(json);
+        store = QuestionStore.openFor(json, storeFile);
+        repository = new QuestionRepository(store);
+        QuestionStreamParser.parse(new FileInputStream(json), parsed::add);
+        for (int i = 0; i < parsed.size(); i += 10) {
+            stats.recordAnswer(parsed.get(i), i % 30 != 0, 5000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Path dir = json.toPath().getParent();
+        Files.deleteIfExists(json.toPath());
+        Files.deleteIfExists(storeFile.toPath());
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public List<Question> parseAndShuffle() throws IOException {
+        List<Question> all = new ArrayList<>();
+        QuestionStreamParser.parse(new FileInputStream(json), all::add);
+        Collections.shuffle(all, random);
+        return new ArrayList<>(all.subList(0, SESSION));
+    }
+
+    @Benchmark
+    public List<Question> openAndSample() throws IOException {
+        return QuestionStore.openFor(json, storeFile).sample(SESSION, random);
+    }
+
+    @Benchmark
+    public List<Question> sample() {
+        return store.sample(SESSION, random);
+    }
+
+    @Benchmark
+    public List<Question> repositorySample() {
+        return repository.sample(SESSION, random);
+    }
+
+    // A "practice topic" session; topic7 tags 4% of the generated questions.
+    @Benchmark
+    public List<Question> topicSample() {
+        return repository.sampleWithKeyword("topic7", SESSION, random);
+    }
+
+    // A normal session leaning towards the topics of two recent wrong answers.
+    @Benchmark
+    public List<Question> focusedSample() {
+        return repository.sampleFocused(SESSION, FOCUS, SESSION / 2, random);
+    }
+
+    // A full-difficulty session: 8 multiple-choice questions chosen by the player's statistics from a
+    // pool half drawn from recent wrong topics, and 2 coding challenges.
+    @Benchmark
+    public List<Question> sessionSample() {
+        return repository.sampleSession(8, 2, FOCUS, stats, random);
+    }
+
+    // The generated questions differ only in their numbers (~0.5 similar), so none is collapsed.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int deduplicate() {
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        for (Question question : parsed) {
+            deduplicator.add(question);
+        }
+        return deduplicator.getDuplicateCount();
+    }
+
+    @Benchmark
+    public int[] keywordLookup() {
+        return store.indexesWithKeyword("topic7");
+    }
+}
@@ -47,7 +47,7 @@ public class JDoodleClient {
      */
     public static int getRemainingCredits() {
         try {
-            URL url = new URL(CREDIT_SPENT_URL);
+            URL url = URI.create(CREDIT_SPENT_URL).toURL();
             HttpURLConnection con = (HttpURLConnection) url.openConnection();
             con.setRequestMethod("POST");  // Use POST as per documentation.
             con.setRequestProperty("Content-Type", "application/json");
@@ -110,7 +110,7 @@ public class JDoodleClient {
             language = "java";
         }
         
-        URL url = new URL(API_URL);
+        URL url = URI.create(API_URL).toURL();
         HttpURLConnection con = (HttpURLConnection) url.openConnection();
         con.setRequestMethod("POST");
         con.setRequestProperty("Content-Type", "application/json");
@@ -1,6 +1,7 @@
 package src.main.app;
 
 import src.main.ui.ClassicModeSelectionPopup;
+import src.main.ui.QuestionSearchPopup;
 import src.main.utils.SceneManager;
 
 import javafx.animation.ScaleTransition;
@@ -109,6 +110,20 @@ public class MainMenu {
         //     }
         // });
         dashboardBtn.setOnAction(e -> SceneManager.showDashboard());
+
+        // Search the question bank, e.g. for the content team to find duplicates.
+        Button searchBtn = new Button("🔍 Search Questions");
+        searchBtn.setFont(Font.font("Arial", 16));
+        searchBtn.setStyle(
+            "-fx-background-color: #3498db;" +
+            "-fx-text-fill: white;" +
+            "-fx-background-radius: 30;" +
+            "-fx-padding: 10 20;" +
+            "-fx-cursor: hand;" +
+            "-fx-font-weight: bold;"
+        );
+        searchBtn.setEffect(shadow);
+        searchBtn.setOnAction(e -> QuestionSearchPopup.show());
         // Create an HBox for the top: title on the left, spacer, and dashboard button on the right.
         HBox topBox = new HBox();
         topBox.setStyle("-fx-padding: 10px;");
@@ -116,7 +131,7 @@ public class MainMenu {
         topBox.setSpacing(10);
         Region spacer = new Region();
         HBox.setHgrow(spacer, javafx.scene.layout.Priority.ALWAYS);
-        topBox.getChildren().addAll(title, spacer, dashboardBtn);
+        topBox.getChildren().addAll(title, spacer, searchBtn, dashboardBtn);
 
         BorderPane root = new BorderPane();
         root.setTop(topBox);
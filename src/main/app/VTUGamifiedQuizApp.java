@@ -5,6 +5,8 @@ import src.main.utils.PreferencesManager;
 import src.main.utils.AudioManager;
 import src.main.utils.SceneManager;
 import src.main.auth.SessionManager;
+import src.main.quiz.QuestionBank;
+import src.main.leaderboard.ScoreOutbox;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -24,6 +26,10 @@ public class VTUGamifiedQuizApp extends Application {
         PreferencesManager.initialize();
         AudioManager.initialize();
         SceneManager.initialize(primaryStage);
+        // Sync the question bank in the background while the first screen is shown.
+        QuestionBank.start();
+        // Send scores saved while offline or just before the last quit.
+        ScoreOutbox.get();
 
         // Check session and set initial scene
         String token = SessionManager.getToken();
@@ -5,9 +5,14 @@ import java.io.IOException;
 import java.util.Properties;
 
 public class ConfigLoader {
+    // Default location of the configuration, relative to the working directory.
+    private static final String DEFAULT_CONFIG_PATH = "src/main/config/config.properties";
+
+    // Loads the configuration; the "config.path" system property can point to another file.
     public static Properties loadConfig() {
         Properties config = new Properties();
-        try (FileInputStream input = new FileInputStream("src/main/config/config.properties")) {
+        String path = System.getProperty("config.path", DEFAULT_CONFIG_PATH);
+        try (FileInputStream input = new FileInputStream(path)) {
             config.load(input);
         } catch (IOException e) {
             e.printStackTrace();
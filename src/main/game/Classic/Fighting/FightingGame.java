@@ -3,6 +3,8 @@ package src.main.game.Classic.Fighting;
 import src.main.utils.SceneManager;
 import src.main.auth.SessionManager;
 import src.main.leaderboard.LeaderboardService;
+import src.main.quiz.Question;
+import src.main.quiz.QuestionBank;
 
 import javafx.application.Application;
 import javafx.animation.AnimationTimer;
@@ -27,7 +29,9 @@ import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.io.File;
 
 public class FightingGame extends Application {
@@ -71,7 +75,8 @@ public class FightingGame extends Application {
 
     // Bonus fireball
     private Fireball bonusFireball = null;
-    private QuestionManager questionManager;
+    // Bonus questions come from the shared question repository.
+    private final Random questionRandom = new Random();
     private boolean bonusTriggered = false;
     private boolean inBonus = false;
 
@@ -89,6 +94,77 @@ public class FightingGame extends Application {
         primaryStage.setScene(scene);
         primaryStage.setFullScreen(true);
 
+        buildGame(root);
+
+        // Key handlers
+        // scene.setOnKeyPressed(e -> keys.put(e.getCode(), true));
+        scene.setOnKeyPressed(e -> {
+            keys.put(e.getCode(), true);
+
+            // If the game is over, handle R and M
+            if (gameOver) {
+                if (e.getCode() == KeyCode.R) {
+                    // Stop loop, close this window, re-launch FightingGame
+                    gameLoop.stop();
+                    primaryStage.close();
+                    Platform.runLater(FightingGame::launchGame);
+                }
+                else if (e.getCode() == KeyCode.M) {
+                    // Stop loop, close this window, show Main Menu
+                    gameLoop.stop();
+                    primaryStage.close();
+                    Platform.runLater(() -> {
+                        Stage main = SceneManager.getPrimaryStage();
+                        main.show();
+                        main.setFullScreen(true);
+                        SceneManager.showMainMenu();
+                    });
+                }
+                else if (e.getCode() == KeyCode.S) {
+                    // ← NEW: Save score under the logged‑in user
+                    String user = SessionManager.getUsername();
+                    int finalScore = 50;  // or currentDistance, whichever you track
+                    LeaderboardService.pushLeaderboardDataAsync(
+                        user,
+                        finalScore,
+                        "Pro", //PreferencesManager.getDifficultyString()
+                        "Fighting"
+                    );
+                    System.out.println("Score saved for " + user + "!");
+                    // 2) Return to main menu
+                    // gameLoop.stop();
+                    // primaryStage.close();
+                    // Platform.runLater(() -> {
+                    //     Stage main = SceneManager.getPrimaryStage();
+                    //     main.show();
+                    //     main.setFullScreen(true);
+                    //     SceneManager.showMainMenu();
+                    // });
+                    primaryStage.close();
+                    Platform.runLater(() -> {
+                        SceneManager.getPrimaryStage().show();
+                        SceneManager.getPrimaryStage().setFullScreen(true);
+                        SceneManager.showMainMenu();
+                    });                    
+                }
+            }
+        });
+        scene.setOnKeyReleased(e -> keys.put(e.getCode(), false));
+
+        startTime = System.nanoTime();
+        gameLoop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                update(now);
+                render();
+            }
+        };
+        gameLoop.start();
+        primaryStage.show();
+    }
+
+    // Creates the canvas, HUD, sprites, fighters and questions inside the given root pane.
+    private void buildGame(Pane root) {
         canvas = new Canvas(canvasWidth, canvasHeight);
         gc = canvas.getGraphicsContext2D();
         root.getChildren().add(canvas);
@@ -239,77 +315,19 @@ public class FightingGame extends Application {
             GRAVITY, enemySprites,
             -10, 50, 10, 50
         );
+    }
 
-        // Key handlers
-        // scene.setOnKeyPressed(e -> keys.put(e.getCode(), true));
-        scene.setOnKeyPressed(e -> {
-            keys.put(e.getCode(), true);
-
-            // If the game is over, handle R and M
-            if (gameOver) {
-                if (e.getCode() == KeyCode.R) {
-                    // Stop loop, close this window, re-launch FightingGame
-                    gameLoop.stop();
-                    primaryStage.close();
-                    Platform.runLater(FightingGame::launchGame);
-                }
-                else if (e.getCode() == KeyCode.M) {
-                    // Stop loop, close this window, show Main Menu
-                    gameLoop.stop();
-                    primaryStage.close();
-                    Platform.runLater(() -> {
-                        Stage main = SceneManager.getPrimaryStage();
-                        main.show();
-                        main.setFullScreen(true);
-                        SceneManager.showMainMenu();
-                    });
-                }
-                else if (e.getCode() == KeyCode.S) {
-                    // ← NEW: Save score under the logged‑in user
-                    String user = SessionManager.getUsername();
-                    int finalScore = 50;  // or currentDistance, whichever you track
-                    LeaderboardService.pushLeaderboardDataAsync(
-                        user,
-                        finalScore,
-                        "Pro", //PreferencesManager.getDifficultyString()
-                        "Fighting"
-                    );
-                    System.out.println("Score saved for " + user + "!");
-                    // 2) Return to main menu
-                    // gameLoop.stop();
-                    // primaryStage.close();
-                    // Platform.runLater(() -> {
-                    //     Stage main = SceneManager.getPrimaryStage();
-                    //     main.show();
-                    //     main.setFullScreen(true);
-                    //     SceneManager.showMainMenu();
-                    // });
-                    primaryStage.close();
-                    Platform.runLater(() -> {
-                        SceneManager.getPrimaryStage().show();
-                        SceneManager.getPrimaryStage().setFullScreen(true);
-                        SceneManager.showMainMenu();
-                    });                    
-                }
-            }
-        });
-        scene.setOnKeyReleased(e -> keys.put(e.getCode(), false));
-
-        // Initialize questions
-        // questionManager = new QuestionManager("questions_cache.json");
-        File questionFile = new File(baseDir, "resources/questions/questions_cache.json");
-        questionManager = new QuestionManager(questionFile.getAbsolutePath());
-
-        startTime = System.nanoTime();
-        gameLoop = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                update(now);
-                render();
-            }
-        };
-        gameLoop.start();
-        primaryStage.show();
+    /**
+     * Builds a game that is not attached to a stage, for measuring update and render cost.
+     * The JavaFX platform must already be running because the sprites are loaded from disk.
+     */
+    static FightingGame createHeadless(double width, double height) {
+        FightingGame game = new FightingGame();
+        game.canvasWidth = width;
+        game.canvasHeight = height;
+        game.buildGame(new Pane());
+        game.startTime = System.nanoTime();
+        return game;
     }
 
 
@@ -326,7 +344,7 @@ public class FightingGame extends Application {
         });
     }
 
-    private void update(long now) {
+    void update(long now) {
         gc.setFill(Color.BLACK);
         gc.fillRect(0, 0, canvasWidth, canvasHeight);
 
@@ -508,7 +526,7 @@ public class FightingGame extends Application {
         }
     }
 
-    private void render() {
+    void render() {
         gc.setFill(Color.rgb(255,255,255,0.15));
         gc.fillRect(0,0,canvasWidth,canvasHeight);
 
@@ -540,6 +558,11 @@ public class FightingGame extends Application {
         }
     }
 
+    // Presses or releases a key as if it came from the scene's key handlers.
+    void setKeyPressed(KeyCode key, boolean pressed) {
+        keys.put(key, pressed);
+    }
+
     private boolean isPressed(KeyCode key) {
         return keys.getOrDefault(key, false);
     }
@@ -582,13 +605,14 @@ public class FightingGame extends Application {
             Alert questionAlert = new Alert(Alert.AlertType.CONFIRMATION);
             questionAlert.initOwner(primaryStage);
             questionAlert.setTitle("Bonus Question!");
-            Question q = questionManager.getRandomQuestion();
+            List<Question> drawn = QuestionBank.snapshot().sample(1, questionRandom);
+            Question q = drawn.isEmpty() ? null : drawn.get(0);
             if (q==null) return;
-            questionAlert.setHeaderText(q.question);
-            ButtonType btnA=new ButtonType("A: "+q.optionA);
-            ButtonType btnB=new ButtonType("B: "+q.optionB);
-            ButtonType btnC=new ButtonType("C: "+q.optionC);
-            ButtonType btnD=new ButtonType("D: "+q.optionD);
+            questionAlert.setHeaderText(q.getQuestionText());
+            ButtonType btnA=new ButtonType("A: "+q.getOptions()[0]);
+            ButtonType btnB=new ButtonType("B: "+q.getOptions()[1]);
+            ButtonType btnC=new ButtonType("C: "+q.getOptions()[2]);
+            ButtonType btnD=new ButtonType("D: "+q.getOptions()[3]);
             questionAlert.getButtonTypes().setAll(btnA,btnB,btnC,btnD);
 
             Optional<ButtonType> resp = questionAlert.showAndWait();
@@ -599,7 +623,7 @@ public class FightingGame extends Application {
                 else if (resp.get()==btnC) chosen=2;
                 else if (resp.get()==btnD) chosen=3;
             }
-            if (chosen==q.correctOption) {
+            if (chosen==q.getCorrectIndex()) {
                 Alert bonusAlert=new Alert(Alert.AlertType.CONFIRMATION);
                 bonusAlert.initOwner(primaryStage);
                 bonusAlert.setTitle("Correct!");
@@ -1,14 +0,0 @@
-package src.main.game.Classic.Fighting;
-
-public class Question {
-    public int id;
-    public String question;
-    public String optionA;
-    public String optionB;
-    public String optionC;
-    public String optionD;
-    public int correctOption; // 0 = optionA, 1 = optionB, etc.
-    public String hint;
-    public String keywords;
-    public String explanation;
-}
@@ -0,0 +1,145 @@
+package src.main.game.Classic.RetroRunning;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Pre-rendered background of the retro runner.
+ * The sky (gradient and sun), the ground strip and two star layers are written
+ * pixel by pixel into images once. They are only repainted when the time of day,
+ * the weather or the canvas size changes; every frame just blits them, scrolling
+ * the star layers at different speeds for parallax. Building the images needs no
+ * stage or FX thread, so the runner can also be rendered headless.
+ */
+class BackgroundLayers {
+    // Scroll speed of each star layer, in pixels per unit of scroll.
+    private static final double[] STAR_LAYER_SPEEDS = { 0.3, 0.7 };
+    private static final int[] STAR_LAYER_COUNTS = { 45, 25 };
+
+    private final int groundHeight;
+    // Own generator: star placement is cosmetic and must not touch the gameplay sequence.
+    private final Random random = new Random();
+
+    private WritableImage sky;
+    private WritableImage ground;
+    private final WritableImage[] starLayers = new WritableImage[STAR_LAYER_SPEEDS.length];
+
+    // Key the cached layers were built for.
+    private boolean builtIsDay;
+    private String builtWeather;
+    private double builtWidth = -1, builtHeight = -1;
+    private int rebuilds = 0;
+
+    BackgroundLayers(int groundHeight) {
+        this.groundHeight = groundHeight;
+    }
+
+    /**
+     * Draws the sky and, at night, the scrolling star layers.
+     *
+     * @param scroll    distance travelled, used to offset the parallax layers.
+     * @param showStars whether the star layers are visible.
+     */
+    void drawSky(GraphicsContext gc, double width, double height, boolean isDay, String weather,
+                 boolean showStars, double scroll) {
+        ensureBuilt(width, height, isDay, weather);
+        gc.drawImage(sky, 0, 0);
+        if (showStars && !isDay) {
+            for (int i = 0; i < starLayers.length; i++) {
+                double offset = (scroll * STAR_LAYER_SPEEDS[i]) % width;
+                gc.drawImage(starLayers[i], -offset, 0);
+                gc.drawImage(starLayers[i], width - offset, 0);
+            }
+        }
+    }
+
+    // Draws the ground strip; call after the weather so rain does not cover it.
+    void drawGround(GraphicsContext gc, double width, double height) {
+        gc.drawImage(ground, 0, height - groundHeight);
+    }
+
+    // Number of times the cached layers have been repainted.
+    int getRebuildCount() {
+        return rebuilds;
+    }
+
+    private void ensureBuilt(double width, double height, boolean isDay, String weather) {
+        if (sky != null && builtIsDay == isDay && weather.equals(builtWeather)
+                && builtWidth == width && builtHeight == height) {
+            return;
+        }
+        int w = Math.max(1, (int) Math.ceil(width));
+        int h = Math.max(1, (int) Math.ceil(height));
+        int skyHeight = Math.max(1, h - groundHeight);
+        int[] row = new int[w];
+
+        // Vertical gradient, one row at a time, with the sun on clear days.
+        Color top = skyColor(isDay, weather);
+        Color bottom = isDay ? top.interpolate(Color.WHITE, 0.35) : Color.MIDNIGHTBLUE.darker();
+        sky = new WritableImage(w, h);
+        PixelWriter skyWriter = sky.getPixelWriter();
+        boolean sun = isDay && weather.equals("sunny");
+        double sunX = w - 60, sunY = 40, sunRadius = 20;
+        int sunArgb = argb(Color.GOLD);
+        for (int y = 0; y < h; y++) {
+            Arrays.fill(row, argb(top.interpolate(bottom, y / (double) h)));
+            if (sun && Math.abs(y + 0.5 - sunY) < sunRadius) {
+                double dy = y + 0.5 - sunY;
+                double halfChord = Math.sqrt(sunRadius * sunRadius - dy * dy);
+                int from = Math.max(0, (int) Math.round(sunX - halfChord));
+                int to = Math.min(w, (int) Math.round(sunX + halfChord));
+                Arrays.fill(row, from, Math.max(from, to), sunArgb);
+            }
+            skyWriter.setPixels(0, y, w, 1, PixelFormat.getIntArgbInstance(), row, 0, w);
+        }
+
+        ground = new WritableImage(w, groundHeight);
+        Arrays.fill(row, argb(Color.DARKGRAY));
+        PixelWriter groundWriter = ground.getPixelWriter();
+        for (int y = 0; y < groundHeight; y++) {
+            groundWriter.setPixels(0, y, w, 1, PixelFormat.getIntArgbInstance(), row, 0, w);
+        }
+
+        // Star layers start fully transparent; each star is a 2x2 white square.
+        int white = argb(Color.WHITE);
+        for (int i = 0; i < starLayers.length; i++) {
+            WritableImage layer = new WritableImage(w, skyHeight);
+            PixelWriter starWriter = layer.getPixelWriter();
+            for (int s = 0; s < STAR_LAYER_COUNTS[i]; s++) {
+                int x = random.nextInt(Math.max(1, w - 1));
+                int y = random.nextInt(Math.max(1, skyHeight - 1));
+                for (int dy = 0; dy < 2 && y + dy < skyHeight; dy++) {
+                    for (int dx = 0; dx < 2 && x + dx < w; dx++) {
+                        starWriter.setArgb(x + dx, y + dy, white);
+                    }
+                }
+            }
+            starLayers[i] = layer;
+        }
+
+        builtIsDay = isDay;
+        builtWeather = weather;
+        builtWidth = width;
+        builtHeight = height;
+        rebuilds++;
+    }
+
+    private static Color skyColor(boolean isDay, String weather) {
+        if (!isDay) return Color.BLACK;
+        if (weather.equals("sunny")) return Color.SKYBLUE;
+        if (weather.equals("autumn")) return Color.LIGHTGOLDENRODYELLOW;
+        return Color.LIGHTBLUE;
+    }
+
+    private static int argb(Color color) {
+        return ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+    }
+}
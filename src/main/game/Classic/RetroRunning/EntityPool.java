@@ -0,0 +1,116 @@
+package src.main.game.Classic.RetroRunning;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reusable storage for one entity type.
+ * Live entities sit in a dense array in spawn order; released entities go onto a
+ * free list and are handed out again by {@link #acquire()}, so once the pool has
+ * grown to the peak entity count the game loop creates no new objects.
+ *
+ * Iterate with {@link #size()} and {@link #get(int)} rather than an iterator to
+ * keep the loop allocation-free.
+ */
+class EntityPool<T> {
+    private final Supplier<T> factory;
+    // Tells whether a live entity has been flagged for release during this step.
+    private final Predicate<T> isFlagged;
+
+    private Object[] live = new Object[16];
+    private int liveCount = 0;
+    private Object[] free = new Object[16];
+    private int freeCount = 0;
+    private int created = 0;
+
+    EntityPool(Supplier<T> factory, Predicate<T> isFlagged) {
+        this.factory = factory;
+        this.isFlagged = isFlagged;
+    }
+
+    /**
+     * Takes an entity from the free list (or creates one) and appends it to the live set.
+     * The caller must reinitialise every field it relies on.
+     */
+    @SuppressWarnings("unchecked")
+    T acquire() {
+        T entity;
+        if (freeCount > 0) {
+            entity = (T) free[--freeCount];
+            free[freeCount] = null;
+        } else {
+            entity = factory.get();
+            created++;
+        }
+        if (liveCount == live.length) {
+            live = Arrays.copyOf(live, liveCount * 2);
+        }
+        live[liveCount++] = entity;
+        return entity;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T) live[index];
+    }
+
+    int size() {
+        return liveCount;
+    }
+
+    // Moves every flagged entity to the free list, keeping the others in order.
+    @SuppressWarnings("unchecked")
+    void releaseFlagged() {
+        int kept = 0;
+        for (int i = 0; i < liveCount; i++) {
+            T entity = (T) live[i];
+            if (isFlagged.test(entity)) {
+                pushFree(entity);
+            } else {
+                live[kept++] = entity;
+            }
+        }
+        Arrays.fill(live, kept, liveCount, null);
+        liveCount = kept;
+    }
+
+    // Releases one specific entity; returns false if it was not live.
+    boolean release(T entity) {
+        for (int i = 0; i < liveCount; i++) {
+            if (live[i] == entity) {
+                System.arraycopy(live, i + 1, live, i, liveCount - i - 1);
+                live[--liveCount] = null;
+                pushFree(entity);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Releases every live entity.
+    void releaseAll() {
+        for (int i = 0; i < liveCount; i++) {
+            pushFree(live[i]);
+            live[i] = null;
+        }
+        liveCount = 0;
+    }
+
+    // Number of idle entities waiting on the free list.
+    int pooledCount() {
+        return freeCount;
+    }
+
+    // Number of entities this pool has ever created.
+    int createdCount() {
+        return created;
+    }
+
+    private void pushFree(Object entity) {
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = entity;
+    }
+}
@@ -0,0 +1,101 @@
+package src.main.game.Classic.RetroRunning;
+
+import javafx.animation.AnimationTimer;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Game loop that advances the simulation in fixed steps and renders once per pulse.
+ * Elapsed pulse time is collected in an accumulator and consumed one step at a time,
+ * so gameplay runs at the same speed whatever frame rate the FX thread delivers.
+ * The leftover fraction of a step is handed to the renderer for interpolation.
+ */
+class FixedStepLoop extends AnimationTimer {
+    private final long stepNanos;
+    // Upper bound on steps per pulse; older backlog is dropped instead of spiralling.
+    private final int maxStepsPerFrame;
+    private final Runnable update;
+    private final DoubleConsumer render;
+
+    private final FrameTimeCounter simulationTime = new FrameTimeCounter();
+    private final FrameTimeCounter renderTime = new FrameTimeCounter();
+
+    private long lastNanos = -1;
+    private long accumulator = 0;
+    private boolean running = false;
+    private long droppedSteps = 0;
+
+    /**
+     * @param stepMillis       length of one simulation step.
+     * @param maxStepsPerFrame maximum number of catch-up steps run in a single pulse.
+     * @param update           advances the simulation by exactly one step.
+     * @param render           draws the scene; receives the interpolation factor in [0, 1).
+     */
+    FixedStepLoop(double stepMillis, int maxStepsPerFrame, Runnable update, DoubleConsumer render) {
+        this.stepNanos = (long) (stepMillis * 1_000_000);
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.update = update;
+        this.render = render;
+    }
+
+    @Override
+    public void handle(long now) {
+        if (lastNanos < 0) {
+            lastNanos = now;
+        }
+        accumulator += now - lastNanos;
+        lastNanos = now;
+
+        int steps = 0;
+        while (running && accumulator >= stepNanos) {
+            if (steps == maxStepsPerFrame) {
+                droppedSteps += accumulator / stepNanos;
+                accumulator %= stepNanos;
+                break;
+            }
+            simulationTime.begin();
+            update.run();
+            simulationTime.end();
+            accumulator -= stepNanos;
+            steps++;
+        }
+
+        renderTime.begin();
+        render.accept(accumulator / (double) stepNanos);
+        renderTime.end();
+    }
+
+    // Starts or resumes the loop; time spent paused is not simulated.
+    void play() {
+        if (running) return;
+        running = true;
+        lastNanos = -1;
+        start();
+    }
+
+    // Suspends the loop and keeps the partial step for when it resumes.
+    void pause() {
+        running = false;
+        super.stop();
+    }
+
+    @Override
+    public void stop() {
+        pause();
+        accumulator = 0;
+    }
+
+    // Average cost of one simulation step.
+    FrameTimeCounter getSimulationTime() {
+        return simulationTime;
+    }
+
+    // Average cost of one rendered frame.
+    FrameTimeCounter getRenderTime() {
+        return renderTime;
+    }
+
+    // Steps dropped because a pulse needed more than maxStepsPerFrame to catch up.
+    long getDroppedSteps() {
+        return droppedSteps;
+    }
+}
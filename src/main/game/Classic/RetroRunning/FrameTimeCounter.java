@@ -0,0 +1,42 @@
+package src.main.game.Classic.RetroRunning;
+
+/**
+ * Smoothed timing of a repeated piece of work (e.g. one draw pass).
+ * Keeps an exponential moving average so the on-screen value is readable.
+ */
+class FrameTimeCounter {
+    // Weight of the newest sample in the moving average.
+    private static final double SMOOTHING = 0.05;
+
+    private long startNanos;
+    private double averageMillis = 0;
+    private long samples = 0;
+
+    // Marks the start of a measured section.
+    void begin() {
+        startNanos = System.nanoTime();
+    }
+
+    // Marks the end of a measured section and folds it into the average.
+    void end() {
+        record((System.nanoTime() - startNanos) / 1_000_000.0);
+    }
+
+    void record(double millis) {
+        averageMillis = (samples == 0) ? millis : averageMillis + SMOOTHING * (millis - averageMillis);
+        samples++;
+    }
+
+    double getAverageMillis() {
+        return averageMillis;
+    }
+
+    boolean hasSamples() {
+        return samples > 0;
+    }
+
+    void reset() {
+        averageMillis = 0;
+        samples = 0;
+    }
+}
@@ -0,0 +1,85 @@
+package src.main.game.Classic.RetroRunning;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Command-line driver that runs the retro runner without a stage.
+ *
+ * <pre>
+ * simulate &lt;seed&gt; &lt;minutes&gt; [correctRate] [replayFile]
+ *     Plays back-to-back games with a simple bot until the given amount of game
+ *     time has been simulated, then prints the results and the simulation speed.
+ *     The first game is saved to replayFile when one is given.
+ * replay &lt;replayFile&gt;
+ *     Re-simulates a saved game and checks that it ends exactly as recorded.
+ * </pre>
+ */
+public class HeadlessRunner {
+    // Per-step probability that the bot presses jump or fire.
+    private static final double JUMP_CHANCE = 0.03;
+    private static final double FIRE_CHANCE = 0.005;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("replay")) {
+            replay(Paths.get(args[1]));
+        } else if (args.length >= 3 && args[0].equals("simulate")) {
+            long seed = Long.parseLong(args[1]);
+            double minutes = Double.parseDouble(args[2]);
+            double correctRate = args.length >= 4 ? Double.parseDouble(args[3]) : 0.5;
+            Path replayFile = args.length >= 5 ? Paths.get(args[4]) : null;
+            simulate(seed, minutes, correctRate, replayFile);
+        } else {
+            System.out.println("Usage: simulate <seed> <minutes> [correctRate] [replayFile]");
+            System.out.println("       replay <replayFile>");
+        }
+    }
+
+    private static void simulate(long seed, double minutes, double correctRate, Path replayFile) throws IOException {
+        long stepBudget = RunnerSimulation.secondsToSteps(minutes * 60);
+        long totalSteps = 0;
+        int games = 0;
+        long totalScore = 0;
+        int bestLevel = 0;
+        long start = System.nanoTime();
+        while (totalSteps < stepBudget) {
+            long gameSeed = seed + games;
+            // The bot and the quiz answers use their own generators so they never shift the game's sequence.
+            Random bot = new Random(gameSeed * 31 + 7);
+            RunnerReplay replay = new RunnerReplay(gameSeed, 800, 600);
+            RunnerSimulation simulation = replay.newSimulation(type -> bot.nextDouble() < correctRate
+                    ? RunnerSimulation.QuizAnswer.CORRECT : RunnerSimulation.QuizAnswer.WRONG);
+            while (!simulation.isGameOver() && totalSteps < stepBudget) {
+                if (bot.nextDouble() < JUMP_CHANCE) simulation.jump();
+                if (bot.nextDouble() < FIRE_CHANCE) simulation.fireThunder();
+                simulation.step();
+                totalSteps++;
+            }
+            replay.finish(simulation);
+            if (games == 0 && replayFile != null) {
+                replay.save(replayFile);
+                System.out.println("Saved replay of game 1 (" + replay.getSizeInBytes() + " bytes of input) to " + replayFile);
+            }
+            games++;
+            totalScore += simulation.getScore();
+            bestLevel = Math.max(bestLevel, simulation.getLevel());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double simulatedMinutes = totalSteps * RunnerSimulation.STEP_MS / 60000.0;
+        System.out.printf("Games: %d  average score: %.1f  best level: %d%n", games, totalScore / (double) games, bestLevel);
+        System.out.printf("Simulated %.1f min (%d steps) in %.3f s: %.0f simulated min/s, %.0f ns/step%n",
+                simulatedMinutes, totalSteps, seconds, simulatedMinutes / seconds, seconds * 1e9 / totalSteps);
+    }
+
+    private static void replay(Path file) throws IOException {
+        RunnerReplay replay = RunnerReplay.load(file);
+        boolean matches = replay.verify();
+        System.out.printf("Seed %d: %d steps, score %d, level %d -> %s%n", replay.getSeed(), replay.getFinalTick(),
+                replay.getFinalScore(), replay.getFinalLevel(), matches ? "replay matches" : "REPLAY DIVERGED");
+        if (!matches) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package src.main.game.Classic.RetroRunning;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Seed and input log of one runner game.
+ * Because {@link RunnerSimulation} is deterministic, the seed, the starting
+ * playfield size and the tick of every input are enough to re-simulate the game
+ * exactly. Events are stored as a variable-length tick delta plus a one-byte type,
+ * so a long game fits in a few kilobytes. The final tick, score, level and lives
+ * are stored too, letting {@link #verify()} detect any divergence.
+ */
+public class RunnerReplay {
+    private static final int MAGIC = 0x52524550; // "RREP"
+    private static final byte VERSION = 1;
+
+    static final byte EVENT_END = 0;
+    static final byte EVENT_JUMP = 1;
+    static final byte EVENT_FIRE = 2;
+    static final byte EVENT_QUIZ_CORRECT = 3;
+    static final byte EVENT_QUIZ_WRONG = 4;
+    static final byte EVENT_RESIZE = 5;
+
+    private final long seed;
+    private final double width, height;
+    private final ByteArrayOutputStream eventBytes;
+    private final DataOutputStream events;
+    private long lastTick = 0;
+    private boolean finished = false;
+
+    // Outcome stored by finish(); checked by verify().
+    private long finalTick;
+    private int finalScore, finalLevel, finalLives;
+
+    /**
+     * Starts an empty recording.
+     *
+     * @param seed   seed of the gameplay random generator.
+     * @param width  initial playfield width.
+     * @param height initial playfield height.
+     */
+    public RunnerReplay(long seed, double width, double height) {
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.eventBytes = new ByteArrayOutputStream();
+        this.events = new DataOutputStream(eventBytes);
+    }
+
+    private RunnerReplay(long seed, double width, double height, byte[] recorded) {
+        this(seed, width, height);
+        eventBytes.writeBytes(recorded);
+        finished = true;
+    }
+
+    /**
+     * Creates the simulation described by this replay's header and records its inputs here.
+     */
+    public RunnerSimulation newSimulation(RunnerSimulation.QuizAnswerPolicy quizPolicy) {
+        RunnerSimulation simulation = new RunnerSimulation(new Random(seed), width, height, quizPolicy);
+        simulation.setRecorder(this);
+        return simulation;
+    }
+
+    void record(long tick, byte type) {
+        if (finished) return;
+        try {
+            writeVarLong(events, tick - lastTick);
+            events.writeByte(type);
+            lastTick = tick;
+        } catch (IOException e) {
+            // Writes to a ByteArrayOutputStream cannot fail.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void recordResize(long tick, double newWidth, double newHeight) {
+        if (finished) return;
+        record(tick, EVENT_RESIZE);
+        try {
+            events.writeDouble(newWidth);
+            events.writeDouble(newHeight);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Closes the recording with the final state of the simulation.
+    public void finish(RunnerSimulation simulation) {
+        if (finished) return;
+        record(simulation.getTick(), EVENT_END);
+        finalTick = simulation.getTick();
+        finalScore = simulation.getScore();
+        finalLevel = simulation.getLevel();
+        finalLives = simulation.getLives();
+        finished = true;
+    }
+
+    public void save(Path file) throws IOException {
+        if (!finished) {
+            throw new IllegalStateException("Replay is still recording");
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeDouble(width);
+            out.writeDouble(height);
+            out.writeLong(finalTick);
+            out.writeInt(finalScore);
+            out.writeInt(finalLevel);
+            out.writeInt(finalLives);
+            out.writeInt(eventBytes.size());
+            eventBytes.writeTo(out);
+        }
+    }
+
+    public static RunnerReplay load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a runner replay: " + file);
+            }
+            long seed = in.readLong();
+            double width = in.readDouble();
+            double height = in.readDouble();
+            long tick = in.readLong();
+            int score = in.readInt();
+            int level = in.readInt();
+            int lives = in.readInt();
+            byte[] recorded = new byte[in.readInt()];
+            in.readFully(recorded);
+            RunnerReplay replay = new RunnerReplay(seed, width, height, recorded);
+            replay.finalTick = tick;
+            replay.finalScore = score;
+            replay.finalLevel = level;
+            replay.finalLives = lives;
+            return replay;
+        }
+    }
+
+    /**
+     * Re-simulates the recorded game, feeding every input at its original tick.
+     * Quiz answers come from the log, so no policy is needed.
+     *
+     * @return the simulation in its final state.
+     * @throws IllegalStateException if the simulation stops before the log does.
+     */
+    public RunnerSimulation play() {
+        if (!finished) {
+            throw new IllegalStateException("Replay is still recording");
+        }
+        RunnerSimulation simulation = new RunnerSimulation(new Random(seed), width, height,
+                type -> RunnerSimulation.QuizAnswer.DEFERRED);
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(eventBytes.toByteArray()));
+            long at = readVarLong(in);
+            byte type = in.readByte();
+            while (true) {
+                while (type != EVENT_END && at == simulation.getTick()) {
+                    apply(type, in, simulation);
+                    at += readVarLong(in);
+                    type = in.readByte();
+                }
+                if (type == EVENT_END && simulation.getTick() == at) break;
+                if (!simulation.step()) {
+                    throw new IllegalStateException("Replay diverged at tick " + simulation.getTick());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt replay", e);
+        }
+        return simulation;
+    }
+
+    // Re-simulates the game and checks that it ends exactly as recorded.
+    public boolean verify() {
+        RunnerSimulation simulation = play();
+        return simulation.getTick() == finalTick && simulation.getScore() == finalScore
+                && simulation.getLevel() == finalLevel && simulation.getLives() == finalLives;
+    }
+
+    public long getSeed() { return seed; }
+    public long getFinalTick() { return finalTick; }
+    public int getFinalScore() { return finalScore; }
+    public int getFinalLevel() { return finalLevel; }
+    public int getSizeInBytes() { return eventBytes.size(); }
+
+    private static void apply(byte type, DataInputStream in, RunnerSimulation simulation) throws IOException {
+        switch (type) {
+            case EVENT_JUMP:
+                simulation.jump();
+                break;
+            case EVENT_FIRE:
+                simulation.fireThunder();
+                break;
+            case EVENT_QUIZ_CORRECT:
+                simulation.answerQuiz(true);
+                break;
+            case EVENT_QUIZ_WRONG:
+                simulation.answerQuiz(false);
+                break;
+            case EVENT_RESIZE:
+                simulation.resize(in.readDouble(), in.readDouble());
+                break;
+            default:
+                throw new IOException("Unknown replay event " + type);
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) throw new IOException("Truncated replay");
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,759 @@
+package src.main.game.Classic.RetroRunning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gameplay state and rules of the retro runner, without any JavaFX dependency.
+ * The simulation advances in fixed steps of {@link #STEP_MS}; all randomness comes
+ * from the injected {@link Random}, so two simulations built with the same seed,
+ * world size and inputs evolve identically. Quiz questions are delegated to a
+ * {@link QuizAnswerPolicy}: the game shows a dialog and answers later, while headless
+ * runs answer on the spot.
+ *
+ * Inputs (jump, fire, quiz answers, resizes) can be captured by a {@link RunnerReplay}.
+ */
+public class RunnerSimulation {
+    static final double STEP_MS = 33;
+    static final int GROUND_HEIGHT = 50;
+    static final int SCALE = 5;
+    static final int RUNNER_PIXEL_WIDTH = 8;
+    static final int RUNNER_PIXEL_HEIGHT = 10;
+    static final int OBSTACLE_PIXEL_WIDTH = 6;
+    private static final double GRAVITY = 0.5;
+    private static final double JUMP_STRENGTH = -10;
+    static final int MAX_THUNDERBOLTS = 20;
+
+    // Outcome of a quiz as reported by a policy.
+    public enum QuizAnswer { CORRECT, WRONG, DEFERRED }
+
+    /**
+     * Decides how a triggered quiz is answered.
+     * Returning DEFERRED pauses the simulation until {@link #answerQuiz(boolean)} is called.
+     */
+    public interface QuizAnswerPolicy {
+        QuizAnswer answer(String quizType);
+    }
+
+    // Common state of every moving entity; prevX/prevY hold the position before the last step.
+    // Entities are pooled, so spawning goes through set(...) instead of a constructor.
+    static abstract class Entity {
+        double x, y;
+        double prevX, prevY;
+        // Set when the entity should be dropped at the end of the current step.
+        boolean removed = false;
+        void place(double x, double y) {
+            this.x = x; this.y = y;
+            removed = false;
+            savePosition();
+        }
+        void savePosition() {
+            prevX = x; prevY = y;
+        }
+    }
+
+    // Obstacles: "cactus" or "pine".
+    static class Obstacle extends Entity {
+        boolean quizTriggered = false;
+        String type;
+        Obstacle set(double x, double y, String type) {
+            place(x, y);
+            this.type = type;
+            this.quizTriggered = false;
+            return this;
+        }
+    }
+
+    // Enemies (e.g., pterodactyls).
+    static class Enemy extends Entity {
+        boolean quizTriggered = false;
+        Enemy set(double x, double y) {
+            place(x, y);
+            this.quizTriggered = false;
+            return this;
+        }
+    }
+
+    static class Coin extends Entity {
+        Coin set(double x, double y) {
+            place(x, y);
+            return this;
+        }
+    }
+
+    static class Thunderbolt extends Entity {
+        double speed = 10;
+        Thunderbolt set(double x, double y) {
+            place(x, y);
+            return this;
+        }
+    }
+
+    // Power-Ups: shield, magnet, thunder.
+    static class PowerUp extends Entity {
+        String type;
+        PowerUp set(double x, double y, String type) {
+            place(x, y);
+            this.type = type;
+            return this;
+        }
+    }
+
+    // Boss enemy – a spaceship. Only one is alive at a time, so a single instance is reused.
+    static class Boss extends Entity {
+        int health;
+        boolean quizTriggered = false;
+        int flashCounter = 0;
+        int bossTimer;
+        int bulletTimer;
+        Boss set(double x, double y, int health, int timer) {
+            place(x, y);
+            this.health = health; this.bossTimer = timer;
+            this.bulletTimer = 50;
+            this.quizTriggered = false;
+            this.flashCounter = 0;
+            return this;
+        }
+    }
+
+    static class BossBullet extends Entity {
+        double speedX, speedY;
+        BossBullet set(double x, double y, double speedX, double speedY) {
+            place(x, y);
+            this.speedX = speedX; this.speedY = speedY;
+            return this;
+        }
+    }
+
+    static class Meteor extends Entity {
+        double speedY;
+        Meteor set(double x, double y, double speedY) {
+            place(x, y);
+            this.speedY = speedY;
+            return this;
+        }
+    }
+
+    private final Random rand;
+    private final QuizAnswerPolicy quizPolicy;
+    private RunnerReplay recorder;
+
+    private double width, height;
+    private long tick = 0;
+
+    // Game state.
+    private boolean gameOver = false;
+    private boolean pausedForQuiz = false;
+    private int score = 0;
+    private int lives = 10;
+    private int level = 1;
+
+    // Day/Night & Weather; weatherChanges lets the view notice every change, even to the same weather.
+    private boolean isDay = true;
+    private String currentWeather;
+    private int weatherChanges = 0;
+    private int lastWeatherChangeScore = 0;
+    private boolean meteorScene = false;
+
+    // Runner.
+    private final double runnerX = 100;
+    private double runnerY;
+    private double prevRunnerY;
+    private double runnerVelocityY = 0;
+    private int jumpCount = 0;
+
+    private double baseObstacleSpeed = 4;
+    private final double baseEnemySpeed = 5;
+    private int coinCombo = 0;
+    private int thunderbolts = 10;
+    private boolean shieldActive = false;
+    private boolean magnetActive = false;
+
+    private final EntityPool<Obstacle> obstacles = new EntityPool<>(Obstacle::new, e -> e.removed);
+    private final EntityPool<Enemy> enemies = new EntityPool<>(Enemy::new, e -> e.removed);
+    private final EntityPool<Coin> coins = new EntityPool<>(Coin::new, e -> e.removed);
+    private final EntityPool<Thunderbolt> thunderShots = new EntityPool<>(Thunderbolt::new, e -> e.removed);
+    private final EntityPool<PowerUp> powerUps = new EntityPool<>(PowerUp::new, e -> e.removed);
+    private final EntityPool<BossBullet> bossBullets = new EntityPool<>(BossBullet::new, e -> e.removed);
+    private final EntityPool<Meteor> meteors = new EntityPool<>(Meteor::new, e -> e.removed);
+    private static final String[] POWER_UP_TYPES = {"shield", "magnet", "thunder"};
+    private final Boss bossInstance = new Boss();
+    private Boss boss = null;
+
+    // Quiz waiting for an answer: its type and the entity that triggered it.
+    private String quizType = null;
+    private Entity quizEntity = null;
+
+    // Broad-phase collision grid, rebuilt every step; layers identify the entity type.
+    private static final int LAYER_OBSTACLE = 1;
+    private static final int LAYER_ENEMY = 1 << 1;
+    private static final int LAYER_COIN = 1 << 2;
+    private static final int LAYER_POWER_UP = 1 << 3;
+    private static final int LAYER_METEOR = 1 << 4;
+    private static final int LAYER_BOSS_BULLET = 1 << 5;
+    private static final int LAYER_BOSS = 1 << 6;
+    private final SpatialHashGrid<Entity> collisionGrid = new SpatialHashGrid<>(64, 8);
+    private final List<Entity> collisionHits = new ArrayList<>();
+
+    // Gameplay timers, counted in simulation steps so they freeze whenever the game is paused.
+    // Every run gets a new simulation and with it a new wheel, so a restart drops all timers.
+    private static final int TIMER_COMBO_RESET = 0;
+    private static final int TIMER_SHIELD = 1;
+    private static final int TIMER_MAGNET = 2;
+    private static final int TIMER_SPEED_PENALTY = 3;
+    private static final int TIMER_METEOR_SCENE = 4;
+    private final TimerWheel timers = new TimerWheel(5, 9);
+    private final TimerWheel.Listener timerListener = this::onTimerExpired;
+
+    /**
+     * Starts a new game.
+     *
+     * @param random     source of every gameplay decision (spawns, weather, boss).
+     * @param width      width of the playfield.
+     * @param height     height of the playfield, ground strip included.
+     * @param quizPolicy answers the quizzes triggered by obstacles, enemies and the boss.
+     */
+    public RunnerSimulation(Random random, double width, double height, QuizAnswerPolicy quizPolicy) {
+        this.rand = random;
+        this.width = width;
+        this.height = height;
+        this.quizPolicy = quizPolicy;
+        currentWeather = getRandomWeather();
+        runnerY = groundY();
+        prevRunnerY = runnerY;
+    }
+
+    // Records every input from now on into the given replay.
+    public void setRecorder(RunnerReplay recorder) {
+        this.recorder = recorder;
+    }
+
+    // Resizes the playfield; entities keep their positions.
+    public void resize(double width, double height) {
+        if (width == this.width && height == this.height) return;
+        this.width = width;
+        this.height = height;
+        if (recorder != null) recorder.recordResize(tick, width, height);
+    }
+
+    // Jumps, or double-jumps while in the air.
+    public void jump() {
+        if (recorder != null) recorder.record(tick, RunnerReplay.EVENT_JUMP);
+        if (runnerY >= groundY() - 1) {
+            jumpCount = 0;
+        }
+        if (jumpCount < 2) {
+            runnerVelocityY = JUMP_STRENGTH;
+            jumpCount++;
+        }
+    }
+
+    // Fires a thunderbolt if any are left.
+    public void fireThunder() {
+        if (recorder != null) recorder.record(tick, RunnerReplay.EVENT_FIRE);
+        if (thunderbolts > 0) {
+            thunderShots.acquire().set(runnerX + RUNNER_PIXEL_WIDTH * SCALE, runnerY + 3 * SCALE);
+            thunderbolts--;
+        }
+    }
+
+    /**
+     * Resolves the pending quiz and resumes the game.
+     * Ignored when no quiz is waiting.
+     */
+    public void answerQuiz(boolean correct) {
+        if (quizType == null) return;
+        if (recorder != null) {
+            recorder.record(tick, correct ? RunnerReplay.EVENT_QUIZ_CORRECT : RunnerReplay.EVENT_QUIZ_WRONG);
+        }
+        String type = quizType;
+        Entity entity = quizEntity;
+        quizType = null;
+        quizEntity = null;
+        pausedForQuiz = false;
+        // The entity may have been destroyed in the step that triggered the quiz; it then scores nothing more.
+        boolean gone = type.equals("boss") ? boss != entity : entity.removed;
+        if (correct) {
+            if (gone) return;
+            if (type.equals("enemy")) { score += 4; enemies.release((Enemy) entity); }
+            else if (type.equals("obstacle")) { score += 2; obstacles.release((Obstacle) entity); }
+            else if (type.equals("boss")) {
+                Boss quizBoss = (Boss) entity;
+                quizBoss.health--;
+                score += 5;
+                quizBoss.quizTriggered = false;
+                if (quizBoss.health <= 0) { score += 10; boss = null; }
+            }
+        } else {
+            if (type.equals("enemy") || type.equals("boss")) {
+                lives--;
+                if (lives <= 0) gameOver = true;
+            } else {
+                baseObstacleSpeed = 2;
+                timers.schedule(TIMER_SPEED_PENALTY, secondsToSteps(2));
+            }
+        }
+    }
+
+    /**
+     * Advances the game by one fixed step.
+     *
+     * @return false when nothing happened because the game is over or waiting for a quiz.
+     */
+    public boolean step() {
+        if (gameOver || pausedForQuiz) return false;
+        tick++;
+        update();
+        if (quizType != null) {
+            QuizAnswer answer = quizPolicy.answer(quizType);
+            if (answer != QuizAnswer.DEFERRED) {
+                answerQuiz(answer == QuizAnswer.CORRECT);
+            }
+        }
+        return true;
+    }
+
+    private void update() {
+        double groundY = groundY();
+        savePreviousPositions();
+
+        // Update runner physics.
+        runnerVelocityY += GRAVITY;
+        runnerY += runnerVelocityY;
+        if (runnerY > groundY) {
+            runnerY = groundY;
+            runnerVelocityY = 0;
+            jumpCount = 0;
+        }
+
+        level = (score / 10) + 1;
+        if (score - lastWeatherChangeScore >= 100) {
+            currentWeather = getRandomWeather();
+            lastWeatherChangeScore = score;
+            weatherChanges++;
+        }
+        timers.advance(timerListener);
+        if (level >= 20 && !meteorScene) {
+            meteorScene = true;
+            timers.schedule(TIMER_METEOR_SCENE, secondsToSteps(10));
+        }
+
+        double obstacleSpeed = baseObstacleSpeed + (level - 1) * 0.5;
+        double enemySpeed = baseEnemySpeed + (level - 1) * 0.5;
+
+        if (rand.nextDouble() < 0.02) spawnObstacle();
+        if (rand.nextDouble() < 0.01) spawnEnemy();
+        if (rand.nextDouble() < 0.015) spawnCoin();
+        if (rand.nextDouble() < 0.005) spawnPowerUp();
+        if (meteorScene && rand.nextDouble() < 0.02) spawnMeteor();
+
+        if (magnetActive) {
+            for (int i = 0; i < coins.size(); i++) {
+                Coin coin = coins.get(i);
+                coin.x -= 2;
+                double diffY = runnerY - coin.y;
+                coin.y += diffY * 0.1;
+            }
+        }
+
+        // Move everything and flag what has left the screen.
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obs = obstacles.get(i);
+            obs.x -= obstacleSpeed;
+            if (obs.x + OBSTACLE_PIXEL_WIDTH * SCALE < 0) {
+                obs.removed = true;
+                score += 1;
+            }
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            enemy.x -= enemySpeed;
+            if (enemy.x + OBSTACLE_PIXEL_WIDTH * SCALE < 0) {
+                enemy.removed = true;
+                score += 2;
+            }
+        }
+        for (int i = 0; i < coins.size(); i++) {
+            Coin coin = coins.get(i);
+            coin.x -= obstacleSpeed * 0.8;
+            if (coin.x + 8 * SCALE < 0) coin.removed = true;
+        }
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp pu = powerUps.get(i);
+            pu.x -= obstacleSpeed * 0.8;
+            if (pu.x + 8 * SCALE < 0) pu.removed = true;
+        }
+        if (meteorScene) {
+            for (int i = 0; i < meteors.size(); i++) {
+                Meteor m = meteors.get(i);
+                m.y += m.speedY;
+                if (m.y > height - GROUND_HEIGHT) m.removed = true;
+            }
+        }
+        for (int i = 0; i < bossBullets.size(); i++) {
+            BossBullet bb = bossBullets.get(i);
+            bb.x += bb.speedX;
+            bb.y += bb.speedY;
+            if (bb.x < 0 || bb.x > width || bb.y > height) bb.removed = true;
+        }
+        for (int i = 0; i < thunderShots.size(); i++) {
+            Thunderbolt t = thunderShots.get(i);
+            t.x += t.speed;
+            if (t.x > width) t.removed = true;
+        }
+
+        if (level % 10 == 0 && boss == null) {
+            spawnBoss();
+        }
+        if (boss != null) {
+            boss.x = runnerX + 200;
+            boss.y = height - GROUND_HEIGHT - (12 * SCALE);
+            boss.bossTimer--;
+            if (boss.bossTimer <= 0) {
+                lives--;
+                boss = null;
+                if (lives <= 0) {
+                    gameOver = true;
+                }
+            } else {
+                boss.bulletTimer--;
+                if (boss.bulletTimer <= 0) {
+                    spawnBossBullet();
+                    boss.bulletTimer = 50;
+                }
+                if (boss.flashCounter > 0) {
+                    boss.flashCounter--;
+                }
+                double runnerRight = runnerX + RUNNER_PIXEL_WIDTH * SCALE;
+                if (!boss.quizTriggered && boss.x <= runnerRight + 10 && boss.x >= runnerRight - 10) {
+                    if (!shieldActive && runnerY >= groundY - 5) {
+                        boss.quizTriggered = true;
+                        triggerQuiz("boss", boss);
+                    } else if (shieldActive) {
+                        boss.health--;
+                        boss.flashCounter = 10;
+                        if (boss.health <= 0) {
+                            score += 10;
+                            boss = null;
+                        }
+                    }
+                }
+            }
+        }
+
+        registerCollidables();
+        resolveRunnerCollisions(groundY);
+        resolveThunderCollisions();
+        removeFlaggedEntities();
+    }
+
+    // Pauses the game on a quiz; only one quiz can be pending at a time.
+    private void triggerQuiz(String type, Entity entity) {
+        quizType = type;
+        quizEntity = entity;
+        pausedForQuiz = true;
+    }
+
+    // Remembers where everything was before this step so the view can interpolate.
+    private void savePreviousPositions() {
+        prevRunnerY = runnerY;
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obs = obstacles.get(i);
+            obs.savePosition();
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            enemy.savePosition();
+        }
+        for (int i = 0; i < coins.size(); i++) {
+            Coin coin = coins.get(i);
+            coin.savePosition();
+        }
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp pu = powerUps.get(i);
+            pu.savePosition();
+        }
+        for (int i = 0; i < meteors.size(); i++) {
+            Meteor m = meteors.get(i);
+            m.savePosition();
+        }
+        for (int i = 0; i < bossBullets.size(); i++) {
+            BossBullet bb = bossBullets.get(i);
+            bb.savePosition();
+        }
+        for (int i = 0; i < thunderShots.size(); i++) {
+            Thunderbolt t = thunderShots.get(i);
+            t.savePosition();
+        }
+        if (boss != null) boss.savePosition();
+    }
+
+    // Registers every live collidable entity in the broad-phase grid for this step.
+    private void registerCollidables() {
+        collisionGrid.clear();
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obs = obstacles.get(i);
+            if (!obs.removed) collisionGrid.insert(obs, LAYER_OBSTACLE, obs.x, obs.y - 6 * SCALE, OBSTACLE_PIXEL_WIDTH * SCALE, 7 * SCALE);
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            if (!enemy.removed) collisionGrid.insert(enemy, LAYER_ENEMY, enemy.x, enemy.y, 8 * SCALE, 8 * SCALE);
+        }
+        for (int i = 0; i < coins.size(); i++) {
+            Coin coin = coins.get(i);
+            if (!coin.removed) collisionGrid.insert(coin, LAYER_COIN, coin.x, coin.y, 8 * SCALE, 8 * SCALE);
+        }
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp pu = powerUps.get(i);
+            if (!pu.removed) collisionGrid.insert(pu, LAYER_POWER_UP, pu.x, pu.y, 8 * SCALE, 8 * SCALE);
+        }
+        if (meteorScene) {
+            for (int i = 0; i < meteors.size(); i++) {
+                Meteor m = meteors.get(i);
+                if (!m.removed) collisionGrid.insert(m, LAYER_METEOR, m.x, m.y, 8 * SCALE, 8 * SCALE);
+            }
+        }
+        for (int i = 0; i < bossBullets.size(); i++) {
+            BossBullet bb = bossBullets.get(i);
+            if (!bb.removed) collisionGrid.insert(bb, LAYER_BOSS_BULLET, bb.x, bb.y, 4 * SCALE, 4 * SCALE);
+        }
+        if (boss != null) {
+            collisionGrid.insert(boss, LAYER_BOSS, boss.x, boss.y, 12 * SCALE, 12 * SCALE);
+        }
+    }
+
+    // Quiz triggers in front of the runner and pickups/hits overlapping the runner.
+    private void resolveRunnerCollisions(double groundY) {
+        double runnerRight = runnerX + RUNNER_PIXEL_WIDTH * SCALE;
+
+        // Obstacles and enemies whose left edge is within 5 px of the runner's front.
+        collisionHits.clear();
+        collisionGrid.query(runnerRight - 6, 0, 12, height, LAYER_OBSTACLE | LAYER_ENEMY, collisionHits);
+        for (int i = 0; i < collisionHits.size(); i++) {
+            Entity hit = collisionHits.get(i);
+            if (hit.x > runnerRight + 5 || hit.x < runnerRight - 5) continue;
+            if (hit instanceof Obstacle) {
+                Obstacle obs = (Obstacle) hit;
+                if (!obs.quizTriggered && quizType == null && runnerY >= groundY - 5) {
+                    obs.quizTriggered = true;
+                    triggerQuiz("obstacle", obs);
+                }
+            } else {
+                Enemy enemy = (Enemy) hit;
+                if (enemy.quizTriggered) continue;
+                if (!shieldActive && quizType == null && runnerY >= groundY - 5) {
+                    enemy.quizTriggered = true;
+                    triggerQuiz("enemy", enemy);
+                } else if (shieldActive) {
+                    enemy.removed = true;
+                    score += 4;
+                }
+            }
+        }
+
+        // Everything that touches the runner's body.
+        collisionHits.clear();
+        collisionGrid.query(runnerX, runnerY, RUNNER_PIXEL_WIDTH * SCALE, RUNNER_PIXEL_HEIGHT * SCALE,
+                LAYER_COIN | LAYER_POWER_UP | LAYER_METEOR | LAYER_BOSS_BULLET, collisionHits);
+        for (int i = 0; i < collisionHits.size(); i++) {
+            Entity hit = collisionHits.get(i);
+            hit.removed = true;
+            if (hit instanceof Coin) {
+                coinCombo++;
+                score += 3 * coinCombo;
+                timers.schedule(TIMER_COMBO_RESET, secondsToSteps(3));
+            } else if (hit instanceof PowerUp) {
+                PowerUp pu = (PowerUp) hit;
+                if (pu.type.equals("shield")) {
+                    shieldActive = true;
+                    timers.schedule(TIMER_SHIELD, secondsToSteps(5));
+                } else if (pu.type.equals("magnet")) {
+                    magnetActive = true;
+                    timers.schedule(TIMER_MAGNET, secondsToSteps(5));
+                } else if (pu.type.equals("thunder")) {
+                    thunderbolts = Math.min(thunderbolts + 5, MAX_THUNDERBOLTS);
+                }
+            } else {
+                // Meteor or boss bullet.
+                lives--;
+                if (lives <= 0) {
+                    gameOver = true;
+                }
+            }
+        }
+    }
+
+    // Each thunder shot hits at most one enemy, or the boss.
+    private void resolveThunderCollisions() {
+        for (int i = 0; i < thunderShots.size(); i++) {
+            Thunderbolt t = thunderShots.get(i);
+            if (t.removed) continue;
+            collisionHits.clear();
+            collisionGrid.query(t.x, t.y, 2 * SCALE, SCALE, LAYER_ENEMY | LAYER_BOSS, collisionHits);
+            for (int j = 0; j < collisionHits.size(); j++) {
+                Entity hit = collisionHits.get(j);
+                if (hit.removed) continue;
+                // An enemy or boss waiting on the quiz is settled by the answer, not by thunder.
+                if (hit == quizEntity) continue;
+                t.removed = true;
+                if (hit instanceof Enemy) {
+                    hit.removed = true;
+                    score += 4;
+                } else if (boss == hit) {
+                    boss.health -= 5;
+                    if (boss.health <= 0) {
+                        boss.removed = true;
+                        boss = null;
+                        score += 10;
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    // Returns entities flagged during this step to their pools; nothing is removed while iterating.
+    private void removeFlaggedEntities() {
+        obstacles.releaseFlagged();
+        enemies.releaseFlagged();
+        coins.releaseFlagged();
+        powerUps.releaseFlagged();
+        meteors.releaseFlagged();
+        bossBullets.releaseFlagged();
+        thunderShots.releaseFlagged();
+    }
+
+    // getRandomWeather: rainy and snow force night; sunny forces day; autumn is random.
+    private static final String[] WEATHERS = {"sunny", "rainy", "snow", "autumn"};
+    private String getRandomWeather() {
+        String w = WEATHERS[rand.nextInt(WEATHERS.length)];
+        if (w.equals("rainy") || w.equals("snow")) {
+            isDay = false;
+        } else if (w.equals("sunny")) {
+            isDay = true;
+        } else if (w.equals("autumn")) {
+            isDay = rand.nextBoolean();
+        }
+        return w;
+    }
+
+    private void spawnBossBullet() {
+        double leftCannonX = boss.x + 2 * SCALE;
+        double leftCannonY = boss.y + 6 * SCALE;
+        double rightCannonX = boss.x + 9 * SCALE;
+        double rightCannonY = boss.y + 6 * SCALE;
+        double dx1 = runnerX - leftCannonX;
+        double dy1 = runnerY - leftCannonY;
+        double mag1 = Math.sqrt(dx1 * dx1 + dy1 * dy1);
+        double speed = 4;
+        double vx1 = speed * dx1 / mag1;
+        double vy1 = speed * dy1 / mag1;
+        bossBullets.acquire().set(leftCannonX, leftCannonY, vx1, vy1);
+        double dx2 = runnerX - rightCannonX;
+        double dy2 = runnerY - rightCannonY;
+        double mag2 = Math.sqrt(dx2 * dx2 + dy2 * dy2);
+        double vx2 = speed * dx2 / mag2;
+        double vy2 = speed * dy2 / mag2;
+        bossBullets.acquire().set(rightCannonX, rightCannonY, vx2, vy2);
+    }
+
+    private void spawnObstacle() {
+        String type = rand.nextDouble() < 0.5 ? "cactus" : "pine";
+        double y;
+        if (type.equals("pine")) {
+            y = height - GROUND_HEIGHT;
+        } else {
+            y = height - GROUND_HEIGHT - (6 * SCALE) + (1 * SCALE);
+        }
+        obstacles.acquire().set(width, y, type);
+    }
+
+    private void spawnEnemy() {
+        double y = height - GROUND_HEIGHT - OBSTACLE_PIXEL_WIDTH * SCALE - 30;
+        enemies.acquire().set(width, y);
+    }
+
+    private void spawnCoin() {
+        double y = height - GROUND_HEIGHT - (8 * SCALE) - rand.nextDouble() * 80;
+        coins.acquire().set(width, y);
+    }
+
+    private void spawnPowerUp() {
+        double y = height - GROUND_HEIGHT - (8 * SCALE) - rand.nextDouble() * 100;
+        String type = POWER_UP_TYPES[rand.nextInt(POWER_UP_TYPES.length)];
+        powerUps.acquire().set(width, y, type);
+    }
+
+    private void spawnBoss() {
+        double x = runnerX + 200;
+        double y = height - GROUND_HEIGHT - (12 * SCALE);
+        boss = bossInstance.set(x, y, getBossMaxHealth(), 300);
+    }
+
+    private void spawnMeteor() {
+        double x = rand.nextDouble() * width;
+        double speedY = 2 + rand.nextDouble() * 3;
+        meteors.acquire().set(x, -10, speedY);
+    }
+
+    private void onTimerExpired(int timer) {
+        switch (timer) {
+            case TIMER_COMBO_RESET:
+                coinCombo = 0;
+                break;
+            case TIMER_SHIELD:
+                shieldActive = false;
+                break;
+            case TIMER_MAGNET:
+                magnetActive = false;
+                break;
+            case TIMER_SPEED_PENALTY:
+                baseObstacleSpeed = 4;
+                break;
+            case TIMER_METEOR_SCENE:
+                meteorScene = false;
+                break;
+        }
+    }
+
+    static long secondsToSteps(double seconds) {
+        return Math.round(seconds * 1000 / STEP_MS);
+    }
+
+    private double groundY() {
+        return height - GROUND_HEIGHT - (RUNNER_PIXEL_HEIGHT * SCALE);
+    }
+
+    // Steps simulated so far.
+    public long getTick() { return tick; }
+    public boolean isGameOver() { return gameOver; }
+    public boolean isPausedForQuiz() { return pausedForQuiz; }
+    public int getScore() { return score; }
+    public int getLives() { return lives; }
+    public int getLevel() { return level; }
+    public int getCoinCombo() { return coinCombo; }
+    public int getThunderbolts() { return thunderbolts; }
+    public boolean isShieldActive() { return shieldActive; }
+    public boolean isMagnetActive() { return magnetActive; }
+    public boolean isDay() { return isDay; }
+    public String getWeather() { return currentWeather; }
+    public int getWeatherChanges() { return weatherChanges; }
+    public boolean isMeteorScene() { return meteorScene; }
+    public double getWidth() { return width; }
+    public double getHeight() { return height; }
+    int getBossMaxHealth() { return 5 + ((level / 10) - 1) * 3; }
+
+    // Read access for the renderer.
+    double getRunnerX() { return runnerX; }
+    double getRunnerY() { return runnerY; }
+    double getPrevRunnerY() { return prevRunnerY; }
+    Boss getBoss() { return boss; }
+    EntityPool<Obstacle> getObstacles() { return obstacles; }
+    EntityPool<Enemy> getEnemies() { return enemies; }
+    EntityPool<Coin> getCoins() { return coins; }
+    EntityPool<PowerUp> getPowerUps() { return powerUps; }
+    EntityPool<BossBullet> getBossBullets() { return bossBullets; }
+    EntityPool<Meteor> getMeteors() { return meteors; }
+    EntityPool<Thunderbolt> getThunderShots() { return thunderShots; }
+}
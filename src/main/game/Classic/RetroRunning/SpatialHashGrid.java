@@ -0,0 +1,148 @@
+package src.main.game.Classic.RetroRunning;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform-grid broad phase for axis-aligned boxes.
+ * Items are registered each tick into every cell their box touches; a query only
+ * visits the cells under the query box and runs the exact AABB test on those
+ * candidates, so the cost grows with the number of nearby items rather than
+ * with every item on screen.
+ *
+ * Each item carries a layer bit so one grid can hold several entity types and a
+ * query can ask for just the types it cares about.
+ */
+class SpatialHashGrid<T> {
+    private final double cellSize;
+    private final int bucketMask;
+    // First entry of each hash bucket, or -1 when empty.
+    private final int[] bucketHead;
+
+    // Cell entries: which item sits in a bucket, chained per bucket.
+    private int[] entryItem = new int[128];
+    private int[] entryNext = new int[128];
+    private int entryCount = 0;
+
+    // Registered items and their bounds.
+    private Object[] items = new Object[64];
+    private int[] itemLayer = new int[64];
+    private double[] itemMinX = new double[64];
+    private double[] itemMinY = new double[64];
+    private double[] itemMaxX = new double[64];
+    private double[] itemMaxY = new double[64];
+    private int[] itemStamp = new int[64];
+    private int itemCount = 0;
+
+    // Incremented per query so an item spanning several cells is reported once.
+    private int queryStamp = 0;
+
+    /**
+     * @param cellSize   edge length of a grid cell, ideally close to a typical entity size.
+     * @param bucketBits log2 of the number of hash buckets.
+     */
+    SpatialHashGrid(double cellSize, int bucketBits) {
+        this.cellSize = cellSize;
+        this.bucketHead = new int[1 << bucketBits];
+        this.bucketMask = bucketHead.length - 1;
+        Arrays.fill(bucketHead, -1);
+    }
+
+    // Removes every item; call once per tick before registering entities again.
+    void clear() {
+        Arrays.fill(bucketHead, -1);
+        Arrays.fill(items, 0, itemCount, null);
+        entryCount = 0;
+        itemCount = 0;
+    }
+
+    /**
+     * Registers an item with the given layer and bounds.
+     *
+     * @param item  the object reported back by queries.
+     * @param layer a single bit identifying the item's type.
+     */
+    void insert(T item, int layer, double x, double y, double w, double h) {
+        int index = itemCount++;
+        if (index == items.length) {
+            growItems();
+        }
+        items[index] = item;
+        itemLayer[index] = layer;
+        itemMinX[index] = x;
+        itemMinY[index] = y;
+        itemMaxX[index] = x + w;
+        itemMaxY[index] = y + h;
+        itemStamp[index] = queryStamp;
+
+        int cx0 = cell(x), cx1 = cell(x + w);
+        int cy0 = cell(y), cy1 = cell(y + h);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                if (entryCount == entryItem.length) {
+                    entryItem = Arrays.copyOf(entryItem, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                int bucket = bucket(cx, cy);
+                entryItem[entryCount] = index;
+                entryNext[entryCount] = bucketHead[bucket];
+                bucketHead[bucket] = entryCount++;
+            }
+        }
+    }
+
+    /**
+     * Collects every item on one of the given layers whose box overlaps the query box.
+     * Results are appended to {@code out}, each item at most once.
+     *
+     * @param layerMask bitwise OR of the layers to report.
+     * @param out       receives the overlapping items.
+     */
+    @SuppressWarnings("unchecked")
+    void query(double x, double y, double w, double h, int layerMask, List<T> out) {
+        queryStamp++;
+        double maxX = x + w;
+        double maxY = y + h;
+        int cx0 = cell(x), cx1 = cell(maxX);
+        int cy0 = cell(y), cy1 = cell(maxY);
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int e = bucketHead[bucket(cx, cy)]; e != -1; e = entryNext[e]) {
+                    int i = entryItem[e];
+                    if (itemStamp[i] == queryStamp) continue;
+                    itemStamp[i] = queryStamp;
+                    if ((itemLayer[i] & layerMask) == 0) continue;
+                    // Narrow phase: exact AABB overlap on the candidate.
+                    if (itemMinX[i] < maxX && itemMaxX[i] > x && itemMinY[i] < maxY && itemMaxY[i] > y) {
+                        out.add((T) items[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Number of items registered since the last clear.
+    int size() {
+        return itemCount;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucket(int cx, int cy) {
+        int h = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+        return (h ^ (h >>> 15)) & bucketMask;
+    }
+
+    private void growItems() {
+        int capacity = items.length * 2;
+        items = Arrays.copyOf(items, capacity);
+        itemLayer = Arrays.copyOf(itemLayer, capacity);
+        itemMinX = Arrays.copyOf(itemMinX, capacity);
+        itemMinY = Arrays.copyOf(itemMinY, capacity);
+        itemMaxX = Arrays.copyOf(itemMaxX, capacity);
+        itemMaxY = Arrays.copyOf(itemMaxY, capacity);
+        itemStamp = Arrays.copyOf(itemStamp, capacity);
+    }
+}
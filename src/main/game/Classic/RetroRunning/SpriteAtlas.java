@@ -0,0 +1,104 @@
+package src.main.game.Classic.RetroRunning;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs the runner's pixel-art matrices into one image.
+ * Every matrix is rasterized once at the given scale, after which a sprite
+ * is drawn with a single drawImage call instead of one fillRect per pixel.
+ */
+class SpriteAtlas {
+    // One transparent pixel between sprites so smoothing never bleeds a neighbour in.
+    private static final int PADDING = 1;
+
+    private final int scale;
+    // Source matrices, kept so the per-pixel path can still draw them.
+    private final List<Color[][]> arts = new ArrayList<>();
+    // Region of each sprite inside the atlas image, indexed by sprite id.
+    private int[] regionX = new int[0];
+    private int[] regionW = new int[0];
+    private int[] regionH = new int[0];
+    private WritableImage image;
+
+    SpriteAtlas(int scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Registers a pixel-art matrix; null cells stay transparent.
+     *
+     * @param art the pixel-art matrix.
+     * @return the sprite id used for drawing.
+     */
+    int register(Color[][] art) {
+        if (image != null) {
+            throw new IllegalStateException("Atlas already built");
+        }
+        arts.add(art);
+        return arts.size() - 1;
+    }
+
+    /**
+     * Rasterizes every registered matrix into a single row of the atlas image.
+     */
+    void build() {
+        int count = arts.size();
+        regionX = new int[count];
+        regionW = new int[count];
+        regionH = new int[count];
+        int width = 0;
+        int height = 1;
+        for (int i = 0; i < count; i++) {
+            Color[][] art = arts.get(i);
+            regionX[i] = width;
+            regionW[i] = art[0].length * scale;
+            regionH[i] = art.length * scale;
+            width += regionW[i] + PADDING;
+            height = Math.max(height, regionH[i]);
+        }
+        image = new WritableImage(Math.max(width, 1), height);
+        PixelWriter writer = image.getPixelWriter();
+        for (int i = 0; i < count; i++) {
+            Color[][] art = arts.get(i);
+            for (int row = 0; row < art.length; row++) {
+                for (int col = 0; col < art[row].length; col++) {
+                    Color c = art[row][col];
+                    if (c == null) continue;
+                    int argb = toArgb(c);
+                    int px = regionX[i] + col * scale;
+                    int py = row * scale;
+                    for (int dy = 0; dy < scale; dy++) {
+                        for (int dx = 0; dx < scale; dx++) {
+                            writer.setArgb(px + dx, py + dy, argb);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Draws the sprite with one drawImage call.
+    void draw(GraphicsContext gc, int id, double x, double y) {
+        int w = regionW[id];
+        int h = regionH[id];
+        gc.drawImage(image, regionX[id], 0, w, h, x, y, w, h);
+    }
+
+    // Returns the source matrix of a sprite (used by the per-pixel reference path).
+    Color[][] getArt(int id) {
+        return arts.get(id);
+    }
+
+    private static int toArgb(Color c) {
+        int a = (int) Math.round(c.getOpacity() * 255);
+        int r = (int) Math.round(c.getRed() * 255);
+        int g = (int) Math.round(c.getGreen() * 255);
+        int b = (int) Math.round(c.getBlue() * 255);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,92 @@
+package src.main.game.Classic.RetroRunning;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timer wheel driven by simulation ticks.
+ * A fixed set of timers (identified by small integer ids) is scheduled into the
+ * wheel slot of their deadline; each {@link #advance} moves one tick forward and
+ * only visits the timers in that slot. Timers are stored in preallocated arrays,
+ * so scheduling, cancelling and firing never allocate, and nothing runs while
+ * the simulation is not being stepped.
+ */
+class TimerWheel {
+    // Receives the id of every timer that reaches its deadline.
+    interface Listener {
+        void onExpired(int timer);
+    }
+
+    private static final int NONE = -1;
+
+    private final int slotMask;
+    private final int[] slotHead;
+    // Per-timer state: absolute deadline tick (NONE when idle) and slot list links.
+    private final long[] deadline;
+    private final int[] next;
+    private final int[] prev;
+    private long currentTick = 0;
+
+    /**
+     * @param timerCount number of timer ids, 0 to timerCount - 1.
+     * @param slotBits   log2 of the number of wheel slots.
+     */
+    TimerWheel(int timerCount, int slotBits) {
+        slotHead = new int[1 << slotBits];
+        slotMask = slotHead.length - 1;
+        deadline = new long[timerCount];
+        next = new int[timerCount];
+        prev = new int[timerCount];
+        Arrays.fill(slotHead, NONE);
+        Arrays.fill(deadline, NONE);
+    }
+
+    /**
+     * (Re)starts a timer so it fires after the given number of ticks.
+     * Scheduling an active timer restarts its countdown.
+     */
+    void schedule(int timer, long delayTicks) {
+        cancel(timer);
+        long due = currentTick + Math.max(1, delayTicks);
+        deadline[timer] = due;
+        int slot = (int) (due & slotMask);
+        prev[timer] = NONE;
+        next[timer] = slotHead[slot];
+        if (slotHead[slot] != NONE) {
+            prev[slotHead[slot]] = timer;
+        }
+        slotHead[slot] = timer;
+    }
+
+    // Stops a timer without firing it.
+    void cancel(int timer) {
+        if (deadline[timer] == NONE) return;
+        int slot = (int) (deadline[timer] & slotMask);
+        if (prev[timer] != NONE) {
+            next[prev[timer]] = next[timer];
+        } else {
+            slotHead[slot] = next[timer];
+        }
+        if (next[timer] != NONE) {
+            prev[next[timer]] = prev[timer];
+        }
+        deadline[timer] = NONE;
+    }
+
+    /**
+     * Moves the wheel forward one tick and fires every timer due on it.
+     * Timers whose deadline lies a full revolution or more ahead stay in the slot.
+     */
+    void advance(Listener listener) {
+        currentTick++;
+        int slot = (int) (currentTick & slotMask);
+        int timer = slotHead[slot];
+        while (timer != NONE) {
+            int following = next[timer];
+            if (deadline[timer] == currentTick) {
+                cancel(timer);
+                listener.onExpired(timer);
+            }
+            timer = following;
+        }
+    }
+}
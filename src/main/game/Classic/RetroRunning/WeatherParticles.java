@@ -0,0 +1,138 @@
+package src.main.game.Classic.RetroRunning;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import java.util.Random;
+
+/**
+ * Persistent rain and snow particles.
+ * Positions and velocities live in primitive arrays and are advanced once per
+ * simulation step, so drops fall continuously instead of being re-scattered every
+ * frame. Each frame is drawn as a single batched path, and the number of visible
+ * particles is tuned to keep the weather draw inside a fixed frame budget.
+ */
+class WeatherParticles {
+    static final int NONE = 0;
+    static final int RAIN = 1;
+    static final int SNOW = 2;
+
+    private static final int MAX_PARTICLES = 400;
+    private static final int MIN_PARTICLES = 20;
+    private static final int START_PARTICLES = 120;
+    // Time the weather layer may spend per frame before particles are shed.
+    private static final double BUDGET_MILLIS = 1.0;
+
+    private final double[] x = new double[MAX_PARTICLES];
+    private final double[] y = new double[MAX_PARTICLES];
+    private final double[] vx = new double[MAX_PARTICLES];
+    private final double[] vy = new double[MAX_PARTICLES];
+    // Own generator: the cosmetic weather must not consume the gameplay random sequence.
+    private final Random random = new Random();
+    private final FrameTimeCounter drawTime = new FrameTimeCounter();
+
+    private int mode = NONE;
+    private int activeCount = START_PARTICLES;
+    private double width, height;
+
+    /**
+     * Switches to a weather mode and scatters every particle over the area.
+     *
+     * @param mode   NONE, RAIN or SNOW.
+     * @param width  width of the sky area.
+     * @param height height of the sky area (above the ground strip).
+     */
+    void reset(int mode, double width, double height) {
+        this.mode = mode;
+        this.width = width;
+        this.height = height;
+        drawTime.reset();
+        for (int i = 0; i < MAX_PARTICLES; i++) {
+            spawn(i, random.nextDouble() * height);
+        }
+    }
+
+    // Advances every particle one simulation step and recycles those that left the area.
+    void update(double width, double height) {
+        if (mode == NONE) return;
+        this.width = width;
+        this.height = height;
+        for (int i = 0; i < activeCount; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            if (y[i] > height) {
+                spawn(i, -vy[i] * random.nextDouble());
+            } else if (x[i] < 0) {
+                x[i] += width;
+            } else if (x[i] > width) {
+                x[i] -= width;
+            }
+        }
+    }
+
+    /**
+     * Draws the active particles as one path.
+     *
+     * @param alpha interpolation factor between the previous and the current step.
+     */
+    void draw(GraphicsContext gc, double alpha) {
+        if (mode == NONE) return;
+        drawTime.begin();
+        double back = 1 - alpha;
+        gc.beginPath();
+        if (mode == RAIN) {
+            for (int i = 0; i < activeCount; i++) {
+                double px = x[i] - vx[i] * back;
+                double py = y[i] - vy[i] * back;
+                gc.moveTo(px, py);
+                gc.lineTo(px + 2, py + 10);
+            }
+            gc.setStroke(Color.LIGHTBLUE);
+            gc.setLineWidth(1);
+            gc.stroke();
+        } else {
+            for (int i = 0; i < activeCount; i++) {
+                double px = x[i] - vx[i] * back;
+                double py = y[i] - vy[i] * back;
+                gc.moveTo(px + 4, py + 2);
+                gc.arc(px + 2, py + 2, 2, 2, 0, 360);
+            }
+            gc.setFill(Color.ALICEBLUE);
+            gc.fill();
+        }
+        gc.closePath();
+        drawTime.end();
+        adjustToBudget();
+    }
+
+    int getActiveCount() {
+        return activeCount;
+    }
+
+    FrameTimeCounter getDrawTime() {
+        return drawTime;
+    }
+
+    // Sheds particles while over budget and slowly adds them back when well under it.
+    private void adjustToBudget() {
+        double millis = drawTime.getAverageMillis();
+        if (millis > BUDGET_MILLIS && activeCount > MIN_PARTICLES) {
+            activeCount = Math.max(MIN_PARTICLES, activeCount - activeCount / 10);
+        } else if (millis < BUDGET_MILLIS / 2 && activeCount < MAX_PARTICLES) {
+            // Enters from the top like a recycled particle rather than where it was frozen.
+            spawn(activeCount, -vy[activeCount] * random.nextDouble());
+            activeCount++;
+        }
+    }
+
+    private void spawn(int i, double startY) {
+        x[i] = random.nextDouble() * width;
+        y[i] = startY;
+        if (mode == RAIN) {
+            vx[i] = 2;
+            vy[i] = 10 + random.nextDouble() * 4;
+        } else {
+            vx[i] = (random.nextDouble() - 0.5) * 1.0;
+            vy[i] = 1 + random.nextDouble() * 1.5;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package src.main.leaderboard;
+
+import javafx.application.Platform;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Recently loaded leaderboard pages, keyed by (mode, difficulty, page), so cycling the difficulty
+ * filter or reopening the leaderboard shows pages instantly instead of waiting on HTTP.
+ * A page younger than TTL_MILLIS is used as is. An older one is still shown right away, and reloaded
+ * in the background (stale-while-revalidate); the caller then gets the new page on the FX thread.
+ * Concurrent requests for the same page share one load. Pages are immutable LeaderboardPage
+ * snapshots, so the UI never sees a list change under it.
+ */
+public class LeaderboardCache {
+    // How long a page is used without asking the server again.
+    private static final long TTL_MILLIS = 30_000;
+    // How long a stale page may still be shown while it is reloaded; older pages are dropped.
+    private static final long MAX_STALE_MILLIS = 10 * 60_000;
+    // Pages kept; the least recently used one goes first.
+    private static final int MAX_PAGES = 64;
+
+    // A loaded page and when it was loaded; replaced whole, never modified.
+    private static class Cached {
+        final LeaderboardPage page;
+        final long loadedAt;
+
+        Cached(LeaderboardPage page, long loadedAt) {
+            this.page = page;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final Map<String, Cached> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    // Loads in progress by key; a second request for a page being loaded waits for the same load.
+    private static final Map<String, CompletableFuture<LeaderboardPage>> loading = new ConcurrentHashMap<>();
+    private static final ExecutorService loader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-cache");
+        // Must not keep the JVM alive after the window closes.
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Returns a leaderboard page from the cache, loading it in the background when it is missing
+     * or older than TTL_MILLIS. Never blocks on the network; call it from the FX thread.
+     *
+     * @param difficulty Only entries of this difficulty; null for all.
+     * @param mode       Only entries of this game mode; null for all.
+     * @param after      The last entry of the previous page; null for the first page.
+     * @param limit      The most entries on the page.
+     * @param onLoad     Called on the FX thread with the page once a background load finishes
+     *                   (null if it failed); not called when the cached page is fresh. May be null.
+     * @return the cached page, possibly stale; null if there is none yet.
+     */
+    public static LeaderboardPage get(String difficulty, String mode, LeaderboardEntry after, int limit,
+                                      Consumer<LeaderboardPage> onLoad) {
+        String key = keyOf(difficulty, mode, after, limit);
+        long now = System.currentTimeMillis();
+        Cached cached;
+        synchronized (pages) {
+            cached = pages.get(key);
+            if (cached != null && now - cached.loadedAt > MAX_STALE_MILLIS) {
+                pages.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null && now - cached.loadedAt <= TTL_MILLIS) {
+            return cached.page;
+        }
+        CompletableFuture<LeaderboardPage> load = load(key, difficulty, mode, after, limit);
+        if (onLoad != null) {
+            load.thenAccept(page -> Platform.runLater(() -> onLoad.accept(page)));
+        }
+        return cached != null ? cached.page : null;
+    }
+
+    /**
+     * Marks every cached page stale, e.g. after scores were saved; they are still shown, but
+     * reloaded the next time they are asked for.
+     */
+    public static void invalidate() {
+        long stale = System.currentTimeMillis() - TTL_MILLIS - 1;
+        synchronized (pages) {
+            for (Map.Entry<String, Cached> entry : pages.entrySet()) {
+                Cached cached = entry.getValue();
+                entry.setValue(new Cached(cached.page, Math.min(cached.loadedAt, stale)));
+            }
+        }
+    }
+
+    // Starts loading a page unless a load of it is already running; either way returns that load.
+    private static CompletableFuture<LeaderboardPage> load(String key, String difficulty, String mode,
+                                                           LeaderboardEntry after, int limit) {
+        CompletableFuture<LeaderboardPage> started = new CompletableFuture<>();
+        CompletableFuture<LeaderboardPage> running = loading.putIfAbsent(key, started);
+        if (running != null) return running;
+        loader.execute(() -> {
+            LeaderboardPage page = null;
+            try {
+                page = LeaderboardService.loadLeaderboardPage(difficulty, mode, after, limit);
+                if (page != null) {
+                    synchronized (pages) {
+                        pages.put(key, new Cached(page, System.currentTimeMillis()));
+                    }
+                }
+            } finally {
+                // Removed before completing, so a request after this load starts a new one.
+                loading.remove(key);
+                started.complete(page);
+            }
+        });
+        return started;
+    }
+
+    // The page's cache key: mode, difficulty, size and the entry it starts after.
+    private static String keyOf(String difficulty, String mode, LeaderboardEntry after, int limit) {
+        StringBuilder key = new StringBuilder()
+                .append(mode).append('\u0000').append(difficulty).append('\u0000').append(limit);
+        if (after != null) {
+            key.append('\u0000').append(after.getScore()).append('\u0000').append(after.getName());
+        }
+        return key.toString();
+    }
+}
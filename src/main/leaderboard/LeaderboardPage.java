@@ -0,0 +1,68 @@
+package src.main.leaderboard;
+
+import java.util.Collections;
+import java.util.List;
+
+public class LeaderboardPage {
+    // Entries of this page, best first; never modified.
+    private final List<LeaderboardEntry> entries;
+    // Whether the server has entries after this page.
+    private final boolean hasMore;
+
+    /**
+     * Constructs a page of leaderboard entries.
+     *
+     * @param entries The entries of the page, in leaderboard order.
+     * @param hasMore Whether more entries follow the page.
+     */
+    public LeaderboardPage(List<LeaderboardEntry> entries, boolean hasMore) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Returns the entries of the page.
+     *
+     * @return an unmodifiable list, best entry first.
+     */
+    public List<LeaderboardEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return true if there are more entries.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Returns the last entry of the page, which the next page starts after.
+     *
+     * @return the last entry, or null for an empty page.
+     */
+    public LeaderboardEntry getLast() {
+        return entries.isEmpty() ? null : entries.get(entries.size() - 1);
+    }
+
+    /**
+     * Returns whether another page holds the same entries, e.g. to skip redrawing a reloaded page.
+     *
+     * @param other The page to compare with; may be null.
+     * @return true if both pages list the same names, scores, difficulties and modes in the same order.
+     */
+    public boolean sameEntries(LeaderboardPage other) {
+        if (other == null || other.entries.size() != entries.size() || other.hasMore != hasMore) return false;
+        for (int i = 0; i < entries.size(); i++) {
+            LeaderboardEntry a = entries.get(i);
+            LeaderboardEntry b = other.entries.get(i);
+            if (a.getScore() != b.getScore() || !a.getName().equals(b.getName())
+                    || !a.getTime().equals(b.getTime()) || !a.getMode().equals(b.getMode())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,397 @@
+package src.main.leaderboard;
+
+import javafx.application.Platform;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The top players of each difficulty, kept in order-statistics trees so a player's rank, the top K
+ * of a difficulty and the players around someone are answered in O(log n + K) without sorting, and
+ * a score change is applied in O(log n). Each difficulty is a treap ordered like the leaderboard
+ * screen (highest score, then name) whose nodes also count their subtree, so the position of a
+ * node is found on the way down from the root.
+ *
+ * Only the best TOP_PLAYERS of each difficulty are loaded, in keyset pages, never the whole table;
+ * players below them are not ranked. The trees are reloaded in the background every five minutes
+ * and kept current with the player's own saves as they are made, before the server has them, so
+ * the end-of-quiz screen shows the new rank at once. A save counts until a load that started after
+ * ScoreOutbox had it confirmed; one confirmed during a load is never left out. A difficulty whose
+ * load failed is not asked for again for RETRY_MILLIS, and the others are still answered.
+ */
+public class LeaderboardRanking {
+    private static final String[] DIFFICULTIES = {"Grandmaster", "Pro", "Elite", "Beginner", "Amateur"};
+    // Players loaded per difficulty.
+    public static final int TOP_PLAYERS = 1000;
+    private static final int PAGE_SIZE = 500;
+    // Other players' scores only arrive with a reload.
+    private static final long RELOAD_MILLIS = 5 * 60_000;
+    private static final long RETRY_MILLIS = 30_000;
+
+    private static LeaderboardRanking instance;
+
+    // The pages the trees are loaded from: LeaderboardService, or a stand-in in tests.
+    interface Server {
+        LeaderboardPage loadPage(String difficulty, LeaderboardEntry after, int limit);
+    }
+
+    // One player of a difficulty; ordered by score, highest first, then name.
+    private static class Node {
+        final String name;
+        final String difficulty;
+        final String mode;
+        int score;
+        final int priority;
+        int size = 1;
+        Node left, right;
+
+        Node(String name, int score, String difficulty, String mode, int priority) {
+            this.name = name;
+            this.score = score;
+            this.difficulty = difficulty;
+            this.mode = mode;
+            this.priority = priority;
+        }
+    }
+
+    // The loaded players of one difficulty.
+    private static class Board {
+        Node root;
+        // Whether the load found every player of the difficulty, not just the top.
+        boolean complete;
+        boolean loaded;
+        long loadedAt;
+        long failedAt = Long.MIN_VALUE / 2;
+    }
+
+    private final ScoreOutbox outbox;
+    private final Server server;
+    private final int topPlayers;
+    private final Random random = new Random();
+    private final Map<String, Board> boards = new LinkedHashMap<>();
+    // Every loaded player, in whichever board holds them.
+    private final Map<String, Node> byName = new HashMap<>();
+    // Saves by outbox number, kept until a load that started after the outbox confirmed them.
+    private final TreeMap<Long, ScoreOutbox.ScoreEvent> saves = new TreeMap<>();
+    private final AtomicBoolean loadScheduled = new AtomicBoolean(false);
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-ranking");
+        // Must not keep the JVM alive after the window closes.
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The ranking of this session, counting the saves ScoreOutbox holds from the last run; empty
+     * until the first load finishes.
+     */
+    public static synchronized LeaderboardRanking get() {
+        if (instance == null) {
+            instance = new LeaderboardRanking(ScoreOutbox.get(),
+                    (difficulty, after, limit) -> LeaderboardService.loadLeaderboardPage(difficulty, null, after, limit),
+                    TOP_PLAYERS);
+        }
+        return instance;
+    }
+
+    LeaderboardRanking(ScoreOutbox outbox, Server server, int topPlayers) {
+        this.outbox = outbox;
+        this.server = server;
+        this.topPlayers = topPlayers;
+        for (String difficulty : DIFFICULTIES) {
+            boards.put(difficulty, new Board());
+        }
+        for (ScoreOutbox.ScoreEvent save : outbox.pendingSaves()) {
+            saves.put(save.seq, save);
+        }
+    }
+
+    /**
+     * Reloads, in the background, the difficulties never loaded or older than five minutes.
+     */
+    public void refreshAsync() {
+        if (!loadScheduled.compareAndSet(false, true)) return;
+        loader.execute(() -> {
+            loadScheduled.set(false);
+            loadDue(System.currentTimeMillis());
+        });
+    }
+
+    /**
+     * Passes a player's rank to onResult: right away once every difficulty has been loaded (call it
+     * from the FX thread then), otherwise on the FX thread after a background load.
+     *
+     * @param name     The player's name.
+     * @param radius   How many players above and below the player to include.
+     * @param onResult Called with the rank, or with null if the player's difficulty could not be loaded.
+     */
+    public void rankAsync(String name, int radius, Consumer<PlayerRank> onResult) {
+        if (isLoaded()) {
+            refreshAsync();
+            onResult.accept(rankOf(name, radius));
+            return;
+        }
+        loader.execute(() -> {
+            loadDue(System.currentTimeMillis());
+            PlayerRank rank = rankOf(name, radius);
+            Platform.runLater(() -> onResult.accept(rank));
+        });
+    }
+
+    // Whether every difficulty has been loaded at least once.
+    synchronized boolean isLoaded() {
+        for (Board board : boards.values()) {
+            if (!board.loaded) return false;
+        }
+        return true;
+    }
+
+    // Loads the difficulties that are due at time now and did not fail within RETRY_MILLIS of it.
+    void loadDue(long now) {
+        for (String difficulty : DIFFICULTIES) {
+            synchronized (this) {
+                Board board = boards.get(difficulty);
+                if (board.loaded && now - board.loadedAt <= RELOAD_MILLIS) continue;
+                if (now - board.failedAt <= RETRY_MILLIS) continue;
+            }
+            load(difficulty, now);
+        }
+    }
+
+    // Loads the top players of a difficulty and swaps them in with the saves the server may not have.
+    private void load(String difficulty, long now) {
+        // Taken before the first request: saves confirmed by then are in the server's scores.
+        long confirmed = outbox.confirmedUpTo();
+        List<LeaderboardEntry> rows = new ArrayList<>();
+        LeaderboardEntry after = null;
+        boolean complete = false;
+        while (rows.size() < topPlayers) {
+            LeaderboardPage page = server.loadPage(difficulty, after, Math.min(PAGE_SIZE, topPlayers - rows.size()));
+            if (page == null) {
+                // Keep what we have; the next load after RETRY_MILLIS tries again.
+                synchronized (this) {
+                    boards.get(difficulty).failedAt = now;
+                }
+                return;
+            }
+            rows.addAll(page.getEntries());
+            if (!page.hasMore()) {
+                complete = true;
+                break;
+            }
+            after = page.getLast();
+        }
+        synchronized (this) {
+            Board board = boards.get(difficulty);
+            byName.values().removeIf(node -> node.difficulty.equals(difficulty));
+            board.root = null;
+            board.complete = complete;
+            board.loaded = true;
+            board.loadedAt = now;
+            for (LeaderboardEntry row : rows) {
+                put(row.getName(), row.getScore(), difficulty, row.getMode());
+            }
+            saves.headMap(confirmed, true).clear();
+            for (ScoreOutbox.ScoreEvent save : saves.values()) {
+                Node node = byName.get(save.name);
+                // Players of other difficulties already count the save in their board.
+                if (node == null || node.difficulty.equals(difficulty)) {
+                    addScore(save.name, save.score, save.difficulty, save.mode);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a score the player just saved through ScoreOutbox. O(log n).
+     *
+     * @param seq the save's number in the outbox.
+     */
+    synchronized void applySave(long seq, String name, int score, String difficulty, String mode) {
+        // Already here, and counted by the loads, if this ranking was created after the save.
+        if (saves.putIfAbsent(seq, new ScoreOutbox.ScoreEvent(seq, name, score, difficulty, mode)) != null) return;
+        addScore(name, score, difficulty, mode);
+    }
+
+    /**
+     * Adds to a player's score. A player not loaded is only added when every difficulty was loaded
+     * in full, as otherwise they may already have a score below the top. O(log n).
+     */
+    synchronized void addScore(String name, int delta, String difficulty, String mode) {
+        Node node = byName.get(name);
+        if (node != null) {
+            // An existing entry keeps its difficulty and mode.
+            put(name, node.score + delta, node.difficulty, node.mode);
+            return;
+        }
+        if (!boards.containsKey(difficulty)) return;
+        for (Board board : boards.values()) {
+            if (!board.loaded || !board.complete) return;
+        }
+        put(name, delta, difficulty, mode);
+    }
+
+    /**
+     * Returns a player's rank within their difficulty and the players around them.
+     *
+     * @param radius How many players above and below the player to include.
+     * @return the rank; a rank of -1 if the player is not among the loaded top players; null if a
+     *         difficulty has not been loaded yet, so the player may be on it.
+     */
+    public synchronized PlayerRank rankOf(String name, int radius) {
+        Node node = byName.get(name);
+        if (node == null) {
+            return isLoaded() ? new PlayerRank(null, -1, new ArrayList<>()) : null;
+        }
+        Board board = boards.get(node.difficulty);
+        int position = countBefore(board.root, node.score, node.name);
+        int from = Math.max(0, position - radius);
+        int to = Math.min(size(board.root), position + radius + 1);
+        List<LeaderboardEntry> around = range(board.root, from, to - from);
+        return new PlayerRank(around.get(position - from), position + 1, around);
+    }
+
+    /**
+     * Returns the best k loaded players of a difficulty, best first.
+     */
+    public synchronized List<LeaderboardEntry> top(String difficulty, int k) {
+        Board board = boards.get(difficulty);
+        if (board == null) return new ArrayList<>();
+        return range(board.root, 0, Math.min(k, size(board.root)));
+    }
+
+    // Sets a player's score, difficulty and mode, adding the player if needed. O(log n).
+    private void put(String name, int score, String difficulty, String mode) {
+        Node old = byName.remove(name);
+        if (old != null) {
+            Board oldBoard = boards.get(old.difficulty);
+            oldBoard.root = remove(oldBoard.root, old);
+        }
+        Node node = new Node(name, score, difficulty, mode, random.nextInt());
+        Board board = boards.get(difficulty);
+        board.root = insert(board.root, node);
+        byName.put(name, node);
+    }
+
+    // count entries of a tree starting at a position (0-based).
+    private static List<LeaderboardEntry> range(Node root, int from, int count) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.max(count, 0));
+        for (int i = from; i < from + count; i++) {
+            Node node = select(root, i);
+            entries.add(new LeaderboardEntry(node.name, node.score, node.difficulty, node.mode));
+        }
+        return entries;
+    }
+
+    // Number of players of a tree ordered before the score and name.
+    private static int countBefore(Node t, int score, String name) {
+        int count = 0;
+        while (t != null) {
+            if (compare(score, name, t) <= 0) {
+                t = t.left;
+            } else {
+                count += size(t.left) + 1;
+                t = t.right;
+            }
+        }
+        return count;
+    }
+
+    // The player at a position (0-based) of a tree.
+    private static Node select(Node t, int position) {
+        while (true) {
+            int leftSize = size(t.left);
+            if (position < leftSize) {
+                t = t.left;
+            } else if (position == leftSize) {
+                return t;
+            } else {
+                position -= leftSize + 1;
+                t = t.right;
+            }
+        }
+    }
+
+    private static Node insert(Node t, Node node) {
+        if (t == null) return node;
+        if (node.priority > t.priority) {
+            // node becomes the root of this subtree: everything before it goes left.
+            Node[] parts = split(t, node);
+            node.left = parts[0];
+            node.right = parts[1];
+            update(node);
+            return node;
+        }
+        if (compare(node.score, node.name, t) < 0) {
+            t.left = insert(t.left, node);
+        } else {
+            t.right = insert(t.right, node);
+        }
+        update(t);
+        return t;
+    }
+
+    private static Node remove(Node t, Node node) {
+        if (t == node) return merge(t.left, t.right);
+        if (compare(node.score, node.name, t) < 0) {
+            t.left = remove(t.left, node);
+        } else {
+            t.right = remove(t.right, node);
+        }
+        update(t);
+        return t;
+    }
+
+    // Splits t into the nodes before key and the rest.
+    private static Node[] split(Node t, Node key) {
+        if (t == null) return new Node[2];
+        if (compare(t.score, t.name, key) < 0) {
+            Node[] parts = split(t.right, key);
+            t.right = parts[0];
+            update(t);
+            parts[0] = t;
+            return parts;
+        }
+        Node[] parts = split(t.left, key);
+        t.left = parts[1];
+        update(t);
+        parts[1] = t;
+        return parts;
+    }
+
+    // Joins two treaps whose keys are all ordered a before b.
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static int size(Node t) {
+        return t == null ? 0 : t.size;
+    }
+
+    private static void update(Node t) {
+        t.size = size(t.left) + size(t.right) + 1;
+    }
+
+    // Leaderboard order of a score and name against a node: higher score first, then name.
+    private static int compare(int score, String name, Node node) {
+        if (score != node.score) return Integer.compare(node.score, score);
+        return name.compareTo(node.name);
+    }
+}
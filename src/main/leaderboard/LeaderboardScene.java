@@ -1,5 +1,6 @@
 package src.main.leaderboard;
 
+import src.main.auth.SessionManager;
 import src.main.utils.SceneManager;
 
 import javafx.animation.*;
@@ -20,11 +21,8 @@ import javafx.util.Duration;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.shape.Rectangle;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.io.File;
 
 public class LeaderboardScene {
@@ -33,6 +31,15 @@ public class LeaderboardScene {
     private static final String[] DIFFICULTY_ORDER = {"Grandmaster", "Pro", "Elite", "Beginner", "Amateur"};
     // Index to track the currently selected difficulty level.
     private static int currentDifficultyIndex = 0;
+    // Entries per page loaded from the server; the first page also fills the podium.
+    private static final int PAGE_SIZE = 20;
+    // Current page of the selected difficulty, and the entry each page starts after (null for the first).
+    private static int currentPage = 0;
+    private static final List<LeaderboardEntry> pageStarts = new ArrayList<>();
+    // Top 3 of the selected difficulty, from its first page.
+    private static List<LeaderboardEntry> podium = new ArrayList<>();
+    // Counts what the center shows; a page loaded for an older view is not shown.
+    private static long viewVersion = 0;
 
     private static String baseDir = System.getProperty("user.dir");    
 
@@ -96,15 +103,11 @@ public class LeaderboardScene {
         arrowTransition.setAutoReverse(true);
         arrowTransition.play();
 
-        // On click, cycle through difficulty levels and update the center content with a fade transition.
+        // On click, cycle through difficulty levels and show the first page of the next one.
         difficultyArrow.setOnAction(e -> {
             currentDifficultyIndex = (currentDifficultyIndex + 1) % DIFFICULTY_ORDER.length;
-            Parent newCenter = buildLeaderboardCenter();
-            FadeTransition ft = new FadeTransition(Duration.seconds(0.5), newCenter);
-            ft.setFromValue(0.0);
-            ft.setToValue(1.0);
-            ft.play();
-            mainContainer.setCenter(newCenter);
+            resetPages();
+            showCenter(mainContainer);
         });
 
         // Combine the title label and difficulty arrow in an HBox.
@@ -113,8 +116,14 @@ public class LeaderboardScene {
         mainContainer.setTop(titleBox);
 
         // 4) Build the leaderboard center content based on current difficulty filter.
-        Parent centerContent = buildLeaderboardCenter();
-        mainContainer.setCenter(centerContent);
+        // The first page of every difficulty is loaded in the background, so cycling them is instant.
+        for (String difficulty : DIFFICULTY_ORDER) {
+            LeaderboardCache.get(difficulty, null, null, PAGE_SIZE, null);
+        }
+        // The ranking behind the "your rank" line; reloaded when it is old.
+        LeaderboardRanking.get().refreshAsync();
+        resetPages();
+        showCenter(mainContainer);
 
         // 7) RIGHT-SIDE ARROW BUTTON for navigating to the Adventure Leaderboard.
         Button arrowButton = new Button("➤");
@@ -168,40 +177,75 @@ public class LeaderboardScene {
         return root;
     }
 
+    // Goes back to the first page, e.g. when the difficulty changes.
+    private static void resetPages() {
+        currentPage = 0;
+        pageStarts.clear();
+        pageStarts.add(null);
+        podium = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the center content with the current page, fading it in. The page comes from
+     * LeaderboardCache without waiting: a cached page is shown at once (and redrawn if a background
+     * reload changes it), otherwise a loading message is shown until the page arrives.
+     */
+    private static void showCenter(BorderPane mainContainer) {
+        long view = ++viewVersion;
+        LeaderboardPage[] shown = new LeaderboardPage[1];
+        shown[0] = LeaderboardCache.get(DIFFICULTY_ORDER[currentDifficultyIndex], null,
+                pageStarts.get(currentPage), PAGE_SIZE, loaded -> {
+            // Called on the FX thread; ignore it if the player has moved on.
+            if (view != viewVersion) return;
+            if (loaded != null && !loaded.sameEntries(shown[0])) {
+                mainContainer.setCenter(buildLeaderboardCenter(mainContainer, loaded));
+            } else if (loaded == null && shown[0] == null) {
+                mainContainer.setCenter(buildMessageCenter("Could not load the leaderboard."));
+            }
+        });
+        Parent newCenter = shown[0] != null ? buildLeaderboardCenter(mainContainer, shown[0])
+                : buildMessageCenter("Loading...");
+        FadeTransition ft = new FadeTransition(Duration.seconds(0.5), newCenter);
+        ft.setFromValue(0.0);
+        ft.setToValue(1.0);
+        ft.play();
+        mainContainer.setCenter(newCenter);
+    }
+
+    // Center content with a single line of text, while there is no page to show.
+    private static Parent buildMessageCenter(String text) {
+        Label label = new Label(text);
+        label.setFont(Font.font("Verdana", 22));
+        label.setTextFill(Color.WHITE);
+        label.setEffect(new DropShadow(5, Color.BLACK));
+        VBox box = new VBox(label);
+        box.setAlignment(Pos.CENTER);
+        box.setMaxWidth(600);
+        box.setMinWidth(600);
+        return box;
+    }
+
     /**
-     * Builds the center content of the leaderboard scene based on the current difficulty filter.
+     * Builds the center content of the leaderboard scene: the podium and one page of the selected
+     * difficulty, as filtered, ordered and paged by the server.
      *
+     * @param mainContainer the scene's container, whose center the page buttons replace.
+     * @param page          the current page of the selected difficulty.
      * @return a Parent node containing the leaderboard entries.
      */
-    private static Parent buildLeaderboardCenter() {
-        // Load all leaderboard entries.
-        List<LeaderboardEntry> allEntries = LeaderboardService.loadLeaderboard();
-        // Map difficulty levels to ranking values.
-        Map<String, Integer> difficultyRank = new HashMap<>();
-        difficultyRank.put("Grandmaster", 1);
-        difficultyRank.put("Pro", 2);
-        difficultyRank.put("Elite", 3);
-        difficultyRank.put("Beginner", 4);
-        difficultyRank.put("Amateur", 5);
-        // Sort entries by difficulty, then by score (descending), then by name.
-        List<LeaderboardEntry> classicEntries = allEntries.stream()
-            .sorted(Comparator.comparingInt((LeaderboardEntry e) -> 
-                    difficultyRank.getOrDefault(e.getTime(), Integer.MAX_VALUE))
-                    .thenComparing(LeaderboardEntry::getScore, Comparator.reverseOrder())
-                    .thenComparing(LeaderboardEntry::getName))
-            .collect(Collectors.toList());
-        
-        // Filter entries based on the selected difficulty.
-        String filter = DIFFICULTY_ORDER[currentDifficultyIndex];
-        List<LeaderboardEntry> filteredEntries = classicEntries.stream()
-            .filter(e -> e.getTime().equalsIgnoreCase(filter))
-            .collect(Collectors.toList());
+    private static Parent buildLeaderboardCenter(BorderPane mainContainer, LeaderboardPage page) {
+        List<LeaderboardEntry> pageEntries = page.getEntries();
+        // The first page's top 3 go on the podium, the rest into the table.
+        int podiumSize = 0;
+        if (currentPage == 0) {
+            podiumSize = Math.min(pageEntries.size(), 3);
+            podium = new ArrayList<>(pageEntries.subList(0, podiumSize));
+        }
+        List<LeaderboardEntry> tableEntries = pageEntries.subList(podiumSize, pageEntries.size());
+        int firstRank = currentPage * PAGE_SIZE + podiumSize + 1;
 
         // Build a container for the top 3 leaderboard entries.
-        ObservableList<LeaderboardEntry> top3 = FXCollections.observableArrayList();
-        if (!filteredEntries.isEmpty()) {
-            top3.addAll(filteredEntries.subList(0, Math.min(filteredEntries.size(), 3)));
-        }
+        ObservableList<LeaderboardEntry> top3 = FXCollections.observableArrayList(podium);
         HBox topThreeContainer = new HBox(40);
         topThreeContainer.setAlignment(Pos.CENTER);
         for (int i = 0; i < top3.size(); i++) {
@@ -284,8 +328,8 @@ public class LeaderboardScene {
         // Build the container for remaining leaderboard entries.
         VBox remainingContainer = new VBox(12);
         remainingContainer.setAlignment(Pos.TOP_CENTER);
-        for (int i = 3; i < filteredEntries.size(); i++) {
-            LeaderboardEntry entry = filteredEntries.get(i);
+        for (int i = 0; i < tableEntries.size(); i++) {
+            LeaderboardEntry entry = tableEntries.get(i);
             GridPane rowGrid = new GridPane();
             rowGrid.setHgap(20);
             rowGrid.setPadding(new Insets(8));
@@ -303,7 +347,7 @@ public class LeaderboardScene {
             c4.setHalignment(HPos.CENTER);
             c5.setHalignment(HPos.CENTER);
             rowGrid.getColumnConstraints().addAll(c1, c2, c3, c4, c5);
-            Label rankLabel = new Label(String.valueOf(i + 1));
+            Label rankLabel = new Label(String.valueOf(firstRank + i));
             rankLabel.setFont(Font.font("Verdana", 18));
             rankLabel.setTextFill(Color.ORANGE);
             rowGrid.add(rankLabel, 0, 0);
@@ -358,13 +402,74 @@ public class LeaderboardScene {
             scrollPane.setVvalue(scrollPane.getVvalue() - deltaY / scrollPane.getContent().getBoundsInLocal().getHeight());
             event.consume();
         });
-        VBox centerVBox = new VBox(40, topContainer, scrollPane);
+        // Page controls under the table.
+        Button prevButton = createPageButton("◀ Prev");
+        prevButton.setDisable(currentPage == 0);
+        prevButton.setOnAction(e -> {
+            currentPage--;
+            showCenter(mainContainer);
+        });
+        Button nextButton = createPageButton("Next ▶");
+        nextButton.setDisable(!page.hasMore());
+        nextButton.setOnAction(e -> {
+            // The next page starts after the last entry of this one.
+            if (pageStarts.size() == currentPage + 1) {
+                pageStarts.add(page.getLast());
+            }
+            currentPage++;
+            showCenter(mainContainer);
+        });
+        Label pageLabel = new Label("Page " + (currentPage + 1));
+        pageLabel.setFont(Font.font("Verdana", 18));
+        pageLabel.setTextFill(Color.WHITE);
+        HBox pageBox = new HBox(20, prevButton, pageLabel, nextButton);
+        pageBox.setAlignment(Pos.CENTER);
+
+        // The signed-in player's rank on this difficulty, with the players around them.
+        Label yourRankLabel = new Label();
+        yourRankLabel.setFont(Font.font("Verdana", 16));
+        yourRankLabel.setTextFill(Color.ORANGE);
+        yourRankLabel.setEffect(new DropShadow(3, Color.BLACK));
+        String difficulty = DIFFICULTY_ORDER[currentDifficultyIndex];
+        String username = SessionManager.getUsername();
+        if (username != null) {
+            LeaderboardRanking.get().rankAsync(username, 2, rank -> yourRankLabel.setText(yourRankText(difficulty, rank)));
+        }
+
+        VBox centerVBox = new VBox(40, topContainer, scrollPane, yourRankLabel, pageBox);
         centerVBox.setAlignment(Pos.CENTER);
         centerVBox.setMaxWidth(600);
         centerVBox.setMinWidth(600);
         return centerVBox;
     }
 
+    // "Your rank" text of the signed-in player, or empty if they have no score on the difficulty.
+    private static String yourRankText(String difficulty, PlayerRank rank) {
+        if (rank == null || rank.getEntry() == null || !difficulty.equals(rank.getEntry().getTime())) return "";
+        StringBuilder text = new StringBuilder("Your rank: #" + rank.getRank() + "\n");
+        List<LeaderboardEntry> around = rank.getAround();
+        int firstRank = rank.getAroundFirstRank();
+        for (int i = 0; i < around.size(); i++) {
+            LeaderboardEntry entry = around.get(i);
+            if (i > 0) text.append("   ");
+            text.append('#').append(firstRank + i).append(' ').append(entry.getName())
+                .append(' ').append(entry.getScore());
+        }
+        return text.toString();
+    }
+
+    // A small button in the style of the scene's other buttons.
+    private static Button createPageButton(String text) {
+        Button button = new Button(text);
+        button.setFont(Font.font("Verdana", 16));
+        button.setTextFill(Color.WHITE);
+        button.setBackground(new Background(new BackgroundFill(
+                Color.rgb(68, 68, 68, 0.9), new CornerRadii(15), Insets.EMPTY)));
+        button.setPadding(new Insets(6, 18, 6, 18));
+        button.setStyle("-fx-cursor: hand;");
+        return button;
+    }
+
     /**
      * Creates a particle pane that continuously generates animated particles as a background effect.
      *
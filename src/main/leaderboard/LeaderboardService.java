@@ -4,15 +4,19 @@ package src.main.leaderboard;
 import java.util.Properties;
 import src.main.config.ConfigLoader;
 
-import java.util.Properties;
-
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
@@ -20,23 +24,33 @@ public class LeaderboardService {
     // Declare the variables
     private static final String SUPABASE_API_URL;
     private static final String SUPABASE_API_KEY;      
+    // PostgREST endpoints of the increment_leaderboard_score(s) functions (see Readme).
+    private static final String SUPABASE_API_INCREMENT_URL;
+    private static final String SUPABASE_API_BATCH_URL;
     // Initialize them in the static block
     static {
         Properties config = ConfigLoader.loadConfig();
         SUPABASE_API_URL = config.getProperty("SUPABASE_API_LEADERBOARD_URL");
         // Supabase API key for authentication.
         SUPABASE_API_KEY = config.getProperty("SUPABASE_API_KEY");
+        // Default to the functions next to the table.
+        SUPABASE_API_INCREMENT_URL = config.getProperty("SUPABASE_API_LEADERBOARD_INCREMENT_URL",
+                functionUrl("increment_leaderboard_score"));
+        SUPABASE_API_BATCH_URL = config.getProperty("SUPABASE_API_LEADERBOARD_BATCH_URL",
+                functionUrl("increment_leaderboard_scores"));
     }
+    // How long a batch of scores may take before ScoreOutbox retries it.
+    private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(5);
     // System.out.println("Leaderboard URL: " + SUPABASE_API_URL);
 
 
     // HttpClient instance used for sending HTTP requests.
     private static HttpClient httpClient = HttpClient.newHttpClient();
-    // Observable list to hold leaderboard entries.
-    private static ObservableList<LeaderboardEntry> leaderboard = FXCollections.observableArrayList();
     
     /**
-     * Pushes leaderboard data asynchronously by creating a new thread.
+     * Queues leaderboard data in the ScoreOutbox, which sends it in the background, and counts it in
+     * LeaderboardRanking. Returns once the save is on disk, so it survives the game quitting or a
+     * failed request.
      *
      * @param name       The name of the player.
      * @param score      The score to be added.
@@ -44,85 +58,161 @@ public class LeaderboardService {
      * @param mode       The game mode.
      */
     public static void pushLeaderboardDataAsync(String name, int score, String difficulty, String mode) {
-        new Thread(() -> pushLeaderboardData(name, score, difficulty, mode)).start();
+        long seq = ScoreOutbox.get().add(name, score, difficulty, mode);
+        // Ranked right away, so the player sees the new rank before the server has the score.
+        LeaderboardRanking.get().applySave(seq, name, score, difficulty, mode);
+    }
+
+    /**
+     * Adds a batch of scores on the server with the increment_leaderboard_scores function, in one
+     * request. The function applies a batch id only once, so a batch may be resent safely.
+     *
+     * @param batchId the batch's id; the same for every attempt at one batch.
+     * @param scores  one object per player: name, score, difficulty, mode.
+     * @return the HTTP status, or -1 if the request failed.
+     */
+    static int pushLeaderboardBatch(String batchId, JsonArray scores) {
+        try {
+            JsonObject params = new JsonObject();
+            params.addProperty("p_batch", batchId);
+            params.add("p_scores", scores);
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(SUPABASE_API_BATCH_URL))
+                    .timeout(BATCH_TIMEOUT)
+                    .header("apikey", SUPABASE_API_KEY)
+                    .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(params.toString()))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400 && response.statusCode() != 404) {
+                System.out.println("Score batch failed: " + response.statusCode() + " " + response.body());
+            }
+            return response.statusCode();
+        } catch (Exception ex) {
+            System.out.println("Score batch failed: " + ex);
+            return -1;
+        }
     }
     
     /**
-     * Pushes leaderboard data to the Supabase API.
-     * If an entry with the given name exists, it updates the score by adding the new score.
-     * Otherwise, it creates a new leaderboard entry.
+     * Pushes leaderboard data to the Supabase API in one request.
+     * The increment_leaderboard_score function adds the score to the player's entry, creating it if
+     * there is none, in a single upsert on the server, so concurrent saves for one player never
+     * lose an update.
+     * Servers without the function (404) get the old read-then-write update instead, which is not
+     * safe against concurrent saves; install the function to fix that.
      *
      * @param name       The name of the player.
      * @param score      The score to be added.
      * @param difficulty The difficulty level of the game.
      * @param mode       The game mode.
+     * @return the player's new total score, or -1 if it could not be saved.
      */
-    public static void pushLeaderboardData(String name, int score, String difficulty, String mode) {
+    public static int pushLeaderboardData(String name, int score, String difficulty, String mode) {
         try {
-            // Build URL query to search for an existing entry by name.
-            String queryUrl = SUPABASE_API_URL + "?Name=eq." + name;
-            HttpRequest getRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(queryUrl))
+            JsonObject params = new JsonObject();
+            params.addProperty("p_name", name);
+            params.addProperty("p_score", score);
+            params.addProperty("p_difficulty", difficulty);
+            params.addProperty("p_mode", mode);
+            HttpRequest rpcRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(SUPABASE_API_INCREMENT_URL))
                     .header("apikey", SUPABASE_API_KEY)
                     .header("Authorization", "Bearer " + SUPABASE_API_KEY)
-                    .GET()
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(params.toString()))
                     .build();
-            HttpResponse<String> getResponse = httpClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
-            String responseBody = getResponse.body();
-            
-            // Check if the response contains an existing entry.
-            if (JsonParser.parseString(responseBody).isJsonArray() &&
-                JsonParser.parseString(responseBody).getAsJsonArray().size() > 0) {
-                // Existing entry found; update the score.
-                JsonObject existingEntry = JsonParser.parseString(responseBody).getAsJsonArray().get(0).getAsJsonObject();
-                int currentScore = existingEntry.get("Score").getAsInt();
-                int newScore = currentScore + score;
-                JsonObject patchObj = new JsonObject();
-                patchObj.addProperty("Score", newScore);
-                
-                // Create PATCH request to update the score.
-                HttpRequest patchRequest = HttpRequest.newBuilder()
-                        .uri(URI.create(SUPABASE_API_URL + "?Name=eq." + name))
-                        .header("apikey", SUPABASE_API_KEY)
-                        .header("Authorization", "Bearer " + SUPABASE_API_KEY)
-                        .header("Content-Type", "application/json")
-                        .method("PATCH", HttpRequest.BodyPublishers.ofString(patchObj.toString()))
-                        .build();
-                HttpResponse<String> patchResponse = httpClient.send(patchRequest, HttpResponse.BodyHandlers.ofString());
-                if (patchResponse.statusCode() >= 400) {
-                    System.out.println("PATCH failed: " + patchResponse.statusCode() + " " + patchResponse.body());
-                }
-            } else {
-                // No existing entry; create a new leaderboard entry.
-                JsonObject newEntry = new JsonObject();
-                newEntry.addProperty("Name", name);
-                newEntry.addProperty("Score", score);
-                newEntry.addProperty("Difficulty", difficulty);
-                newEntry.addProperty("Mode", mode);
-                HttpRequest postRequest = HttpRequest.newBuilder()
-                        .uri(URI.create(SUPABASE_API_URL))
-                        .header("apikey", SUPABASE_API_KEY)
-                        .header("Authorization", "Bearer " + SUPABASE_API_KEY)
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(newEntry.toString()))
-                        .build();
-                HttpResponse<String> postResponse = httpClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
-                if (postResponse.statusCode() >= 400) {
-                    System.out.println("POST failed: " + postResponse.statusCode() + " " + postResponse.body());
-                }
+            HttpResponse<String> rpcResponse = httpClient.send(rpcRequest, HttpResponse.BodyHandlers.ofString());
+            if (rpcResponse.statusCode() == 404) {
+                System.out.println("increment_leaderboard_score is missing on the server; "
+                        + "falling back to a read-then-write update.");
+                return pushLeaderboardDataUnsafe(name, score, difficulty, mode);
             }
+            if (rpcResponse.statusCode() >= 400) {
+                System.out.println("Score increment failed: " + rpcResponse.statusCode() + " " + rpcResponse.body());
+                return -1;
+            }
+            // The function returns the new total, as a bare number.
+            return JsonParser.parseString(rpcResponse.body()).getAsInt();
         } catch (Exception ex) {
             ex.printStackTrace();
+            return -1;
         }
     }
+
+    /**
+     * The update for servers without increment_leaderboard_score: reads the entry by name, then
+     * either PATCHes the sum or POSTs a new entry. Two round-trips, and two concurrent saves for one
+     * player can lose an update.
+     */
+    private static int pushLeaderboardDataUnsafe(String name, int score, String difficulty, String mode) throws Exception {
+        String entryUrl = SUPABASE_API_URL + "?Name=eq." + URLEncoder.encode(name, StandardCharsets.UTF_8);
+        HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create(entryUrl))
+                .header("apikey", SUPABASE_API_KEY)
+                .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                .GET()
+                .build();
+        HttpResponse<String> getResponse = httpClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        JsonElement existing = JsonParser.parseString(getResponse.body());
+
+        if (existing.isJsonArray() && existing.getAsJsonArray().size() > 0) {
+            // Existing entry found; update the score.
+            int newScore = existing.getAsJsonArray().get(0).getAsJsonObject().get("Score").getAsInt() + score;
+            JsonObject patchObj = new JsonObject();
+            patchObj.addProperty("Score", newScore);
+            HttpRequest patchRequest = HttpRequest.newBuilder()
+                    .uri(URI.create(entryUrl))
+                    .header("apikey", SUPABASE_API_KEY)
+                    .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(patchObj.toString()))
+                    .build();
+            HttpResponse<String> patchResponse = httpClient.send(patchRequest, HttpResponse.BodyHandlers.ofString());
+            if (patchResponse.statusCode() >= 400) {
+                System.out.println("PATCH failed: " + patchResponse.statusCode() + " " + patchResponse.body());
+                return -1;
+            }
+            return newScore;
+        }
+        // No existing entry; create a new leaderboard entry.
+        JsonObject newEntry = new JsonObject();
+        newEntry.addProperty("Name", name);
+        newEntry.addProperty("Score", score);
+        newEntry.addProperty("Difficulty", difficulty);
+        newEntry.addProperty("Mode", mode);
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create(SUPABASE_API_URL))
+                .header("apikey", SUPABASE_API_KEY)
+                .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(newEntry.toString()))
+                .build();
+        HttpResponse<String> postResponse = httpClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        if (postResponse.statusCode() >= 400) {
+            System.out.println("POST failed: " + postResponse.statusCode() + " " + postResponse.body());
+            return -1;
+        }
+        return score;
+    }
     
+    // URL of a database function next to the table: .../rest/v1/leaderboard -> .../rest/v1/rpc/<name>.
+    private static String functionUrl(String name) {
+        return SUPABASE_API_URL == null ? null
+                : SUPABASE_API_URL.substring(0, SUPABASE_API_URL.lastIndexOf('/')) + "/rpc/" + name;
+    }
+
     /**
      * Loads the leaderboard data from the Supabase API.
-     * Parses the JSON response and populates the observable list with LeaderboardEntry objects.
+     * Parses the JSON response into a new observable list of LeaderboardEntry objects, so callers on
+     * other threads never share a list with the UI. Downloads the whole table; screens should use
+     * loadLeaderboardPage through LeaderboardCache.
      *
      * @return an ObservableList of LeaderboardEntry objects representing the leaderboard.
      */
     public static ObservableList<LeaderboardEntry> loadLeaderboard() {
+        ObservableList<LeaderboardEntry> leaderboard = FXCollections.observableArrayList();
         try {
             // Build GET request to retrieve all leaderboard entries.
             HttpRequest getRequest = HttpRequest.newBuilder()
@@ -133,23 +223,78 @@ public class LeaderboardService {
                 .build();
             HttpResponse<String> response = httpClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
             String responseBody = response.body();
-            // Clear current leaderboard list.
-            leaderboard.clear();
             // Parse the response JSON array.
             JsonArray result = JsonParser.parseString(responseBody).getAsJsonArray();
             for (int i = 0; i < result.size(); i++) {
-                JsonObject obj = result.get(i).getAsJsonObject();
-                String entryName = obj.get("Name").getAsString();
-                int entryScore = obj.get("Score").getAsInt();
-                // Check for optional fields "Difficulty" and "Mode".
-                String entryDifficulty = obj.has("Difficulty") ? obj.get("Difficulty").getAsString() : "Unknown";
-                String entryMode = obj.has("Mode") ? obj.get("Mode").getAsString() : "Unknown";
                 // Add a new LeaderboardEntry to the observable list.
-                leaderboard.add(new LeaderboardEntry(entryName, entryScore, entryDifficulty, entryMode));
+                leaderboard.add(entryOf(result.get(i).getAsJsonObject()));
             }
         } catch (Exception ex) {
             ex.printStackTrace();
         }
         return leaderboard;
     }
+
+    /**
+     * Loads one page of the leaderboard, filtered, ordered and cut to size by the server: highest
+     * score first, then by name. Pages are keyset-paginated: a page starts right after the last
+     * entry of the previous one, so each page costs the same on the wire and on the server however
+     * deep it is and however many players there are. One extra row is asked for to tell whether
+     * another page follows.
+     *
+     * @param difficulty Only entries of this difficulty; null for all.
+     * @param mode       Only entries of this game mode; null for all.
+     * @param after      The last entry of the previous page; null for the first page.
+     * @param limit      The most entries to load.
+     * @return the page, or null if it could not be loaded.
+     */
+    public static LeaderboardPage loadLeaderboardPage(String difficulty, String mode, LeaderboardEntry after, int limit) {
+        StringBuilder url = new StringBuilder(SUPABASE_API_URL)
+                .append("?select=Name,Score,Difficulty,Mode&order=Score.desc,Name.asc&limit=").append(limit + 1);
+        if (difficulty != null) url.append("&Difficulty=eq.").append(URLEncoder.encode(difficulty, StandardCharsets.UTF_8));
+        if (mode != null) url.append("&Mode=eq.").append(URLEncoder.encode(mode, StandardCharsets.UTF_8));
+        if (after != null) {
+            // Entries ordered after `after`: a lower score, or the same score and a later name.
+            String keyset = "(Score.lt." + after.getScore() + ",and(Score.eq." + after.getScore()
+                    + ",Name.gt." + quote(after.getName()) + "))";
+            url.append("&or=").append(URLEncoder.encode(keyset, StandardCharsets.UTF_8));
+        }
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        try {
+            HttpRequest getRequest = HttpRequest.newBuilder()
+                .uri(URI.create(url.toString()))
+                .header("apikey", SUPABASE_API_KEY)
+                .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                .GET()
+                .build();
+            HttpResponse<String> response = httpClient.send(getRequest, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                System.out.println("Leaderboard page failed: " + response.statusCode() + " " + response.body());
+                return null;
+            }
+            JsonArray result = JsonParser.parseString(response.body()).getAsJsonArray();
+            for (int i = 0; i < result.size() && i < limit; i++) {
+                entries.add(entryOf(result.get(i).getAsJsonObject()));
+            }
+            return new LeaderboardPage(entries, result.size() > limit);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    // A value inside a PostgREST logical filter, double-quoted so commas and parentheses in names are safe.
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    // One row of the leaderboard table; "Difficulty" and "Mode" are optional.
+    private static LeaderboardEntry entryOf(JsonObject obj) {
+        String entryName = obj.get("Name").getAsString();
+        int entryScore = obj.get("Score").getAsInt();
+        String entryDifficulty = obj.has("Difficulty") && !obj.get("Difficulty").isJsonNull()
+                ? obj.get("Difficulty").getAsString() : "Unknown";
+        String entryMode = obj.has("Mode") && !obj.get("Mode").isJsonNull() ? obj.get("Mode").getAsString() : "Unknown";
+        return new LeaderboardEntry(entryName, entryScore, entryDifficulty, entryMode);
+    }
 }
@@ -0,0 +1,62 @@
+package src.main.leaderboard;
+
+import java.util.Collections;
+import java.util.List;
+
+public class PlayerRank {
+    // The player's entry, with the saves the server does not have yet; null if not ranked.
+    private final LeaderboardEntry entry;
+    // 1 for the best player of the difficulty.
+    private final int rank;
+    // The player and the players ranked next to them, best first; never modified.
+    private final List<LeaderboardEntry> around;
+
+    /**
+     * Constructs the rank of a player on the leaderboard.
+     *
+     * @param entry  The player's entry, or null if the player is not ranked.
+     * @param rank   The player's rank within their difficulty, 1 for the best, or -1.
+     * @param around The player and their neighbours, in leaderboard order.
+     */
+    public PlayerRank(LeaderboardEntry entry, int rank, List<LeaderboardEntry> around) {
+        this.entry = entry;
+        this.rank = rank;
+        this.around = Collections.unmodifiableList(around);
+    }
+
+    /**
+     * Returns the player's entry, counting the scores not on the server yet.
+     *
+     * @return the entry, or null if the player is not among the top players loaded.
+     */
+    public LeaderboardEntry getEntry() {
+        return entry;
+    }
+
+    /**
+     * Returns the player's rank among the players of the same difficulty.
+     *
+     * @return 1 for the best, or -1 if the player is not among the top players loaded.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * Returns the player and the players ranked right above and below them.
+     *
+     * @return an unmodifiable list, best first.
+     */
+    public List<LeaderboardEntry> getAround() {
+        return around;
+    }
+
+    /**
+     * Returns the rank of the first entry of getAround().
+     *
+     * @return the rank of the best neighbour shown.
+     */
+    public int getAroundFirstRank() {
+        return rank - around.indexOf(entry);
+    }
+}
@@ -0,0 +1,416 @@
+package src.main.leaderboard;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Score saves waiting to reach the leaderboard, kept in an append-only file so none is lost when the
+ * game quits or the network is down.
+ * add() only appends one line to resources/leaderboard/score_outbox.jsonl, so saving a score is
+ * instant for the UI. One background thread sends the pending saves as a single request, with the
+ * scores of each player added up, and retries with exponential backoff until the server confirms.
+ * On shutdown (including System.exit from a Quit button) it tries one last send; whatever is left
+ * is sent on the next start.
+ *
+ * A batch gets an id before its first attempt, written to the file next to its scores, and every
+ * retry of it sends the same id and the same scores. The increment_leaderboard_scores function
+ * applies each id once, so a retry after a lost response does not count the scores twice.
+ * Only a batch the server calls malformed (400, 422) is given up on; it is moved to
+ * score_outbox.rejected.jsonl rather than deleted. Any other failure, including a wrong or rotated
+ * API key, keeps the saves pending.
+ */
+public class ScoreOutbox {
+    private static final String OUTBOX_PATH = "resources/leaderboard/score_outbox.jsonl";
+    // Wait after a save before sending, so saves in quick succession go in one request.
+    private static final long LINGER_MILLIS = 500;
+    private static final long MIN_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 5 * 60 * 1000;
+    // How long the shutdown hook waits for a send already in progress.
+    private static final long SHUTDOWN_WAIT_MILLIS = 2000;
+
+    private static ScoreOutbox instance;
+
+    // Sends one batch; returns the HTTP status, or -1 if there was no response.
+    interface BatchSender {
+        int send(String batchId, JsonArray scores);
+    }
+
+    // One score save.
+    static class ScoreEvent {
+        final long seq;
+        final String name;
+        final int score;
+        final String difficulty;
+        final String mode;
+
+        ScoreEvent(long seq, String name, int score, String difficulty, String mode) {
+            this.seq = seq;
+            this.name = name;
+            this.score = score;
+            this.difficulty = difficulty;
+            this.mode = mode;
+        }
+    }
+
+    private final File file;
+    // Batches the server rejected for good, kept for a person to look at.
+    private final File rejectedFile;
+    private final BatchSender sender;
+    // Saves not yet confirmed by the server, oldest first; the file holds the same.
+    private final List<ScoreEvent> pending = new ArrayList<>();
+    private long nextSeq = 1;
+    // Every save up to this number has been confirmed; batches are sent oldest first.
+    private long confirmedUpTo;
+    // Batch being sent: its id and the last save it covers; null while none is.
+    private String batchId;
+    private long batchUpTo;
+    // Players of the current batch already saved one by one (servers without the batch function).
+    private final Set<String> savedSeparately = new HashSet<>();
+    private Writer out;
+    // Held while sending, so the flusher and the shutdown hook never send at the same time.
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private Thread flusher;
+
+    /**
+     * The outbox of this installation, loaded from disk and flushing in the background from the
+     * first call on. VTUGamifiedQuizApp calls it at start-up, so saves left over from the last run
+     * are sent right away.
+     */
+    public static synchronized ScoreOutbox get() {
+        if (instance == null) {
+            instance = new ScoreOutbox(new File(System.getProperty("user.dir"), OUTBOX_PATH));
+            instance.startFlushing();
+            ScoreOutbox outbox = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> outbox.drain(SHUTDOWN_WAIT_MILLIS), "score-outbox-drain"));
+        }
+        return instance;
+    }
+
+    // Loads the saves pending in file. Does not send anything until startFlushing().
+    ScoreOutbox(File file) {
+        this(file, LeaderboardService::pushLeaderboardBatch);
+    }
+
+    ScoreOutbox(File file, BatchSender sender) {
+        this.file = file;
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        this.rejectedFile = new File(file.getParentFile(),
+                (dot > 0 ? name.substring(0, dot) : name) + ".rejected.jsonl");
+        this.sender = sender;
+        load();
+    }
+
+    /**
+     * Queues a score to be added to the player's leaderboard entry. Returns as soon as the save is
+     * on disk; it reaches the server in the background.
+     *
+     * @return the save's number; later saves get higher numbers.
+     */
+    public synchronized long add(String name, int score, String difficulty, String mode) {
+        ScoreEvent event = new ScoreEvent(nextSeq++, name, score, difficulty, mode);
+        append(eventLine(event));
+        pending.add(event);
+        notifyAll();
+        return event.seq;
+    }
+
+    // The saves the server has not confirmed, oldest first.
+    synchronized List<ScoreEvent> pendingSaves() {
+        return new ArrayList<>(pending);
+    }
+
+    // Number of the last save the server has confirmed; every earlier save is confirmed too.
+    synchronized long confirmedUpTo() {
+        return confirmedUpTo;
+    }
+
+    // Number of saves the server has not confirmed yet.
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // Starts the background thread that sends pending saves.
+    void startFlushing() {
+        flusher = new Thread(this::runFlusher, "score-outbox");
+        // The shutdown hook takes over the last send.
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Stops the background thread; pending saves stay in the file.
+    void stop() {
+        if (flusher != null) flusher.interrupt();
+    }
+
+    /**
+     * Sends everything pending now, waiting at most timeoutMillis for a send already in progress.
+     *
+     * @return true if nothing is pending afterwards.
+     */
+    public boolean drain(long timeoutMillis) {
+        try {
+            if (!sendLock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            // Saves added while a batch was out form the next batch.
+            while (pendingCount() > 0) {
+                if (!flush()) return false;
+            }
+            return true;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (pending.isEmpty()) wait();
+                }
+                Thread.sleep(LINGER_MILLIS);
+                boolean sent;
+                sendLock.lock();
+                try {
+                    sent = flush();
+                } finally {
+                    sendLock.unlock();
+                }
+                if (sent) {
+                    backoff = MIN_BACKOFF_MILLIS;
+                } else {
+                    // Jittered, so many clients coming back online do not retry in step.
+                    Thread.sleep(backoff / 2 + (long) (Math.random() * backoff / 2));
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        } catch (InterruptedException ex) {
+            // stop(); the file keeps whatever is pending.
+        }
+    }
+
+    /**
+     * Sends the current batch once, forming it from the pending saves if there is none. Called with
+     * sendLock held.
+     *
+     * @return true if the batch was confirmed (or rejected for good), false to retry later.
+     */
+    private boolean flush() {
+        String id;
+        List<ScoreEvent> events = new ArrayList<>();
+        synchronized (this) {
+            if (pending.isEmpty()) return true;
+            if (batchId == null) {
+                batchId = UUID.randomUUID().toString();
+                batchUpTo = pending.get(pending.size() - 1).seq;
+                append(batchLine());
+            }
+            id = batchId;
+            for (ScoreEvent event : pending) {
+                if (event.seq > batchUpTo) break;
+                events.add(event);
+            }
+        }
+        // One entry per player: the batch function may touch each leaderboard row only once.
+        Map<String, JsonObject> byPlayer = new LinkedHashMap<>();
+        for (ScoreEvent event : events) {
+            JsonObject entry = byPlayer.get(event.name);
+            if (entry == null) {
+                entry = new JsonObject();
+                entry.addProperty("name", event.name);
+                entry.addProperty("score", 0);
+                byPlayer.put(event.name, entry);
+            }
+            entry.addProperty("score", entry.get("score").getAsInt() + event.score);
+            // The latest save decides the difficulty and mode of a new entry.
+            entry.addProperty("difficulty", event.difficulty);
+            entry.addProperty("mode", event.mode);
+        }
+        JsonArray scores = new JsonArray();
+        byPlayer.values().forEach(scores::add);
+
+        int status = sender.send(id, scores);
+        if (status == 404) {
+            // No batch function on the server: save player by player, remembering who is done so a
+            // retry does not add their scores twice (within this run; not exactly-once across restarts).
+            for (JsonObject entry : byPlayer.values()) {
+                String name = entry.get("name").getAsString();
+                if (savedSeparately.contains(name)) continue;
+                if (LeaderboardService.pushLeaderboardData(name, entry.get("score").getAsInt(),
+                        entry.get("difficulty").getAsString(), entry.get("mode").getAsString()) < 0) {
+                    return false;
+                }
+                savedSeparately.add(name);
+            }
+        } else if (status == 400 || status == 422) {
+            // The server will never take this batch; keep it from holding up later saves.
+            System.out.println("Leaderboard rejected " + events.size() + " score saves: " + status
+                    + "; kept in " + rejectedFile.getName());
+            reject(id, status, events);
+        } else if (status < 200 || status >= 300) {
+            // Includes 401/403: a key that is wrong now may be fixed, and the saves must survive until then.
+            return false;
+        }
+        complete();
+        return true;
+    }
+
+    // Drops the sent batch, here and in the file.
+    private synchronized void complete() {
+        pending.removeIf(event -> event.seq <= batchUpTo);
+        confirmedUpTo = batchUpTo;
+        batchId = null;
+        savedSeparately.clear();
+        rewrite();
+        // Cached leaderboard pages may now be missing these scores.
+        LeaderboardCache.invalidate();
+    }
+
+    // Appends a rejected batch's saves to the rejected file, with the batch id and the server's status.
+    private void reject(String id, int status, List<ScoreEvent> events) {
+        rejectedFile.getParentFile().mkdirs();
+        try (FileOutputStream fileOut = new FileOutputStream(rejectedFile, true);
+             Writer writer = new OutputStreamWriter(fileOut, StandardCharsets.UTF_8)) {
+            for (ScoreEvent event : events) {
+                JsonObject line = eventLine(event);
+                line.addProperty("batch", id);
+                line.addProperty("status", status);
+                writer.write(line + "\n");
+            }
+            writer.flush();
+            fileOut.getFD().sync();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // Reads the pending saves and any unfinished batch; a line cut short by a crash is skipped.
+    private void load() {
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String text;
+                while ((text = reader.readLine()) != null) {
+                    try {
+                        JsonElement element = JsonParser.parseString(text);
+                        if (!element.isJsonObject()) continue;
+                        JsonObject line = element.getAsJsonObject();
+                        if (line.has("batch")) {
+                            batchUpTo = line.get("upTo").getAsLong();
+                            batchId = line.get("batch").getAsString();
+                        } else if (line.has("seq")) {
+                            ScoreEvent event = new ScoreEvent(line.get("seq").getAsLong(), line.get("name").getAsString(),
+                                    line.get("score").getAsInt(), line.get("difficulty").getAsString(),
+                                    line.get("mode").getAsString());
+                            pending.add(event);
+                            nextSeq = Math.max(nextSeq, event.seq + 1);
+                        }
+                    } catch (RuntimeException ex) {
+                        // Cut short or not a save.
+                    }
+                }
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+        if (!pending.isEmpty()) {
+            System.out.println(pending.size() + " score saves pending from the last run.");
+        }
+        confirmedUpTo = pending.isEmpty() ? nextSeq - 1 : pending.get(0).seq - 1;
+        // Starts the file afresh, without the cut-short line.
+        rewrite();
+    }
+
+    // Appends one line and hands it to the OS, which keeps it even if the JVM is killed right after.
+    private void append(JsonObject line) {
+        try {
+            if (out == null) {
+                file.getParentFile().mkdirs();
+                out = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8);
+            }
+            out.write(line.toString());
+            out.write('\n');
+            out.flush();
+        } catch (IOException ex) {
+            // The save is still sent from memory; it is only lost if the game quits before that.
+            ex.printStackTrace();
+        }
+    }
+
+    // Replaces the file with the pending saves and the current batch, through a temporary file.
+    private void rewrite() {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            file.getParentFile().mkdirs();
+            try (FileOutputStream fileOut = new FileOutputStream(temp);
+                 Writer writer = new OutputStreamWriter(fileOut, StandardCharsets.UTF_8)) {
+                for (ScoreEvent event : pending) {
+                    writer.write(eventLine(event) + "\n");
+                }
+                if (batchId != null) {
+                    writer.write(batchLine() + "\n");
+                }
+                writer.flush();
+                fileOut.getFD().sync();
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            temp.delete();
+        }
+    }
+
+    private static JsonObject eventLine(ScoreEvent event) {
+        JsonObject line = new JsonObject();
+        line.addProperty("seq", event.seq);
+        line.addProperty("name", event.name);
+        line.addProperty("score", event.score);
+        line.addProperty("difficulty", event.difficulty);
+        line.addProperty("mode", event.mode);
+        return line;
+    }
+
+    private JsonObject batchLine() {
+        JsonObject line = new JsonObject();
+        line.addProperty("batch", batchId);
+        line.addProperty("upTo", batchUpTo);
+        return line;
+    }
+}
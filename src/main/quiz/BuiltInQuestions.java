@@ -0,0 +1,145 @@
+package src.main.quiz;
+
+import java.util.List;
+
+/**
+ * Questions that ship with the game instead of coming from the question bank:
+ * the coding challenges of the classic quiz and the retro runner's aptitude questions.
+ */
+class BuiltInQuestions {
+    // Coding challenges mixed into a classic quiz session while JDoodle credits remain.
+    static final List<Question> CODING_CHALLENGES = List.of(
+        new Question("Write a function named 'sum' that takes two integers and returns their sum."),
+        new Question("Write a function named 'reverseString' that returns the reverse of a given string.")
+    );
+
+    // Quick aptitude questions of the retro runner; the answer is typed in.
+    // Earlier, easier set:
+    //     ("What is 2 + 2?", "4"), ("What is 5 - 3?", "2"), ("What is 3 * 3?", "9"), ("What is 10 / 2?", "5"),
+    //     ("What is 7 + 3?", "10"), ("What is 8 - 5?", "3"), ("What is 9 - 6?", "3"), ("What is 12 / 3?", "4")
+    static final List<Question> APTITUDE = List.of(
+        // Basic Arithmetic
+        aptitude("What is 15 + 27?", "42", "aptitude,basic arithmetic"),
+        aptitude("What is 144 - 78?", "66", "aptitude,basic arithmetic"),
+        aptitude("What is 12 * 13?", "156", "aptitude,basic arithmetic"),
+        aptitude("What is 144 / 12?", "12", "aptitude,basic arithmetic"),
+        aptitude("What is 2 raised to the power of 5?", "32", "aptitude,basic arithmetic"),
+        aptitude("What is the square root of 169?", "13", "aptitude,basic arithmetic"),
+        aptitude("What is the cube of 4?", "64", "aptitude,basic arithmetic"),
+        aptitude("What is 27% of 200?", "54", "aptitude,basic arithmetic"),
+        aptitude("What is the factorial of 5?", "120", "aptitude,basic arithmetic"),
+        aptitude("What is the remainder when 29 is divided by 5?", "4", "aptitude,basic arithmetic"),
+
+        // Number Series
+        aptitude("What is the next number in the series: 2, 4, 8, 16, ?", "32", "aptitude,number series"),
+        aptitude("What is the next number in the series: 3, 6, 11, 18, ?", "27", "aptitude,number series"),
+        aptitude("What is the next number in the series: 5, 10, 20, 40, ?", "80", "aptitude,number series"),
+        aptitude("What is the next number in the series: 7, 14, 28, 56, ?", "112", "aptitude,number series"),
+        aptitude("What is the next number in the Fibonacci series: 1, 1, 2, 3, 5, ?", "13", "aptitude,number series"),
+        aptitude("What is the next number in the series: 2, 3, 5, 8, 12, ?", "17", "aptitude,number series"),
+        aptitude("What is the next number in the series: 4, 9, 19, 39, ?", "79", "aptitude,number series"),
+        aptitude("What is the next number in the series: 10, 9, 7, 4, 0, ?", "-5", "aptitude,number series"),
+        aptitude("What is the next number in the series: 1, 4, 9, 16, ?", "25", "aptitude,number series"),
+        aptitude("What is the next number in the series: 2, 6, 12, 20, 30, ?", "42", "aptitude,number series"),
+
+        // Percentages
+        aptitude("What is 20% of 150?", "30", "aptitude,percentages"),
+        aptitude("What is 25% of 360?", "90", "aptitude,percentages"),
+        aptitude("What is 12.5% of 400?", "50", "aptitude,percentages"),
+        aptitude("What is 30% of 250?", "75", "aptitude,percentages"),
+        aptitude("If a price is 200 and is increased by 15%, what is the new price?", "230", "aptitude,percentages"),
+        aptitude("If a salary of 5000 is decreased by 10%, what is the new salary?", "4500", "aptitude,percentages"),
+        aptitude("20 is what percent of 50?", "40%", "aptitude,percentages"),
+        aptitude("72 is what percent of 120?", "60%", "aptitude,percentages"),
+        aptitude("What is 80 increased by 25%?", "100", "aptitude,percentages"),
+        aptitude("A population increases from 1000 to 1150. What is the percentage increase?", "15%", "aptitude,percentages"),
+
+        // Ratio & Proportion
+        aptitude("In the ratio 3:4, the sum of parts is 140. What is the larger part?", "80", "aptitude,ratio,proportion"),
+        aptitude("Divide 63 in the ratio 2:5. What is the larger part?", "45", "aptitude,ratio,proportion"),
+        aptitude("If a:b = 3:7 and a + b = 40, what is b?", "28", "aptitude,ratio,proportion"),
+        aptitude("If 5 pens cost 15, how much would 8 pens cost?", "24", "aptitude,ratio,proportion"),
+        aptitude("If speeds are in the ratio 3:5 and the faster train takes 6 hours, how long will the slower train take?", "10", "aptitude,ratio,proportion"),
+        aptitude("In ratios a:b = 4:9 and b:c = 1:3, what is a:c?", "4:27", "aptitude,ratio,proportion"),
+        aptitude("A mixture of milk and water is in ratio 5:2. If the total is 140ml, how much is milk?", "100", "aptitude,ratio,proportion"),
+        aptitude("If a:b:c = 2:3:5 and a + b + c = 200, what is b?", "60", "aptitude,ratio,proportion"),
+        aptitude("A recipe requires flour and sugar in ratio 7:3. For 700g of mixture, how much is sugar?", "210", "aptitude,ratio,proportion"),
+        aptitude("If a is to b as 6:7 and b = 49, what is a?", "42", "aptitude,ratio,proportion"),
+
+        // Time & Work
+        aptitude("If 4 workers can complete a job in 12 days, how many days will 6 workers take?", "8", "aptitude,time,work"),
+        aptitude("A and B together can do a job in 15 days. B alone can do it in 30 days. How long will A alone take?", "30", "aptitude,time,work"),
+        aptitude("A is twice as efficient as B. Together they finish in 9 days. How many days will A alone take?", "13.5", "aptitude,time,work"),
+        aptitude("5 men can do a work in 10 days, and 10 women can do the same work in 15 days. In how many days will 3 men and 5 women do the work together?", "10.714", "aptitude,time,work"),
+        aptitude("If half a work is done in 6 days, how many days for the full work?", "12", "aptitude,time,work"),
+        aptitude("Two pipes fill a tank in 10 and 15 hours respectively. Together with a third pipe, they fill it in 4 hours. How long will the third pipe take alone?", "12", "aptitude,time,work"),
+        aptitude("A and B together finish in 10 days. A is twice as fast as B. How many days will B take alone?", "15", "aptitude,time,work"),
+        aptitude("A, B and C can do a job in 20, 30, and 60 days respectively. How long will they take together?", "10", "aptitude,time,work"),
+        aptitude("A does a job in 16 days and B in 24 days. How many days to complete half the job together?", "4.8", "aptitude,time,work"),
+        aptitude("A and B can finish in 12 days, B and C in 15 days, and A and C in 20 days. How long will A, B, and C take together?", "10", "aptitude,time,work"),
+
+        // Time, Speed & Distance
+        aptitude("A covers 60 km in 1.5 hours. What is his speed?", "40", "aptitude,time,speed,distance"),
+        aptitude("How long will it take to travel 180 km at 60 km/h?", "3", "aptitude,time,speed,distance"),
+        aptitude("Two trains are 120 km apart and approach each other at 50 km/h and 70 km/h. When will they meet?", "1", "aptitude,time,speed,distance"),
+        aptitude("A man walks at 5 km/h and returns at 3 km/h. What is his average speed?", "3.75", "aptitude,time,speed,distance"),
+        aptitude("A boat's speed is 12 km/h upstream and 18 km/h downstream. What is the speed of the stream?", "3", "aptitude,time,speed,distance"),
+        aptitude("What is the average speed for a 240 km journey done in 4 hours?", "60", "aptitude,time,speed,distance"),
+        aptitude("How long will it take a train moving at 54 km/h to cover 270 km?", "5", "aptitude,time,speed,distance"),
+        aptitude("A biker travels 200 km at 25 km/h and returns at 40 km/h. What is the average speed for the round trip?", "30.77", "aptitude,time,speed,distance"),
+        aptitude("How long will it take to walk 20 km at 5 km/h?", "4", "aptitude,time,speed,distance"),
+        aptitude("If a runner covers 400 m in 50 seconds, what is his speed in km/h?", "28.8", "aptitude,time,speed,distance"),
+
+        // Profit & Loss
+        aptitude("If cost price is 100 and selling price is 120, what is the profit percent?", "20%", "aptitude,profit,loss"),
+        aptitude("If cost price is 200 and selling price is 150, what is the loss percent?", "25%", "aptitude,profit,loss"),
+        aptitude("A gain of 25% is made on cost price of 80. What is the selling price?", "100", "aptitude,profit,loss"),
+        aptitude("A seller sells at 10% loss and receives 180. What was the cost price?", "200", "aptitude,profit,loss"),
+        aptitude("On one item there is 20% gain and on another equal item 20% loss, both sold at cost price. What is the overall profit or loss percent?", "4% loss", "aptitude,profit,loss"),
+        aptitude("If cost price is 500 and profit is 12%, what is the selling price?", "560", "aptitude,profit,loss"),
+        aptitude("A trader marks goods at 10% above cost and allows a discount of 5%. What is the profit percent?", "4.5%", "aptitude,profit,loss"),
+        aptitude("If marked price is 1000 and discount is 20%, what is the selling price?", "800", "aptitude,profit,loss"),
+        aptitude("If marked price is 500 and successive discounts are 10% and 5%, what is the net selling price?", "427.5", "aptitude,profit,loss"),
+        aptitude("A trader uses 950g weight as 1kg. If he sells at cost price, what is his gain percent?", "5.26%", "aptitude,profit,loss"),
+
+        // Simple & Compound Interest
+        aptitude("What is the simple interest on 1000 at 5% per annum for 2 years?", "100", "aptitude,simple,compound interest"),
+        aptitude("What is the compound interest on 1000 at 10% per annum for 2 years?", "210", "aptitude,simple,compound interest"),
+        aptitude("What is the simple interest on 5000 at 8% per annum for 3 years?", "1200", "aptitude,simple,compound interest"),
+        aptitude("What is the compound interest on 1500 at 5% per annum for 3 years?", "236.44", "aptitude,simple,compound interest"),
+        aptitude("What principal yields 400 interest at 4% per annum in 5 years?", "2000", "aptitude,simple,compound interest"),
+        aptitude("What is the amount on 2000 at 10% simple interest for 3 years?", "2600", "aptitude,simple,compound interest"),
+        aptitude("What is the compound interest on 10000 at 12% for 1 year?", "1200", "aptitude,simple,compound interest"),
+        aptitude("What is the compound interest on 2000 at 5% p.a. compounded half-yearly for 1 year?", "101.25", "aptitude,simple,compound interest"),
+        aptitude("What is the amount on 5000 at 8% compound interest for 2 years?", "5832", "aptitude,simple,compound interest"),
+        aptitude("What is the effective annual rate for 12% nominal rate compounded monthly?", "12.68%", "aptitude,simple,compound interest"),
+
+        // Probability & Permutation
+        aptitude("What is the probability of getting a head when a fair coin is tossed?", "1/2", "aptitude,probability,permutation"),
+        aptitude("What is the probability of getting a sum of 7 when two dice are rolled?", "1/6", "aptitude,probability,permutation"),
+        aptitude("What is the probability of drawing a heart from a standard deck of 52 cards?", "1/4", "aptitude,probability,permutation"),
+        aptitude("What is the probability of drawing an ace from a standard deck of cards?", "1/13", "aptitude,probability,permutation"),
+        aptitude("In a bag of 5 red and 7 blue balls, what is the probability of drawing a red ball?", "5/12", "aptitude,probability,permutation"),
+        aptitude("What is the probability of getting exactly 2 heads in 3 tosses of a fair coin?", "3/8", "aptitude,probability,permutation"),
+        aptitude("How many permutations can be made from the letters ABC?", "6", "aptitude,probability,permutation"),
+        aptitude("How many ways can you choose 2 objects from 5?", "10", "aptitude,probability,permutation"),
+        aptitude("How many ways can 4 distinct books be arranged on a shelf?", "24", "aptitude,probability,permutation"),
+        aptitude("In how many ways can a committee of 3 be formed from 6 people?", "20", "aptitude,probability,permutation"),
+
+        // Ages & Mixtures
+        aptitude("John's age is twice Mary's and their sum is 36. How old is Mary?", "12", "aptitude,ages,mixtures"),
+        aptitude("A is 4 years older than B. After 6 years, their combined age will be 40. What is B's present age?", "12", "aptitude,ages,mixtures"),
+        aptitude("If the ages of A and B are in the ratio 3:4 and their sum is 35, what is A's age?", "15", "aptitude,ages,mixtures"),
+        aptitude("The ages of two siblings are in the ratio 5:7 and their sum is 96. How old is the younger sibling?", "40", "aptitude,ages,mixtures"),
+        aptitude("A's age is twice B's and the sum of their ages is 25. How old is B?", "5", "aptitude,ages,mixtures"),
+        aptitude("If A is thrice B and A is 21, what is B?", "7", "aptitude,ages,mixtures"),
+        aptitude("A mixture contains milk and water in the ratio 5:2 and the total volume is 280ml. How much milk is in the mixture?", "200ml", "aptitude,ages,mixtures"),
+        aptitude("You need to mix 20% and 50% acid solutions to get 35% acid. If you use 100ml of the 50% solution, how much 20% solution should you use?", "100ml", "aptitude,ages,mixtures"),
+        aptitude("A liquid mixture has water and milk in the ratio 3:1 and the total is 200ml. How much milk is there?", "50ml", "aptitude,ages,mixtures"),
+        aptitude("If water and milk are mixed in the ratio 2:3 to make 250ml, how much milk is there?", "150ml", "aptitude,ages,mixtures")
+    );
+
+    private static Question aptitude(String question, String answer, String keywords) {
+        return Question.shortAnswer(question, answer, keywords);
+    }
+}
@@ -64,8 +64,9 @@ public class MatchingTitlesScene {
         score = 0;
         questionMap = new HashMap<>();
 
-        // Load questions using your existing QuestionService.
-        List<Question> questions = QuestionService.loadQuestionsWithCache();
+        // Draw one round of questions from the store instead of loading the whole bank.
+        List<Question> questions = QuestionBank.snapshot()
+                .sample(PreferencesManager.getDifficultyQuestionBankNumbers(), new Random());
         totalPairs = questions.size(); // One Q–A pair per question.
 
         // Build a list of cards (question, answer, and distractor cards).
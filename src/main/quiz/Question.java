@@ -1,19 +1,25 @@
 package src.main.quiz;
 
+/**
+ * A question of any game mode. Instances are immutable and shared between scenes
+ * (see QuestionRepository), so the options array must not be modified.
+ */
 public class Question {
+    // The kind of question, which decides how it is asked.
+    private final QuestionType type;
     // The full text of the question.
-    private String questionText;
-    // Array of answer options (empty for code challenges).
-    private String[] options;
+    private final String questionText;
+    // Array of answer options (empty for code challenges, the expected answer alone for short answers).
+    private final String[] options;
     // The index of the correct answer in the options array (-1 for code challenges).
-    private int correctIndex;
+    private final int correctIndex;
     // Hint to help the user answer the question.
-    private String hint; // New field for the hint
+    private final String hint; // New field for the hint
     // New fields:
     // Keywords associated with the question (useful for searching or categorization).
-    private String keywords;
+    private final String keywords;
     // Explanation for the answer or additional information.
-    private String explanation;
+    private final String explanation;
     // The following field was for code challenges but is commented out:
     // private boolean isCodeChallenge; // false for MCQ; true for coding challenge
 
@@ -28,6 +34,12 @@ public class Question {
      * @param explanation   an explanation for the answer.
      */
     public Question(String questionText, String[] options, int correctIndex, String hint, String keywords, String explanation) {
+        this(QuestionType.MULTIPLE_CHOICE, questionText, options, correctIndex, hint, keywords, explanation);
+    }
+
+    private Question(QuestionType type, String questionText, String[] options, int correctIndex,
+                     String hint, String keywords, String explanation) {
+        this.type = type;
         this.questionText = questionText;
         this.options = options;
         this.correctIndex = correctIndex;
@@ -45,14 +57,25 @@ public class Question {
      * @param questionText the text of the coding challenge.
      */
     public Question(String questionText) {
-        this.questionText = questionText;
-        this.options = new String[0]; // No options for a code challenge.
-        this.correctIndex = -1;
-        this.hint = "";
-        this.keywords = "";
-        this.explanation = "";
+        this(QuestionType.CODING_CHALLENGE, questionText, new String[0], -1, "", "", "");
         // this.isCodeChallenge = true;
     }
+
+    /**
+     * Creates a question answered by typing one expected string (the retro runner's aptitude questions).
+     *
+     * @param questionText the text of the question.
+     * @param answer       the exact expected answer.
+     * @param keywords     keywords related to the question.
+     */
+    public static Question shortAnswer(String questionText, String answer, String keywords) {
+        return new Question(QuestionType.SHORT_ANSWER, questionText, new String[] { answer }, 0, "", keywords, "");
+    }
+
+    // Getter for the kind of question.
+    public QuestionType getType() {
+        return type;
+    }
     
     // Getter for the full question text.
     public String getQuestionText() {
@@ -69,6 +92,11 @@ public class Question {
         return correctIndex;
     }
     
+    // The text of the correct option, or null for code challenges.
+    public String getAnswer() {
+        return correctIndex >= 0 && correctIndex < options.length ? options[correctIndex] : null;
+    }
+    
     // Getter for the hint associated with the question.
     public String getHint() {
         return hint;
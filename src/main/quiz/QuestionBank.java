@@ -0,0 +1,169 @@
+package src.main.quiz;
+
+import src.main.api.JDoodleClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the question bank warm in the background so scenes never wait on the network.
+ * Started from VTUGamifiedQuizApp.start, it opens the local cache on a daemon thread, then syncs
+ * the bank with Supabase right away and every few minutes, and publishes the result as an immutable
+ * snapshot: the QuestionRepository every game mode draws its questions from. The remaining JDoodle
+ * credits, which also decide the shape of a quiz session, are refreshed on the same thread, before
+ * each sync.
+ * The full-text search index is built there too, the first time it is asked for, and rebuilt with
+ * every new snapshot after that.
+ */
+public class QuestionBank {
+    // How often the bank is synced after the first load.
+    private static final long REFRESH_MINUTES = 10;
+
+    private static ScheduledExecutorService executor;
+    // Latest published snapshot; replaced whole, never modified.
+    private static volatile QuestionRepository snapshot;
+    // The hardcoded questions, handed out until the local cache is open; built on first use.
+    private static volatile QuestionRepository hardcoded;
+    // Remaining JDoodle credits from the last refresh; -1 until known.
+    private static volatile int remainingCredits = -1;
+    // Search index of a recent snapshot; null until first asked for.
+    private static volatile QuestionSearchIndex searchIndex;
+    private static final Object INDEX_LOCK = new Object();
+    // Set while a refresh is queued or running, so repeated requests collapse into one.
+    private static final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    /**
+     * Starts warming the bank: the local cache is opened, then refreshed at once and every
+     * REFRESH_MINUTES.
+     * Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "question-bank");
+            // Must not keep the JVM alive after the window closes.
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Runs first, so scenes get the cached bank while the first sync is still on the network.
+        executor.execute(QuestionBank::openLocal);
+        executor.scheduleWithFixedDelay(QuestionBank::refreshIfIdle, 0, REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Returns the current snapshot without touching the network or the disk.
+     * Until the bank thread has opened the local cache, the hardcoded questions are returned, so a
+     * scene always gets questions immediately.
+     *
+     * @return the question repository; its bank is never empty.
+     */
+    public static QuestionRepository snapshot() {
+        QuestionRepository current = snapshot;
+        if (current != null) return current;
+        QuestionRepository fallback = hardcoded;
+        if (fallback == null) {
+            // Building it twice in a race is harmless.
+            fallback = new QuestionRepository(QuestionStore.of(QuestionService.initializeHardcodedQuestions()));
+            hardcoded = fallback;
+        }
+        return fallback;
+    }
+
+    /**
+     * Returns the remaining JDoodle credits as of the last refresh, or 0 while unknown
+     * (coding challenges are then left out, as when the credit check fails).
+     */
+    public static int getRemainingCredits() {
+        return Math.max(remainingCredits, 0);
+    }
+
+    /**
+     * Asks for a refresh on the background thread, e.g. when a session ends, so the next session
+     * sees recent data. Does nothing if a refresh is already queued or the bank was not started.
+     */
+    public static synchronized void refreshAsync() {
+        if (executor != null && refreshPending.compareAndSet(false, true)) {
+            executor.execute(QuestionBank::refresh);
+        }
+    }
+
+    /**
+     * Returns the search index of the current snapshot, building it in the background if it is
+     * missing or older than the snapshot. Never blocks the caller.
+     */
+    public static CompletableFuture<QuestionSearchIndex> searchIndex() {
+        QuestionSearchIndex index = searchIndex;
+        if (index != null && index.getRepository() == snapshot()) {
+            return CompletableFuture.completedFuture(index);
+        }
+        // Before start() (e.g. in benchmarks) there is no bank thread; use the common pool.
+        Executor background = executor != null ? executor : ForkJoinPool.commonPool();
+        return CompletableFuture.supplyAsync(QuestionBank::indexSnapshot, background);
+    }
+
+    // Builds the index of the current snapshot unless it exists; runs on a background thread.
+    // Its own lock: a build takes a while and must not hold up start() or refreshAsync() on the FX thread.
+    private static QuestionSearchIndex indexSnapshot() {
+        synchronized (INDEX_LOCK) {
+            QuestionRepository repository = snapshot();
+            QuestionSearchIndex index = searchIndex;
+            if (index == null || index.getRepository() != repository) {
+                long start = System.nanoTime();
+                index = QuestionSearchIndex.build(repository);
+                searchIndex = index;
+                System.out.println("Search index built: " + index.termCount() + " terms in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms.");
+            }
+            return index;
+        }
+    }
+
+    private static void refreshIfIdle() {
+        if (refreshPending.compareAndSet(false, true)) {
+            refresh();
+        }
+    }
+
+    // Publishes the local cache unless a refresh already has; runs on the background thread only.
+    private static void openLocal() {
+        try {
+            QuestionStore store = QuestionService.openLocalQuestionStore();
+            if (snapshot == null) {
+                snapshot = new QuestionRepository(store);
+            }
+        } catch (RuntimeException ex) {
+            // snapshot() keeps handing out the hardcoded questions until the first refresh.
+            ex.printStackTrace();
+        }
+    }
+
+    // Runs on the background thread only.
+    private static void refresh() {
+        try {
+            // Before the sync, which may take a while: until they are known no coding challenges are asked.
+            remainingCredits = JDoodleClient.getRemainingCredits();
+            QuestionStore store = QuestionService.openQuestionStore();
+            QuestionRepository current = snapshot;
+            // An unchanged bank keeps its repository and the questions already decoded.
+            if (current == null || current.getStore() != store) {
+                snapshot = new QuestionRepository(store);
+                // Once someone has searched, keep the index in step with the bank.
+                if (searchIndex != null) {
+                    indexSnapshot();
+                }
+            }
+            System.out.println("Question bank refreshed: " + snapshot.size() + " questions, "
+                    + remainingCredits + " JDoodle credits.");
+        } catch (RuntimeException ex) {
+            // Keep the previous snapshot; the next refresh tries again.
+            ex.printStackTrace();
+        } finally {
+            refreshPending.set(false);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package src.main.quiz;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Merges rows changed on the server into questions_cache.json by primary key ("id").
+ * The cache is streamed row by row into a new file: a row with a newer version in the delta is
+ * replaced, a row whose delta version is a tombstone (soft-delete flag set) is dropped, and delta rows
+ * not seen in the cache are appended. Only the delta and one cached row are in memory at a time.
+ * The result goes to a separate file, so the cache itself is only ever replaced whole.
+ */
+public class QuestionCacheMerge {
+    private static final String KEY = "id";
+    // Keeps explicit nulls so merged rows match what the server sent.
+    private static final Gson gson = new GsonBuilder().serializeNulls().create();
+
+    /**
+     * Writes the merged bank to outFile.
+     *
+     * @param cacheFile     the current cache (a JSON array of rows).
+     * @param changes       rows changed since the cache was written, tombstones included.
+     * @param deletedColumn name of the boolean soft-delete column, or null if the bank has none.
+     * @param outFile       receives the merged JSON array; flushed to disk before returning.
+     * @return the number of rows written.
+     * @throws IOException if the cache cannot be read or is not a JSON array of rows.
+     */
+    public static int merge(File cacheFile, JsonArray changes, String deletedColumn, File outFile) throws IOException {
+        // Delta rows by key, in server order; entries are removed as they replace a cached row.
+        Map<String, JsonObject> pending = new LinkedHashMap<>();
+        for (JsonElement change : changes) {
+            JsonObject row = change.getAsJsonObject();
+            if (row.has(KEY)) {
+                pending.put(row.get(KEY).toString(), row);
+            }
+        }
+
+        int written = 0;
+        try (FileOutputStream file = new FileOutputStream(outFile);
+             JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(cacheFile), StandardCharsets.UTF_8));
+             JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(file, StandardCharsets.UTF_8)))) {
+            writer.beginArray();
+            try {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    JsonElement cached = JsonParser.parseReader(reader);
+                    JsonElement key = cached.isJsonObject() ? cached.getAsJsonObject().get(KEY) : null;
+                    JsonObject replacement = key == null ? null : pending.remove(key.toString());
+                    JsonElement row = replacement != null ? replacement : cached;
+                    if (!isTombstone(row, deletedColumn)) {
+                        writeRow(writer, row);
+                        written++;
+                    }
+                }
+                reader.endArray();
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new IOException("Unexpected data after the cached questions");
+                }
+            } catch (IllegalStateException | JsonParseException ex) {
+                throw new IOException("Malformed question cache: " + ex.getMessage(), ex);
+            }
+            // Rows created since the last sync.
+            for (JsonObject row : pending.values()) {
+                if (!isTombstone(row, deletedColumn)) {
+                    writeRow(writer, row);
+                    written++;
+                }
+            }
+            writer.endArray();
+            writer.flush();
+            file.getFD().sync();
+        }
+        return written;
+    }
+
+    // True if the row carries the soft-delete flag.
+    private static boolean isTombstone(JsonElement row, String deletedColumn) {
+        if (deletedColumn == null || !row.isJsonObject()) return false;
+        JsonElement flag = row.getAsJsonObject().get(deletedColumn);
+        return flag != null && flag.isJsonPrimitive() && flag.getAsJsonPrimitive().isBoolean() && flag.getAsBoolean();
+    }
+
+    private static void writeRow(JsonWriter writer, JsonElement row) {
+        gson.toJson(row, writer);
+    }
+}
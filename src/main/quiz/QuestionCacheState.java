@@ -0,0 +1,95 @@
+package src.main.quiz;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * What is known about the server copy of the question bank that questions_cache.json was taken from.
+ * Stored as a properties file next to the cache so the next start can ask the server whether anything
+ * changed: the HTTP validators (ETag, Last-Modified) for a conditional GET, and, for servers that send
+ * neither, a watermark (highest value of a column such as updated_at, plus the row count).
+ */
+public class QuestionCacheState {
+    private static final String DIGEST = "digest";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String WATERMARK = "watermark";
+    private static final String ROW_COUNT = "rowCount";
+
+    private final Properties values = new Properties();
+
+    /**
+     * Reads the state saved next to a cache file.
+     *
+     * @return the saved state, or an empty state if there is none or it cannot be read.
+     */
+    public static QuestionCacheState load(File file) {
+        QuestionCacheState state = new QuestionCacheState();
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                state.values.load(in);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                state.values.clear();
+            }
+        }
+        return state;
+    }
+
+    // Writes the state to a temporary file and moves it into place.
+    public void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            values.store(out, "Question cache sync state");
+            out.getFD().sync();
+        }
+        moveIntoPlace(temp, file);
+    }
+
+    // Replaces target with source in one step where the file system allows it.
+    static void moveIntoPlace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // MD5 digest of the cache file contents.
+    public String getDigest() { return values.getProperty(DIGEST); }
+    public String getETag() { return values.getProperty(ETAG); }
+    public String getLastModified() { return values.getProperty(LAST_MODIFIED); }
+    public String getWatermark() { return values.getProperty(WATERMARK); }
+    public String getRowCount() { return values.getProperty(ROW_COUNT); }
+
+    public void setDigest(String digest) { set(DIGEST, digest); }
+    public void setETag(String etag) { set(ETAG, etag); }
+    public void setLastModified(String lastModified) { set(LAST_MODIFIED, lastModified); }
+
+    // Records the watermark and row count the cache corresponds to.
+    public void setWatermark(String watermark, String rowCount) {
+        set(WATERMARK, watermark);
+        set(ROW_COUNT, rowCount);
+    }
+
+    // True if the server sent an ETag or Last-Modified header for the cached copy.
+    public boolean hasValidators() {
+        return getETag() != null || getLastModified() != null;
+    }
+
+    private void set(String key, String value) {
+        if (value == null) {
+            values.remove(key);
+        } else {
+            values.setProperty(key, value);
+        }
+    }
+}
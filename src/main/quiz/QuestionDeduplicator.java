@@ -0,0 +1,238 @@
+package src.main.quiz;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Finds near-duplicate questions as they stream in, with MinHash signatures and LSH buckets.
+ * A question is described by the word pairs of its text plus its options, all lower-cased with
+ * punctuation dropped, so rewording a few words or changing case still counts as the same question.
+ * Each new question is compared only with the earlier questions that share one of its LSH
+ * buckets, which keeps the work near-linear in the bank size, and those candidates are confirmed
+ * with the exact similarity of their (hashed) descriptions.
+ * Used by QuestionStore while it builds, so merged banks do not show the same question twice.
+ */
+public class QuestionDeduplicator {
+    // 8 bands of 5 hashes: pairs above ~0.66 similarity are likely to share a bucket.
+    private static final int BANDS = 8;
+    private static final int ROWS = 5;
+    private static final int HASHES = BANDS * ROWS;
+    // Jaccard similarity from which two questions count as the same.
+    private static final double THRESHOLD = 0.8;
+    // Members compared per bucket. Templated banks ("What does statement 1 print?") fill some
+    // buckets with thousands of merely similar questions; later questions are not added to a full
+    // bucket, but they still meet their true duplicates in the other bands.
+    private static final int MAX_BUCKET_SIZE = 32;
+    private static final int[] SEEDS_A = new int[HASHES];
+    private static final int[] SEEDS_B = new int[HASHES];
+
+    static {
+        // Fixed seeds: the same bank always collapses the same way.
+        Random random = new Random(0x4D4F4B);
+        for (int i = 0; i < HASHES; i++) {
+            SEEDS_A[i] = random.nextInt() | 1;
+            SEEDS_B[i] = random.nextInt();
+        }
+    }
+
+    // Sorted shingle hashes of the kept questions; a few ints each, unlike a full signature.
+    private int[][] shingleHashes = new int[64][];
+    private int count = 0;
+    // LSH buckets in an open-addressing table keyed by band hash: a bucket's members are chained
+    // through next[], one entry (question * BANDS + band) per membership, newest first.
+    private long[] bucketKeys = new long[1024];
+    private int[] bucketHeads = new int[1024];
+    private int[] bucketSizes = new int[1024];
+    private int bucketCount = 0;
+    private int[] next = new int[64 * BANDS];
+    // Last question each kept question was compared with, so a candidate found in several bands is compared once.
+    private int[] lastCompared = new int[64];
+    private int duplicates = 0;
+
+    /**
+     * Checks a question against the questions kept so far, and keeps it unless it is a near-duplicate.
+     *
+     * @return -1 if the question was kept; otherwise the number of the kept question it duplicates
+     *         (questions are numbered in the order they were kept).
+     */
+    public int add(Question question) {
+        int[] hashes = shingleHashesOf(question);
+        if (hashes.length == 0) {
+            // Nothing to compare; keep it without remembering it.
+            return -1;
+        }
+        int[] signature = signatureOf(hashes);
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int r = 0; r < ROWS; r++) {
+                key = key * 0x9E3779B97F4A7C15L + signature[band * ROWS + r];
+            }
+            keys[band] = key;
+            int slot = slotOf(key);
+            for (int entry = bucketHeads[slot] - 1; entry >= 0; entry = next[entry] - 1) {
+                int candidate = entry / BANDS;
+                if (lastCompared[candidate] == count + 1) continue;
+                lastCompared[candidate] = count + 1;
+                if (jaccard(hashes, shingleHashes[candidate]) >= THRESHOLD) {
+                    duplicates++;
+                    return candidate;
+                }
+            }
+        }
+        if (count == shingleHashes.length) {
+            shingleHashes = Arrays.copyOf(shingleHashes, count * 2);
+            lastCompared = Arrays.copyOf(lastCompared, count * 2);
+            next = Arrays.copyOf(next, count * 2 * BANDS);
+        }
+        shingleHashes[count] = hashes;
+        for (int band = 0; band < BANDS; band++) {
+            // Looked up again: two new bands may have probed the same empty slot above.
+            int slot = slotOf(keys[band]);
+            if (bucketSizes[slot] == MAX_BUCKET_SIZE) continue;
+            if (bucketSizes[slot]++ == 0) bucketCount++;
+            int entry = count * BANDS + band;
+            next[entry] = bucketHeads[slot];
+            bucketHeads[slot] = entry + 1;
+        }
+        count++;
+        // Keep the table at most half full.
+        if (bucketCount * 2 > bucketKeys.length) {
+            growBuckets();
+        }
+        return -1;
+    }
+
+    // Slot of a band hash in the bucket table: where it is, or the empty slot where it goes.
+    private int slotOf(long key) {
+        int mask = bucketKeys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (bucketSizes[slot] != 0 && bucketKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        bucketKeys[slot] = key;
+        return slot;
+    }
+
+    private void growBuckets() {
+        long[] oldKeys = bucketKeys;
+        int[] oldHeads = bucketHeads;
+        int[] oldSizes = bucketSizes;
+        bucketKeys = new long[oldKeys.length * 2];
+        bucketHeads = new int[oldKeys.length * 2];
+        bucketSizes = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSizes[i] == 0) continue;
+            int slot = slotOf(oldKeys[i]);
+            bucketHeads[slot] = oldHeads[i];
+            bucketSizes[slot] = oldSizes[i];
+        }
+    }
+
+    // Number of questions collapsed so far.
+    public int getDuplicateCount() {
+        return duplicates;
+    }
+
+    // Jaccard similarity of two sorted sets of hashes.
+    private static double jaccard(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    /**
+     * Sorted, distinct hashes of the question's shingles: the word pairs of its text (the word itself
+     * for a one-word text) and each whole option. Words are runs of letters and digits, lower-cased,
+     * and are hashed straight from the characters rather than copied into strings.
+     */
+    private static int[] shingleHashesOf(Question question) {
+        int[] words = new int[16];
+        int textWords = wordHashes(question.getQuestionText(), words, 0);
+        if (textWords > words.length) {
+            words = new int[textWords];
+            wordHashes(question.getQuestionText(), words, 0);
+        }
+        String[] options = question.getOptions();
+        int[] hashes = new int[Math.max(textWords - 1, 1) + options.length];
+        int n = 0;
+        if (textWords == 1) {
+            hashes[n++] = words[0];
+        }
+        for (int i = 1; i < textWords; i++) {
+            hashes[n++] = mix(words[i - 1] * 0x9E3779B1 + words[i]);
+        }
+        for (String option : options) {
+            // Seeded differently from word pairs, so an option never equals a pair of the text.
+            int hash = wordHashes(option, null, 0x01000193);
+            if (hash != 0x01000193) hashes[n++] = hash;
+        }
+        Arrays.sort(hashes, 0, n);
+        int distinct = 0;
+        for (int j = 0; j < n; j++) {
+            if (distinct == 0 || hashes[j] != hashes[distinct - 1]) hashes[distinct++] = hashes[j];
+        }
+        return Arrays.copyOf(hashes, distinct);
+    }
+
+    /**
+     * Hashes the words of a text. With an array, stores as many word hashes as fit and returns the
+     * number of words; without one, returns the hash of the whole word sequence starting from seed
+     * (seed itself for a text without words).
+     */
+    private static int wordHashes(String text, int[] out, int seed) {
+        if (text == null) return out != null ? 0 : seed;
+        int words = 0, combined = seed, word = 0;
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word = 31 * word + Character.toLowerCase(c);
+                inWord = true;
+            } else if (inWord) {
+                if (out == null) {
+                    combined = mix(combined * 0x9E3779B1 + word);
+                } else if (words < out.length) {
+                    out[words] = word;
+                }
+                words++;
+                word = 0;
+                inWord = false;
+            }
+        }
+        return out != null ? words : combined;
+    }
+
+    // MinHash signature of a set of shingle hashes.
+    private static int[] signatureOf(int[] hashes) {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int hash : hashes) {
+            for (int i = 0; i < HASHES; i++) {
+                int h = mix(hash * SEEDS_A[i] + SEEDS_B[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    // Murmur3 finalizer: spreads a linear hash over all bits.
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,263 @@
+package src.main.quiz;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * All the questions of the game, shared by the quiz, matching, fighting and runner modes.
+ * Multiple-choice questions come from one question bank snapshot (a memory-mapped QuestionStore);
+ * coding challenges and the runner's short-answer questions are built in.
+ * A bank question is decoded the first time it is asked for and then kept, so each one is parsed
+ * once per process. Options, hints and keywords repeat across questions ("True", "False", topic
+ * lists...) and are interned, so equal values share one String. A repository never changes;
+ * QuestionBank replaces it whole when the bank changes.
+ */
+public class QuestionRepository {
+    private final QuestionStore store;
+    // Decoded bank questions by index; filled lazily, possibly from several threads.
+    private final AtomicReferenceArray<Question> decoded;
+    private final Map<String, String> interned = new ConcurrentHashMap<>();
+    // Topics by frequency; computed on first use.
+    private volatile Map<String, Integer> topics;
+
+    /**
+     * @param store the question bank snapshot; must not be empty.
+     */
+    public QuestionRepository(QuestionStore store) {
+        this.store = store;
+        this.decoded = new AtomicReferenceArray<>(store.size());
+    }
+
+    // The snapshot this repository reads from.
+    QuestionStore getStore() {
+        return store;
+    }
+
+    // Number of multiple-choice questions in the bank.
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Returns a bank question, decoding it on first use.
+     *
+     * @param index 0 to size() - 1.
+     */
+    public Question get(int index) {
+        Question question = decoded.get(index);
+        if (question == null) {
+            Question raw = store.get(index);
+            String[] options = raw.getOptions();
+            for (int i = 0; i < options.length; i++) {
+                options[i] = intern(options[i]);
+            }
+            question = new Question(raw.getQuestionText(), options, raw.getCorrectIndex(),
+                    intern(raw.getHint()), intern(raw.getKeywords()), raw.getExplanation());
+            // Two threads may decode the same question; both copies are equal, keep the first.
+            if (!decoded.compareAndSet(index, null, question)) {
+                question = decoded.get(index);
+            }
+        }
+        return question;
+    }
+
+    /**
+     * Picks k distinct multiple-choice questions from the bank uniformly at random.
+     *
+     * @return at most k questions in random order, in a list the caller may modify.
+     */
+    public List<Question> sample(int k, Random random) {
+        return sample(QuestionType.MULTIPLE_CHOICE, k, random);
+    }
+
+    /**
+     * Picks k distinct questions of one type uniformly at random.
+     *
+     * @return at most k questions in random order, in a list the caller may modify.
+     */
+    public List<Question> sample(QuestionType type, int k, Random random) {
+        if (type != QuestionType.MULTIPLE_CHOICE) {
+            return QuestionSampler.sample(builtIn(type), k, random);
+        }
+        List<Question> questions = new ArrayList<>();
+        for (int index : store.sampleIndexes(k, random)) {
+            questions.add(get(index));
+        }
+        return questions;
+    }
+
+    /**
+     * Samples one quiz session, stratified: exactly the requested number of multiple-choice
+     * questions and of coding challenges, mixed in random order. The multiple-choice questions are
+     * the ones the player's statistics want most (QuestionStats.choose) out of a random candidate
+     * pool, half of which comes from the focus keywords. Costs O(session size), not O(bank size).
+     *
+     * @param stats the player's statistics, or null for a plain random sample.
+     * @return at most multipleChoice + codingChallenges questions, in a list the caller may modify.
+     */
+    public List<Question> sampleSession(int multipleChoice, int codingChallenges,
+                                        Collection<String> focusKeywords, QuestionStats stats, Random random) {
+        int candidates = stats == null ? multipleChoice : multipleChoice * QuestionStats.CANDIDATES_PER_PICK;
+        List<Question> session = sampleFocused(candidates, focusKeywords, candidates / 2, random);
+        if (stats != null) {
+            session = stats.choose(session, multipleChoice);
+        }
+        session.addAll(sample(QuestionType.CODING_CHALLENGE, codingChallenges, random));
+        // Mixes the two strata; a shuffle of the session only.
+        if (codingChallenges > 0) {
+            Collections.shuffle(session, random);
+        }
+        return session;
+    }
+
+    /**
+     * Returns every question of one type. For multiple-choice questions this decodes the whole bank;
+     * prefer sample or withKeyword.
+     */
+    public List<Question> ofType(QuestionType type) {
+        if (type != QuestionType.MULTIPLE_CHOICE) {
+            return builtIn(type);
+        }
+        List<Question> questions = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            questions.add(get(i));
+        }
+        return questions;
+    }
+
+    /**
+     * Returns the bank questions tagged with a keyword, in bank order.
+     *
+     * @param keyword compared case-insensitively and without surrounding spaces.
+     */
+    public List<Question> withKeyword(String keyword) {
+        List<Question> questions = new ArrayList<>();
+        for (int index : store.indexesWithKeyword(keyword)) {
+            questions.add(get(index));
+        }
+        return questions;
+    }
+
+    /**
+     * Samples k questions tagged with a keyword, for practising one topic. Costs O(k).
+     *
+     * @return at most k questions in random order; empty if no question has the keyword.
+     */
+    public List<Question> sampleWithKeyword(String keyword, int k, Random random) {
+        Set<Integer> chosen = new LinkedHashSet<>();
+        pickFocused(List.of(keyword), k, random, chosen);
+        List<Question> questions = new ArrayList<>(chosen.size());
+        for (int index : chosen) {
+            questions.add(get(index));
+        }
+        return questions;
+    }
+
+    /**
+     * Samples k bank questions, up to focusCount of them tagged with one of the focus keywords
+     * (e.g. the topics of recent wrong answers) and the rest uniformly from the whole bank.
+     *
+     * @return min(k, size()) distinct questions in random order.
+     */
+    public List<Question> sampleFocused(int k, Collection<String> focusKeywords, int focusCount, Random random) {
+        k = Math.min(k, size());
+        Set<Integer> chosen = new LinkedHashSet<>();
+        pickFocused(focusKeywords, Math.min(focusCount, k), random, chosen);
+        // k distinct indexes overlap the focus picks at most focusCount times, so this always fills up.
+        for (int index : store.sampleIndexes(k, random)) {
+            if (chosen.size() == k) break;
+            chosen.add(index);
+        }
+        List<Question> questions = new ArrayList<>(k);
+        for (int index : chosen) {
+            questions.add(get(index));
+        }
+        Collections.shuffle(questions, random);
+        return questions;
+    }
+
+    /**
+     * The bank's topics (keywords) with the number of questions for each, most common first.
+     * Computed on first use from the store's keyword directory.
+     */
+    public Map<String, Integer> topics() {
+        Map<String, Integer> result = topics;
+        if (result == null) {
+            List<Integer> positions = new ArrayList<>();
+            for (int i = 0; i < store.keywordCount(); i++) {
+                positions.add(i);
+            }
+            // The directory is already sorted by name, and the sort is stable.
+            positions.sort((a, b) -> Integer.compare(store.keywordFrequency(b), store.keywordFrequency(a)));
+            result = new LinkedHashMap<>();
+            for (int position : positions) {
+                result.put(store.keywordAt(position), store.keywordFrequency(position));
+            }
+            result = Collections.unmodifiableMap(result);
+            topics = result;
+        }
+        return result;
+    }
+
+    /**
+     * Adds up to n distinct indexes tagged with any of the keywords to chosen.
+     * Picks are drawn straight from the postings of the store, so the cost is O(n) however many
+     * questions carry the keywords; a question with two of the keywords is twice as likely.
+     * Small pools, where repeated draws would keep hitting chosen questions, are shuffled instead.
+     */
+    private void pickFocused(Collection<String> keywords, int n, Random random, Set<Integer> chosen) {
+        int[] positions = new int[keywords.size()];
+        int lists = 0, total = 0;
+        for (String keyword : keywords) {
+            int position = store.keywordPosition(keyword);
+            if (position >= 0) {
+                positions[lists++] = position;
+                total += store.keywordFrequency(position);
+            }
+        }
+        if (n <= 0 || total == 0) return;
+        if (total <= 4 * n) {
+            List<Integer> pool = new ArrayList<>(total);
+            for (int l = 0; l < lists; l++) {
+                for (int i = 0; i < store.keywordFrequency(positions[l]); i++) {
+                    pool.add(store.keywordIndexAt(positions[l], i));
+                }
+            }
+            Collections.shuffle(pool, random);
+            for (int index : pool) {
+                if (chosen.size() == n) break;
+                chosen.add(index);
+            }
+            return;
+        }
+        // With more than 4n postings most draws hit a new question; the attempt limit only matters
+        // when the keywords overlap on a few questions.
+        for (int attempts = 0; chosen.size() < n && attempts < 8 * n; attempts++) {
+            int r = random.nextInt(total);
+            int l = 0;
+            while (r >= store.keywordFrequency(positions[l])) {
+                r -= store.keywordFrequency(positions[l++]);
+            }
+            chosen.add(store.keywordIndexAt(positions[l], r));
+        }
+    }
+
+    private static List<Question> builtIn(QuestionType type) {
+        return type == QuestionType.CODING_CHALLENGE ? BuiltInQuestions.CODING_CHALLENGES : BuiltInQuestions.APTITUDE;
+    }
+
+    private String intern(String value) {
+        if (value == null) return null;
+        String existing = interned.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
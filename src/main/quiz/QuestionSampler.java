@@ -0,0 +1,48 @@
+package src.main.quiz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Random sampling in O(k): picking k items never copies or shuffles the whole list they come from.
+ * Used for every session a game mode draws, from a bank of 10 questions or of 100k.
+ */
+public class QuestionSampler {
+
+    /**
+     * Picks k distinct indexes from 0 to n - 1 uniformly at random.
+     * A partial Fisher-Yates shuffle over a virtual array 0..n-1: only the swapped slots are
+     * stored, so it takes O(k) time and space whatever n is.
+     *
+     * @return min(k, n) indexes in random order.
+     */
+    public static int[] sampleIndexes(int n, int k, Random random) {
+        k = Math.max(0, Math.min(k, n));
+        int[] picked = new int[k];
+        // Slots of the virtual array that no longer hold their own index.
+        Map<Integer, Integer> swapped = new HashMap<>(2 * k);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            picked[i] = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+        }
+        return picked;
+    }
+
+    /**
+     * Picks k distinct items of a list uniformly at random, reading only the picked positions.
+     *
+     * @return min(k, items.size()) items in random order, in a list the caller may modify.
+     */
+    public static <T> List<T> sample(List<T> items, int k, Random random) {
+        int[] indexes = sampleIndexes(items.size(), k, random);
+        List<T> picked = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            picked.add(items.get(index));
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,278 @@
+package src.main.quiz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text index over the bank questions of one QuestionRepository, ranked with BM25.
+ * Indexes the question text, options, hint and explanation. Tokens are runs of letters and digits,
+ * lower-cased. Each term's postings are the matching question indexes with their term frequency,
+ * stored as delta-encoded varints in one byte array, so 100k questions take a few MB.
+ * An index never changes; QuestionBank builds a new one in the background when the bank changes.
+ */
+public class QuestionSearchIndex {
+    // BM25 parameters; the usual defaults.
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // Shortest last word expanded as a prefix while typing, and the most terms it expands to.
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    /** One search result. */
+    public static class Match {
+        private final Question question;
+        private final int index;
+        private final float score;
+
+        Match(Question question, int index, float score) {
+            this.question = question;
+            this.index = index;
+            this.score = score;
+        }
+
+        public Question getQuestion() {
+            return question;
+        }
+
+        // Position of the question in the repository it was found in.
+        public int getIndex() {
+            return index;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private final QuestionRepository repository;
+    // Sorted, so prefixes are a contiguous range.
+    private final String[] terms;
+    private final byte[][] postings;
+    private final int[] documentFrequency;
+    private final int[] documentLength;
+    private final float averageLength;
+
+    private QuestionSearchIndex(QuestionRepository repository, String[] terms, byte[][] postings,
+                                int[] documentFrequency, int[] documentLength) {
+        this.repository = repository;
+        this.terms = terms;
+        this.postings = postings;
+        this.documentFrequency = documentFrequency;
+        this.documentLength = documentLength;
+        long total = 0;
+        for (int length : documentLength) {
+            total += length;
+        }
+        this.averageLength = documentLength.length == 0 ? 1 : Math.max(1, (float) total / documentLength.length);
+    }
+
+    /**
+     * Indexes every bank question of a repository. Reads the questions straight from the store, so
+     * the repository does not keep the whole bank decoded afterwards. Takes a while on large banks;
+     * call it off the FX thread.
+     */
+    public static QuestionSearchIndex build(QuestionRepository repository) {
+        QuestionStore store = repository.getStore();
+        Map<String, PostingsWriter> writers = new HashMap<>();
+        int[] documentLength = new int[store.size()];
+        List<String> tokens = new ArrayList<>();
+        for (int doc = 0; doc < store.size(); doc++) {
+            Question question = store.get(doc);
+            tokens.clear();
+            tokenize(question.getQuestionText(), tokens);
+            for (String option : question.getOptions()) {
+                tokenize(option, tokens);
+            }
+            tokenize(question.getHint(), tokens);
+            tokenize(question.getExplanation(), tokens);
+            documentLength[doc] = tokens.size();
+            // Sorted, equal tokens are adjacent and each run is one posting.
+            tokens.sort(null);
+            for (int i = 0; i < tokens.size(); ) {
+                int j = i + 1;
+                while (j < tokens.size() && tokens.get(j).equals(tokens.get(i))) j++;
+                writers.computeIfAbsent(tokens.get(i), t -> new PostingsWriter()).add(doc, j - i);
+                i = j;
+            }
+        }
+        String[] terms = writers.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        byte[][] postings = new byte[terms.length][];
+        int[] documentFrequency = new int[terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            PostingsWriter writer = writers.get(terms[t]);
+            postings[t] = Arrays.copyOf(writer.bytes, writer.length);
+            documentFrequency[t] = writer.count;
+        }
+        return new QuestionSearchIndex(repository, terms, postings, documentFrequency, documentLength);
+    }
+
+    // The repository whose questions this index covers.
+    public QuestionRepository getRepository() {
+        return repository;
+    }
+
+    // Number of distinct terms.
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * Finds the questions best matching a query, for search-as-you-type: unless the query ends with
+     * a space, its last word also matches longer terms starting with it ("recur" finds "recursion").
+     *
+     * @param limit the most results to return.
+     * @return matches by descending BM25 score; empty for a blank query.
+     */
+    public List<Match> search(String query, int limit) {
+        List<String> words = new ArrayList<>();
+        tokenize(query, words);
+        if (words.isEmpty() || limit <= 0) return new ArrayList<>();
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        float[] scores = new float[documentLength.length];
+        // Questions with a score, so the ranking does not scan the whole bank.
+        int[] scored = new int[16];
+        int scoredCount = 0;
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            int first = Arrays.binarySearch(terms, word);
+            int last;
+            if (w == words.size() - 1 && lastIsPrefix && word.length() >= MIN_PREFIX_LENGTH) {
+                if (first < 0) first = -first - 1;
+                last = first;
+                while (last < terms.length && last - first < MAX_PREFIX_TERMS && terms[last].startsWith(word)) last++;
+            } else {
+                if (first < 0) continue;
+                last = first + 1;
+            }
+            for (int t = first; t < last; t++) {
+                float idf = idf(documentFrequency[t]);
+                byte[] bytes = postings[t];
+                int pos = 0, doc = 0;
+                while (pos < bytes.length) {
+                    int value = 0, shift = 0, b;
+                    do {
+                        b = bytes[pos++];
+                        value |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    doc += value;
+                    int frequency = 0;
+                    shift = 0;
+                    do {
+                        b = bytes[pos++];
+                        frequency |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    if (scores[doc] == 0) {
+                        if (scoredCount == scored.length) scored = Arrays.copyOf(scored, scoredCount * 2);
+                        scored[scoredCount++] = doc;
+                    }
+                    float norm = K1 * (1 - B + B * documentLength[doc] / averageLength);
+                    scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+        }
+
+        // Keep the best `limit` in a min-heap of question indexes; most candidates lose against its
+        // root without touching the heap.
+        int[] heap = new int[Math.min(limit, scoredCount)];
+        int size = 0;
+        for (int i = 0; i < scoredCount; i++) {
+            int doc = scored[i];
+            if (size < heap.length) {
+                heap[size++] = doc;
+                siftUp(heap, size - 1, scores);
+            } else if (better(doc, heap[0], scores)) {
+                heap[0] = doc;
+                siftDown(heap, size, scores);
+            }
+        }
+        Match[] matches = new Match[size];
+        while (size > 0) {
+            int doc = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores);
+            matches[size] = new Match(repository.get(doc), doc, scores[doc]);
+        }
+        return new ArrayList<>(Arrays.asList(matches));
+    }
+
+    // Higher score first; on a tie the earlier question, so results are stable.
+    private static boolean better(int a, int b, float[] scores) {
+        return scores[a] != scores[b] ? scores[a] > scores[b] : a < b;
+    }
+
+    private static void siftUp(int[] heap, int i, float[] scores) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!better(heap[parent], heap[i], scores)) break;
+            int swap = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = swap;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, float[] scores) {
+        int i = 0;
+        while (true) {
+            int worst = i, left = 2 * i + 1, right = left + 1;
+            if (left < size && better(heap[worst], heap[left], scores)) worst = left;
+            if (right < size && better(heap[worst], heap[right], scores)) worst = right;
+            if (worst == i) break;
+            int swap = heap[worst];
+            heap[worst] = heap[i];
+            heap[i] = swap;
+            i = worst;
+        }
+    }
+
+    // Always positive, so a question that matched has a non-zero score.
+    private float idf(int frequency) {
+        return (float) Math.log(1 + (documentLength.length - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    // Appends the lower-cased runs of letters and digits of text to tokens.
+    static void tokenize(String text, List<String> tokens) {
+        if (text == null) return;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+    }
+
+    // Postings of one term while building: (question index gap, term frequency) varint pairs.
+    private static class PostingsWriter {
+        byte[] bytes = new byte[8];
+        int length;
+        int count;
+        int lastDoc;
+
+        void add(int doc, int frequency) {
+            writeVarint(doc - lastDoc);
+            writeVarint(frequency);
+            lastDoc = doc;
+            count++;
+        }
+
+        private void writeVarint(int value) {
+            if (length + 5 > bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+}
@@ -4,28 +4,35 @@ import java.util.Properties;
 import src.main.config.ConfigLoader;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.function.Consumer;
 
 public class QuestionService {
     // Declare the variables
     private static final String QUESTIONBANK_API_URL;
     private static final String SUPABASE_API_KEY;
+    private static final String QUESTIONBANK_WATERMARK_COLUMN;
+    private static final String QUESTIONBANK_DELETED_COLUMN;
 
     // Initialize them in the static block
     static {
@@ -34,6 +41,10 @@ public class QuestionService {
         QUESTIONBANK_API_URL = config.getProperty("SUPABASE_API_QUESTIONBANK_URL");
         // Supabase API key used for authentication.
         SUPABASE_API_KEY = config.getProperty("SUPABASE_API_KEY");
+        // Optional column (e.g. updated_at) whose highest value changes whenever the bank does.
+        QUESTIONBANK_WATERMARK_COLUMN = config.getProperty("SUPABASE_QUESTIONBANK_WATERMARK_COLUMN");
+        // Optional boolean soft-delete column; deleted rows stay in the table as tombstones.
+        QUESTIONBANK_DELETED_COLUMN = config.getProperty("SUPABASE_QUESTIONBANK_DELETED_COLUMN");
     }    
     // HttpClient instance for sending HTTP requests.
     private static HttpClient httpClient = HttpClient.newHttpClient();
@@ -42,163 +53,374 @@ public class QuestionService {
 
     private static String baseDir = System.getProperty("user.dir");
     
+    // How far before the stored timestamp watermark the changed-rows query starts, to catch rows
+    // committed after a later one was read.
+    static final long SYNC_OVERLAP_SECONDS = 300;
+
+    // Location of the local question cache, relative to the working directory.
+    private static final String CACHE_PATH = "resources/questions/questions_cache.json";
+    // Sync state of the cache (HTTP validators, watermark, digest), stored next to it.
+    private static final String STATE_PATH = "resources/questions/questions_cache.state";
+    // Mapped binary copy of the cache, reused until the cache file changes.
+    private static QuestionStore questionStore;
+    // Held while the cache is synced with Supabase.
+    private static final Object SYNC_LOCK = new Object();
+
     /**
      * Loads questions using a cache mechanism.
-     * It first loads cached questions from a local JSON file, computes their hash,
-     * then fetches remote questions from Supabase and compares hashes.
-     * If the remote questions differ, the cache is updated.
-     * Finally, the remote questions (or cached questions as fallback) are converted into Question objects.
+     * The cache is first brought up to date with Supabase (see syncCache); if that did not hand over
+     * the new bank, the questions are streamed from the cache. If there is no usable cache either,
+     * the hardcoded questions are used.
      *
-     * @return a shuffled list of Question objects.
+     * @return the questions in bank order; sample a session with QuestionSampler rather than
+     *         shuffling the whole list.
      */
     public static List<Question> loadQuestionsWithCache() {
         List<Question> questionList = new ArrayList<>();
+        if (syncCache(questionList::add)) {
+            System.out.println("Remote questions count: " + questionList.size());
+        } else {
+            // Drop whatever a failed download delivered and fall back to the cached questions.
+            questionList.clear();
+            loadCachedQuestions(new File(baseDir, CACHE_PATH), questionList);
+            System.out.println("Cached questions count: " + questionList.size());
+        }
+        // If no questions were loaded, fall back to hardcoded questions.
+        if (questionList.isEmpty()) {
+            System.out.println("No questions loaded. Falling back to hardcoded questions.");
+            questionList = initializeHardcodedQuestions();
+        }
+        return questionList;
+    }
+
+    /**
+     * Syncs the cache like loadQuestionsWithCache and returns the bank as a memory-mapped
+     * QuestionStore, so callers decode only the questions they use instead of the whole bank.
+     * Blocks on the network; scenes should use QuestionBank.snapshot() instead.
+     *
+     * @return the question store; never empty.
+     */
+    public static QuestionStore openQuestionStore() {
+        // The store is rebuilt from the cache file, so the questions of a download are not needed here.
+        syncCache(question -> { });
+        return openLocalQuestionStore();
+    }
+
+    /**
+     * Returns the local cache as a QuestionStore without contacting Supabase.
+     * The store is rebuilt only when the cache file changed; otherwise the open store is reused.
+     * Falls back to an in-memory store of the hardcoded questions if there is no usable cache.
+     *
+     * @return the question store; never empty.
+     */
+    public static synchronized QuestionStore openLocalQuestionStore() {
+        File cacheFile = new File(baseDir, CACHE_PATH);
+        if (questionStore == null || !questionStore.isBuiltFrom(cacheFile)) {
+            questionStore = null;
+            if (cacheFile.exists()) {
+                try {
+                    questionStore = QuestionStore.openFor(cacheFile, QuestionStore.storeFileFor(cacheFile));
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+        if (questionStore == null || questionStore.size() == 0) {
+            System.out.println("No questions loaded. Falling back to hardcoded questions.");
+            return QuestionStore.of(initializeHardcodedQuestions());
+        }
+        return questionStore;
+    }
+
+    /**
+     * Brings the local cache up to date with Supabase.
+     * The request to Supabase is conditional: it carries the ETag / Last-Modified of the cached copy,
+     * or, when the server sends neither, is preceded by a one-row watermark query. An unchanged bank
+     * therefore costs a 304 or a tiny response and nothing is parsed.
+     * With a watermark, a changed bank is synced incrementally: only the rows changed since the last
+     * sync are fetched and merged into the cache by id, tombstones removing deleted rows. Otherwise
+     * the bank is streamed straight into Question objects while it is copied to a temporary file and
+     * its MD5 digest is computed. Either way the new cache is written to a temporary file and moved
+     * over the old one, so a crash never leaves a partial cache.
+     *
+     * @param sink receives the questions of a newly downloaded or merged bank.
+     * @return true if the sink received the whole current bank; false if the bank is unchanged or
+     *         the request failed, in which case the caller should read the cache.
+     */
+    private static boolean syncCache(Consumer<Question> sink) {
+        // The background refresh and a direct load must not share the download file.
+        synchronized (SYNC_LOCK) {
+            return syncCacheLocked(sink);
+        }
+    }
+
+    private static boolean syncCacheLocked(Consumer<Question> sink) {
+        File cacheFile = new File(baseDir, CACHE_PATH);
+        File stateFile = new File(baseDir, STATE_PATH);
+        File downloadFile = new File(baseDir, CACHE_PATH + ".download");
         try {
-            // Load questions from the local cache.
-            JsonArray cachedQuestions = loadCachedQuestions();
-            String cachedHash = computeHash(cachedQuestions.toString());
-            System.out.println("Cached questions count: " + cachedQuestions.size());
-            
-            // Fetch questions from Supabase.
-            JsonArray remoteQuestions = fetchQuestionsFromSupabase();
-            if (remoteQuestions == null) remoteQuestions = cachedQuestions;
-            String remoteHash = computeHash(remoteQuestions.toString());
-            System.out.println("Remote questions count: " + remoteQuestions.size());
-            
+            boolean haveCache = cacheFile.exists();
+            QuestionCacheState state = haveCache ? QuestionCacheState.load(stateFile) : new QuestionCacheState();
+
+            // Fetch questions from Supabase, parsing and saving them in one pass.
+            FetchResult result = fetchQuestionsFromSupabase(state, cacheFile, downloadFile, sink);
+            if (result == FetchResult.NOT_MODIFIED) {
+                System.out.println("Cached questions are up-to-date.");
+                return false;
+            } else if (result == FetchResult.FAILED) {
+                // Keep the cache as it is.
+                return false;
+            }
+            String cachedHash = state.getDigest();
+            if (cachedHash == null) {
+                cachedHash = haveCache ? QuestionStreamParser.digest(cacheFile) : "";
+            }
             // If the remote hash differs, update the cache.
-            if (!remoteHash.equals(cachedHash)) {
-                saveQuestionsToCache(remoteQuestions);
+            if (!result.digest.equals(cachedHash)) {
+                QuestionCacheState.moveIntoPlace(downloadFile, cacheFile);
                 System.out.println("Cache updated with remote questions.");
             } else {
                 System.out.println("Cached questions are up-to-date.");
             }
-            
-            // Convert the JSON array into Question objects.
-            for (int i = 0; i < remoteQuestions.size(); i++) {
-                JsonObject obj = remoteQuestions.get(i).getAsJsonObject();
-                // Check that required fields exist.
-                if (obj.get("question") == null ||
-                    obj.get("optionA") == null ||
-                    obj.get("optionB") == null ||
-                    obj.get("optionC") == null ||
-                    obj.get("optionD") == null ||
-                    obj.get("correctOption") == null) {
-                    System.out.println("Skipping question at index " + i + " due to missing field.");
-                    continue;
-                }
-                // Extract fields from the JSON object.
-                String qText = obj.get("question").getAsString();
-                String optionA = obj.get("optionA").getAsString();
-                String optionB = obj.get("optionB").getAsString();
-                String optionC = obj.get("optionC").getAsString();
-                String optionD = obj.get("optionD").getAsString();
-                int correct = obj.get("correctOption").getAsInt();
-                // Get the hint if provided; default to empty string.
-                String hint = obj.has("hint") ? obj.get("hint").getAsString() : "";    
-                // New fields: keywords and explanation.
-                String keywords = obj.has("keywords") ? obj.get("keywords").getAsString() : "";
-                String explanation = obj.has("explanation") ? obj.get("explanation").getAsString() : "";
-                            
-                // Create a new Question object and add it to the list.
-                questionList.add(new Question(qText, new String[]{optionA, optionB, optionC, optionD}, correct, hint, keywords, explanation));
-            }
+            state.setDigest(result.digest);
+            state.setETag(result.etag);
+            state.setLastModified(result.lastModified);
+            state.setWatermark(result.watermark, result.rowCount);
+            state.save(stateFile);
+            return true;
         } catch (Exception ex) {
             ex.printStackTrace();
+            return false;
+        } finally {
+            downloadFile.delete();
         }
-        // If no questions were loaded, fall back to hardcoded questions.
-        if (questionList.isEmpty()) {
-            System.out.println("No questions loaded. Falling back to hardcoded questions.");
-            questionList = initializeHardcodedQuestions();
-        }
-        // Shuffle the list of questions randomly.
-        Collections.shuffle(questionList, new Random());
-        return questionList;
     }
     
     /**
-     * Loads cached questions from a local file ("questions_cache.json").
+     * Streams the cached questions from the local file ("questions_cache.json").
      *
-     * @return a JsonArray containing cached questions, or an empty JsonArray if none exist.
+     * @param cacheFile the cache file.
+     * @param questions receives the cached questions; left empty if there is no readable cache.
      */
-    private static JsonArray loadCachedQuestions() {
-        // File cacheFile = new File("questions_cache.json");
-        // private final String baseDir = System.getProperty("user.dir");
-        File cacheFile = new File(baseDir, "resources/questions/questions_cache.json");        
+    private static void loadCachedQuestions(File cacheFile, List<Question> questions) {
         if (cacheFile.exists()) {
-            try (FileReader reader = new FileReader(cacheFile)) {
-                JsonElement element = JsonParser.parseReader(reader);
-                if (element.isJsonArray()) {
-                    return element.getAsJsonArray();
-                }
+            try {
+                QuestionStreamParser.parse(new FileInputStream(cacheFile), questions::add);
             } catch (Exception ex) {
+                questions.clear();
                 ex.printStackTrace();
             }
         }
-        return new JsonArray();
     }
     
     /**
-     * Saves the given questions JsonArray to the local cache file ("questions_cache.json").
+     * Fetches questions from the Supabase question bank via an HTTP GET request.
+     * If a cache exists the request is conditional, so an unchanged bank is not downloaded again,
+     * and with a watermark only the changed rows are fetched and merged.
+     * A downloaded body is parsed as it arrives and copied to downloadFile at the same time.
      *
-     * @param questions the JsonArray of questions to save.
+     * @param state        sync state of the cached copy.
+     * @param cacheFile    the cached copy, if it exists.
+     * @param downloadFile receives the new cache contents.
+     * @param sink         receives every valid question of the new cache contents.
+     * @return NOT_MODIFIED, FAILED, or the digest and validators of the new cache contents.
      */
-    private static void saveQuestionsToCache(JsonArray questions) {
-        // File cacheFile = new File("questions_cache.json");
-        // private final String baseDir = System.getProperty("user.dir");
-        File cacheFile = new File(baseDir, "resources/questions/questions_cache.json"); 
-        try (FileWriter writer = new FileWriter(cacheFile)) {
-            writer.write(questions.toString());
+    private static FetchResult fetchQuestionsFromSupabase(QuestionCacheState state, File cacheFile,
+                                                          File downloadFile, Consumer<Question> sink) {
+        boolean haveCache = cacheFile.exists();
+        try {
+            // Servers without validators are asked for the watermark first.
+            String[] watermark = null;
+            if (QUESTIONBANK_WATERMARK_COLUMN != null && !state.hasValidators()) {
+                watermark = fetchWatermark();
+                if (haveCache && watermark != null && watermark[0].equals(state.getWatermark())
+                        && watermark[1].equals(state.getRowCount())) {
+                    return FetchResult.NOT_MODIFIED;
+                }
+                if (haveCache && watermark != null && state.getWatermark() != null && !state.getWatermark().isEmpty()) {
+                    FetchResult merged = syncChangedRows(state.getWatermark(), watermark, cacheFile, downloadFile, sink);
+                    if (merged != null) {
+                        return merged;
+                    }
+                    System.out.println("Incremental question sync failed; downloading the whole bank.");
+                }
+            }
+
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(QUESTIONBANK_API_URL + "?select=*" + liveRowsFilter()))
+                .header("apikey", SUPABASE_API_KEY)
+                .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                .GET();
+            if (haveCache && state.getETag() != null) {
+                builder.header("If-None-Match", state.getETag());
+            }
+            if (haveCache && state.getLastModified() != null) {
+                builder.header("If-Modified-Since", state.getLastModified());
+            }
+            HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() == 304) {
+                response.body().close();
+                return FetchResult.NOT_MODIFIED;
+            } else if (response.statusCode() == 200) {
+                downloadFile.getParentFile().mkdirs();
+                FetchResult result = new FetchResult();
+                try (FileOutputStream file = new FileOutputStream(downloadFile);
+                     OutputStream copy = new BufferedOutputStream(file)) {
+                    result.digest = QuestionStreamParser.parse(
+                            new QuestionStreamParser.CopyingInputStream(response.body(), copy), sink);
+                    copy.flush();
+                    file.getFD().sync();
+                }
+                result.etag = response.headers().firstValue("ETag").orElse(null);
+                result.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+                if (watermark != null) {
+                    result.watermark = watermark[0];
+                    result.rowCount = watermark[1];
+                }
+                return result;
+            } else {
+                try (InputStream body = response.body()) {
+                    System.out.println("Failed to fetch questions: " + response.statusCode() + " "
+                            + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
         } catch (Exception ex) {
             ex.printStackTrace();
         }
+        return FetchResult.FAILED;
     }
-    
+
     /**
-     * Fetches questions from the Supabase question bank via an HTTP GET request.
+     * Fetches the rows changed since the stored watermark (tombstones included) and merges them
+     * into a copy of the cache, which is then parsed for the questions and its digest.
+     * The query starts at syncFrom(storedWatermark) with gte, so rows stamped with the watermark
+     * itself, or committed shortly after a later row was read, are fetched again; merging them a
+     * second time changes nothing, since rows are merged by id. An edit whose transaction commits
+     * more than SYNC_OVERLAP_SECONDS after its timestamp was set (or, for a numeric watermark, with
+     * a value below the stored one) is still missed until the next full download; a server that
+     * bumps a sequence at commit time instead of a timestamp avoids that.
      *
-     * @return a JsonArray containing remote questions, or an empty JsonArray if the request fails.
+     * @param storedWatermark watermark the cache was synced to, as stored in the sync state.
+     * @param watermark       current {watermark, rowCount} on the server.
+     * @return the merged result, or null if the delta could not be applied and a full download is needed.
      */
-    private static JsonArray fetchQuestionsFromSupabase() {
+    private static FetchResult syncChangedRows(String storedWatermark, String[] watermark, File cacheFile,
+                                               File downloadFile, Consumer<Question> sink) {
         try {
+            String column = URLEncoder.encode(QUESTIONBANK_WATERMARK_COLUMN, StandardCharsets.UTF_8);
+            JsonElement stored = JsonParser.parseString(storedWatermark);
+            String from = syncFrom(stored.isJsonPrimitive() ? stored.getAsString() : stored.toString());
             HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(QUESTIONBANK_API_URL + "?select=*"))
+                .uri(URI.create(QUESTIONBANK_API_URL + "?select=*&" + column + "=gte."
+                        + URLEncoder.encode(from, StandardCharsets.UTF_8) + "&order=" + column + ".asc"))
                 .header("apikey", SUPABASE_API_KEY)
                 .header("Authorization", "Bearer " + SUPABASE_API_KEY)
                 .GET()
                 .build();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                JsonElement element = JsonParser.parseString(response.body());
-                if (element.isJsonArray()) {
-                    return element.getAsJsonArray();
-                } else {
-                    System.out.println("Remote questions not in array format: " + response.body());
-                    return new JsonArray();
-                }
-            } else {
-                System.out.println("Failed to fetch questions: " + response.statusCode() + " " + response.body());
+            if (response.statusCode() != 200) {
+                System.out.println("Failed to fetch changed questions: " + response.statusCode() + " " + response.body());
+                return null;
             }
-        } catch (Exception ex) {
+            JsonElement changes = JsonParser.parseString(response.body());
+            if (!changes.isJsonArray()) {
+                return null;
+            }
+            downloadFile.getParentFile().mkdirs();
+            int rows = QuestionCacheMerge.merge(cacheFile, changes.getAsJsonArray(), QUESTIONBANK_DELETED_COLUMN, downloadFile);
+            // A row deleted without a tombstone leaves the merged count off from the server's.
+            if (!String.valueOf(rows).equals(watermark[1])) {
+                return null;
+            }
+            System.out.println("Merged " + changes.getAsJsonArray().size() + " changed questions into the cache.");
+            FetchResult result = new FetchResult();
+            result.digest = QuestionStreamParser.parse(new FileInputStream(downloadFile), sink);
+            result.watermark = watermark[0];
+            result.rowCount = watermark[1];
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException | RuntimeException ex) {
             ex.printStackTrace();
+            return null;
         }
-        return new JsonArray();
     }
-    
+
     /**
-     * Computes an MD5 hash for the given data.
+     * Where the changed-rows query starts: a timestamp watermark moved back by SYNC_OVERLAP_SECONDS,
+     * or any other watermark (e.g. a sequence number) unchanged.
+     */
+    static String syncFrom(String watermark) {
+        try {
+            return OffsetDateTime.parse(watermark).minusSeconds(SYNC_OVERLAP_SECONDS)
+                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        } catch (DateTimeParseException ex) {
+            // Not a timestamp with a time zone; try one without.
+        }
+        try {
+            return LocalDateTime.parse(watermark).minusSeconds(SYNC_OVERLAP_SECONDS)
+                    .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException ex) {
+            return watermark;
+        }
+    }
+
+    // PostgREST filter that leaves out soft-deleted rows, or nothing if the bank has no such column.
+    private static String liveRowsFilter() {
+        if (QUESTIONBANK_DELETED_COLUMN == null) return "";
+        return "&" + URLEncoder.encode(QUESTIONBANK_DELETED_COLUMN, StandardCharsets.UTF_8) + "=not.is.true";
+    }
+
+    /**
+     * Asks for the highest value of the watermark column and the number of live rows,
+     * which together change whenever a row is added, edited or deleted.
      *
-     * @param data the input string.
-     * @return the MD5 hash of the data as a hexadecimal string.
-     * @throws Exception if the MD5 algorithm is not available.
+     * @return {watermark, rowCount}, or null if the query failed.
      */
-    private static String computeHash(String data) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("MD5");
-        byte[] hashBytes = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-        StringBuilder sb = new StringBuilder();
-        for (byte b : hashBytes) {
-            sb.append(String.format("%02x", b));
+    private static String[] fetchWatermark() {
+        try {
+            String column = URLEncoder.encode(QUESTIONBANK_WATERMARK_COLUMN, StandardCharsets.UTF_8);
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(QUESTIONBANK_API_URL + "?select=" + column + liveRowsFilter()
+                        + "&order=" + column + ".desc.nullslast&limit=1"))
+                .header("apikey", SUPABASE_API_KEY)
+                .header("Authorization", "Bearer " + SUPABASE_API_KEY)
+                .header("Prefer", "count=exact")
+                .GET()
+                .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200 && response.statusCode() != 206) {
+                System.out.println("Failed to fetch question watermark: " + response.statusCode() + " " + response.body());
+                return null;
+            }
+            // Content-Range looks like "0-0/123" (or "*/0" for an empty table).
+            String range = response.headers().firstValue("Content-Range").orElse("");
+            String rowCount = range.substring(range.indexOf('/') + 1);
+            JsonElement element = JsonParser.parseString(response.body());
+            String watermark = "";
+            if (element.isJsonArray() && element.getAsJsonArray().size() > 0) {
+                JsonElement value = element.getAsJsonArray().get(0).getAsJsonObject().get(QUESTIONBANK_WATERMARK_COLUMN);
+                watermark = value == null || value.isJsonNull() ? "" : value.toString();
+            }
+            return new String[] { watermark, rowCount };
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return null;
         }
-        return sb.toString();
+    }
+
+    // Outcome of fetchQuestionsFromSupabase.
+    private static class FetchResult {
+        static final FetchResult NOT_MODIFIED = new FetchResult();
+        static final FetchResult FAILED = new FetchResult();
+
+        // Set for a downloaded body only.
+        String digest;
+        String etag;
+        String lastModified;
+        String watermark;
+        String rowCount;
     }
     
     /**
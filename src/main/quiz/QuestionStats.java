@@ -0,0 +1,372 @@
+package src.main.quiz;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The player's history with each question, and an Elo-style estimate of the player's skill and of
+ * each question's difficulty (on the same logit scale: P(correct) = 1 / (1 + e^(difficulty - rating))).
+ * Fed by QuizScene as questions are answered; QuestionRepository.sampleSession uses it to prefer
+ * questions the player answers correctly about TARGET_SUCCESS of the time, reviews missed questions
+ * with growing spaced-repetition intervals, and holds back questions that were just seen.
+ *
+ * Questions are identified by a 64-bit hash of their text, so the statistics survive rebuilds of the
+ * question store and can be fed from a WrongAnswerRecord. Topics (question keywords) get a
+ * difficulty of their own, which is what an unseen question of the topic starts from. Questions and
+ * topics are kept in parallel primitive arrays indexed through one open-addressing table (no object
+ * per entry) and saved to resources/questions/question_stats.bin.
+ */
+public class QuestionStats {
+    private static final String STATS_PATH = "resources/questions/question_stats.bin";
+    private static final int MAGIC = 0x4D4F4B53; // "MOKS"
+    private static final int VERSION = 1;
+
+    // Success probability of the questions a session should prefer: hard enough to learn from.
+    public static final double TARGET_SUCCESS = 0.7;
+    // Step sizes start large so a new player's rating settles within a session or two, then shrink.
+    private static final double MAX_K = 1.2;
+    private static final double MIN_K = 0.15;
+    // Candidates drawn per question a session needs; choose keeps the best of them.
+    public static final int CANDIDATES_PER_PICK = 4;
+    // First review interval after a miss; doubled by every correct answer in a row.
+    private static final long REVIEW_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int MAX_REVIEW_DOUBLINGS = 6;
+
+    private static QuestionStats instance;
+    // Writes the statistics to disk, one save after another.
+    private static final ExecutorService saver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "question-stats");
+        // Must not keep the JVM alive after the window closes.
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Open-addressing table of question ids; 0 marks a free slot.
+    private long[] ids = new long[256];
+    private int[] attempts = new int[256];
+    private int[] correct = new int[256];
+    // Correct answers in a row, for the review interval.
+    private int[] streak = new int[256];
+    private float[] meanLatencyMillis = new float[256];
+    private long[] lastSeen = new long[256];
+    private float[] difficulty = new float[256];
+    private int size = 0;
+    private double rating = 0;
+    private int ratedAnswers = 0;
+
+    /**
+     * The player's statistics, loaded from disk on first use.
+     */
+    public static synchronized QuestionStats get() {
+        if (instance == null) {
+            instance = load(statsFile());
+        }
+        return instance;
+    }
+
+    private static File statsFile() {
+        return new File(System.getProperty("user.dir"), STATS_PATH);
+    }
+
+    /**
+     * Records an answer to a multiple-choice question and updates the ratings.
+     *
+     * @param latencyMillis time from showing the question to the answer.
+     */
+    public synchronized void recordAnswer(Question question, boolean wasCorrect, long latencyMillis) {
+        record(question.getQuestionText(), question.getKeywords(), wasCorrect, latencyMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Records a wrong answer from its record, for callers that only kept the WrongAnswerRecord.
+     */
+    public synchronized void recordWrongAnswer(WrongAnswerRecord record, long latencyMillis) {
+        record(record.getQuestion(), record.getKeywords(), false, latencyMillis, System.currentTimeMillis());
+    }
+
+    private void record(String questionText, String keywords, boolean wasCorrect, long latencyMillis, long now) {
+        List<String> topics = QuestionStore.keywordsOf(keywords);
+        long id = idOf(questionText);
+        int slot = slotOf(id, false);
+        if (slot < 0) {
+            // A new question starts at the difficulty of its topics.
+            double prior = topicDifficulty(topics);
+            slot = slotOf(id, true);
+            difficulty[slot] = (float) prior;
+        }
+        double expected = successProbability(difficulty[slot]);
+        double result = wasCorrect ? 1 : 0;
+        // Everything moves by how surprising the answer was, less as each gets more evidence.
+        rating += stepSize(ratedAnswers) * (result - expected);
+        difficulty[slot] -= (float) (stepSize(attempts[slot]) * (result - expected));
+        ratedAnswers++;
+        // Topics are rated like questions, so unseen questions of a topic get a sensible difficulty.
+        for (String topic : topics) {
+            int topicSlot = slotOf(topicId(topic), true);
+            double topicExpected = successProbability(difficulty[topicSlot]);
+            difficulty[topicSlot] -= (float) (stepSize(attempts[topicSlot]) * (result - topicExpected));
+            attempts[topicSlot]++;
+            if (wasCorrect) correct[topicSlot]++;
+            lastSeen[topicSlot] = now;
+        }
+
+        // Adding a topic may have grown the table and moved the question.
+        slot = slotOf(id, false);
+        attempts[slot]++;
+        if (wasCorrect) {
+            correct[slot]++;
+            streak[slot]++;
+        } else {
+            streak[slot] = 0;
+        }
+        meanLatencyMillis[slot] += (latencyMillis - meanLatencyMillis[slot]) / attempts[slot];
+        lastSeen[slot] = now;
+    }
+
+    // Mean difficulty of the rated topics among these, or 0 (average) if none is rated.
+    private double topicDifficulty(List<String> topics) {
+        double sum = 0;
+        int rated = 0;
+        for (String topic : topics) {
+            int slot = slotOf(topicId(topic), false);
+            if (slot >= 0) {
+                sum += difficulty[slot];
+                rated++;
+            }
+        }
+        return rated == 0 ? 0 : sum / rated;
+    }
+
+    /**
+     * How much a sampler should want this question now; higher is better.
+     * Peaks for questions the player should get right about TARGET_SUCCESS of the time, adds a bonus
+     * when a seen question is due for review and a penalty while it is still fresh.
+     */
+    public synchronized double priority(Question question, long now) {
+        int slot = slotOf(idOf(question.getQuestionText()), false);
+        if (slot < 0) {
+            // Unseen: rated by its topics.
+            double prior = topicDifficulty(QuestionStore.keywordsOf(question.getKeywords()));
+            return -Math.abs(successProbability(prior) - TARGET_SUCCESS);
+        }
+        double score = -Math.abs(successProbability(difficulty[slot]) - TARGET_SUCCESS);
+        long interval = REVIEW_MILLIS << Math.min(streak[slot], MAX_REVIEW_DOUBLINGS);
+        long age = now - lastSeen[slot];
+        if (age >= interval) {
+            score += attempts[slot] > correct[slot] ? 0.3 : 0.1;
+        } else {
+            score -= 0.5 * (1 - (double) age / interval);
+        }
+        return score;
+    }
+
+    /**
+     * Keeps the k candidates with the highest priority, in random order if the candidates were.
+     * With CANDIDATES_PER_PICK random candidates per pick this stays O(k) for any bank size.
+     */
+    public synchronized List<Question> choose(List<Question> candidates, int k) {
+        if (candidates.size() <= k) return candidates;
+        long now = System.currentTimeMillis();
+        double[] priorities = new double[candidates.size()];
+        List<Integer> order = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            priorities[i] = priority(candidates.get(i), now);
+            order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(priorities[b], priorities[a]));
+        boolean[] keep = new boolean[candidates.size()];
+        for (int i = 0; i < k; i++) {
+            keep[order.get(i)] = true;
+        }
+        // In candidate order, so a random pool gives a random session.
+        List<Question> chosen = new ArrayList<>(k);
+        for (int i = 0; i < candidates.size(); i++) {
+            if (keep[i]) chosen.add(candidates.get(i));
+        }
+        return chosen;
+    }
+
+    /**
+     * Estimated chance that the player answers a question correctly.
+     */
+    public synchronized double successProbability(Question question) {
+        int slot = slotOf(idOf(question.getQuestionText()), false);
+        return successProbability(slot < 0 ? topicDifficulty(QuestionStore.keywordsOf(question.getKeywords())) : difficulty[slot]);
+    }
+
+    /**
+     * The player's mastery: estimated chance of answering a question of average difficulty.
+     */
+    public synchronized double getMastery() {
+        return successProbability(0);
+    }
+
+    // Number of recorded answers to a question, 0 if it was never answered.
+    synchronized int getAttempts(Question question) {
+        int slot = slotOf(idOf(question.getQuestionText()), false);
+        return slot < 0 ? 0 : attempts[slot];
+    }
+
+    // Number of answers the rating is based on.
+    public synchronized int getRatedAnswers() {
+        return ratedAnswers;
+    }
+
+    // Number of questions and topics with statistics.
+    public synchronized int size() {
+        return size;
+    }
+
+    private double successProbability(double questionDifficulty) {
+        return 1 / (1 + Math.exp(questionDifficulty - rating));
+    }
+
+    private static double stepSize(int evidence) {
+        return Math.max(MIN_K, MAX_K / Math.sqrt(1 + evidence));
+    }
+
+    // Stable id of a question text: 64-bit FNV-1a of its UTF-8 bytes, never 0.
+    static long idOf(String questionText) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : (questionText == null ? "" : questionText).getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // Id of a topic's entry; the prefix keeps it apart from any question text.
+    private static long topicId(String topic) {
+        return idOf("\u0000topic:" + topic);
+    }
+
+    // Slot of an id; with add, inserts it if missing, otherwise returns -1 for an unknown id.
+    private int slotOf(long id, boolean add) {
+        int mask = ids.length - 1;
+        int slot = (int) (id ^ (id >>> 32)) & mask;
+        while (ids[slot] != 0) {
+            if (ids[slot] == id) return slot;
+            slot = (slot + 1) & mask;
+        }
+        if (!add) return -1;
+        if (2 * (size + 1) > ids.length) {
+            grow();
+            return slotOf(id, true);
+        }
+        ids[slot] = id;
+        size++;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldIds = ids;
+        int[] oldAttempts = attempts, oldCorrect = correct, oldStreak = streak;
+        float[] oldLatency = meanLatencyMillis, oldDifficulty = difficulty;
+        long[] oldLastSeen = lastSeen;
+        allocate(oldIds.length * 2);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == 0) continue;
+            int slot = slotOf(oldIds[i], true);
+            attempts[slot] = oldAttempts[i];
+            correct[slot] = oldCorrect[i];
+            streak[slot] = oldStreak[i];
+            meanLatencyMillis[slot] = oldLatency[i];
+            lastSeen[slot] = oldLastSeen[i];
+            difficulty[slot] = oldDifficulty[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        attempts = new int[capacity];
+        correct = new int[capacity];
+        streak = new int[capacity];
+        meanLatencyMillis = new float[capacity];
+        lastSeen = new long[capacity];
+        difficulty = new float[capacity];
+        size = 0;
+    }
+
+    /**
+     * Saves the statistics on a background thread, so the caller never waits for the disk sync.
+     * Saves run one at a time, in the order they were asked for.
+     */
+    public void saveAsync() {
+        saver.execute(this::save);
+    }
+
+    /**
+     * Saves the statistics next to the question cache (temporary file, then moved into place).
+     */
+    public synchronized void save() {
+        File file = statsFile();
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+            try (FileOutputStream fileOut = new FileOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeDouble(rating);
+                out.writeInt(ratedAnswers);
+                out.writeInt(size);
+                for (int i = 0; i < ids.length; i++) {
+                    if (ids[i] == 0) continue;
+                    out.writeLong(ids[i]);
+                    out.writeInt(attempts[i]);
+                    out.writeInt(correct[i]);
+                    out.writeInt(streak[i]);
+                    out.writeFloat(meanLatencyMillis[i]);
+                    out.writeLong(lastSeen[i]);
+                    out.writeFloat(difficulty[i]);
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            QuestionCacheState.moveIntoPlace(temp, file);
+        } catch (IOException ex) {
+            // Statistics are a nicety; the quiz goes on without them.
+            ex.printStackTrace();
+            temp.delete();
+        }
+    }
+
+    // Reads saved statistics, or starts empty if there are none or they cannot be read.
+    private static QuestionStats load(File file) {
+        QuestionStats stats = new QuestionStats();
+        if (!file.exists()) return stats;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a question statistics file");
+            }
+            stats.rating = in.readDouble();
+            stats.ratedAnswers = in.readInt();
+            int count = in.readInt();
+            int capacity = Integer.highestOneBit(Math.max(count, 64) * 4);
+            stats.allocate(capacity);
+            for (int i = 0; i < count; i++) {
+                int slot = stats.slotOf(in.readLong(), true);
+                stats.attempts[slot] = in.readInt();
+                stats.correct[slot] = in.readInt();
+                stats.streak[slot] = in.readInt();
+                stats.meanLatencyMillis[slot] = in.readFloat();
+                stats.lastSeen[slot] = in.readLong();
+                stats.difficulty[slot] = in.readFloat();
+            }
+        } catch (IOException ex) {
+            System.out.println("Ignoring unreadable question statistics: " + ex.getMessage());
+            return new QuestionStats();
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,444 @@
+package src.main.quiz;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Read-only binary copy of the question bank, memory-mapped with FileChannel.map.
+ * Built from questions_cache.json whenever the cache changes, so a game only decodes the
+ * questions it actually uses: opening the store reads a fixed-size trailer, a question is found
+ * through the offset index in O(1), and a sample of k questions costs O(k) whatever the bank size.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   records     per question: int length, byte correctIndex, then question, optionA-D, hint,
+ *               keywords and explanation, each as int byteLength + UTF-8 bytes
+ *   offsets     int position of every record, in question order
+ *   keywords    per keyword, sorted: int byteLength + UTF-8 bytes, int count, int[count] question indexes
+ *   directory   int position of every keyword entry, in keyword order
+ *   trailer     int count, int offsetsPos, int keywordCount, int directoryPos,
+ *               long sourceLength, long sourceModified, int version, int magic
+ * </pre>
+ * Keywords are the comma-separated entries of Question.getKeywords(), normalized by normalizeKeyword;
+ * each one names a topic that can be practised on its own.
+ * Near-duplicate questions (QuestionDeduplicator) are collapsed while building: the first one is
+ * kept, so the JSON cache stays a faithful copy of the bank while the games never see a question twice.
+ */
+public class QuestionStore {
+    private static final int MAGIC = 0x4D4F4B51; // "MOKQ"
+    private static final int VERSION = 3;
+    private static final int TRAILER_SIZE = 4 * 4 + 2 * 8 + 2 * 4;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int offsetsPos;
+    private final int keywordCount;
+    private final int directoryPos;
+    private final long sourceLength;
+    private final long sourceModified;
+
+    private QuestionStore(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int trailer = buffer.limit() - TRAILER_SIZE;
+        if (trailer < 0 || buffer.getInt(buffer.limit() - 4) != MAGIC || buffer.getInt(buffer.limit() - 8) != VERSION) {
+            throw new IOException("Not a question store");
+        }
+        count = buffer.getInt(trailer);
+        offsetsPos = buffer.getInt(trailer + 4);
+        keywordCount = buffer.getInt(trailer + 8);
+        directoryPos = buffer.getInt(trailer + 12);
+        sourceLength = buffer.getLong(trailer + 16);
+        sourceModified = buffer.getLong(trailer + 24);
+    }
+
+    /**
+     * Opens the store built from a JSON question file, building it first if it is missing or was
+     * built from an older version of the JSON file (compared by length and modification time).
+     *
+     * @param jsonFile  the question bank JSON, e.g. questions_cache.json.
+     * @param storeFile where the binary store is kept.
+     * @return the mapped store.
+     * @throws IOException if the JSON file cannot be read or the store cannot be written.
+     */
+    public static QuestionStore openFor(File jsonFile, File storeFile) throws IOException {
+        if (storeFile.exists()) {
+            // Checked without mapping: a mapping cannot be released, and on Windows a mapped store
+            // could not be replaced by the rebuilt one.
+            try {
+                if (isStoreBuiltFrom(storeFile, jsonFile)) {
+                    return open(storeFile);
+                }
+            } catch (IOException ex) {
+                System.out.println("Rebuilding unreadable question store: " + ex.getMessage());
+            }
+        }
+        File dir = storeFile.getAbsoluteFile().getParentFile();
+        deleteOldBuilds(dir, storeFile.getName());
+        // A new name per build, as the copy of an earlier build may still be mapped.
+        File temp = File.createTempFile(storeFile.getName() + ".", ".tmp", dir);
+        long length = jsonFile.length();
+        long modified = jsonFile.lastModified();
+        try (FileOutputStream file = new FileOutputStream(temp);
+             Writer writer = new Writer(new BufferedOutputStream(file))) {
+            QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+            QuestionStreamParser.parse(new FileInputStream(jsonFile), question -> {
+                if (deduplicator.add(question) < 0) {
+                    writer.add(question);
+                }
+            });
+            writer.finish(length, modified);
+            if (deduplicator.getDuplicateCount() > 0) {
+                System.out.println("Collapsed " + deduplicator.getDuplicateCount() + " near-duplicate questions.");
+            }
+            file.getFD().sync();
+        } catch (IOException | UncheckedIOException ex) {
+            temp.delete();
+            throw ex instanceof UncheckedIOException ? ((UncheckedIOException) ex).getCause() : (IOException) ex;
+        }
+        try {
+            QuestionCacheState.moveIntoPlace(temp, storeFile);
+        } catch (IOException ex) {
+            // Windows refuses to replace a file that is still mapped; use the new copy where it is.
+            System.out.println("Question store in use; opening the new copy in place: " + ex.getMessage());
+            return open(temp);
+        }
+        return open(storeFile);
+    }
+
+    // The store kept next to a JSON question file: questions_cache.json -> questions_cache.store.
+    public static File storeFileFor(File jsonFile) {
+        String name = jsonFile.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(jsonFile.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".store");
+    }
+
+    // True if the store was built from the current version of the JSON file.
+    public boolean isBuiltFrom(File jsonFile) {
+        return sourceLength == jsonFile.length() && sourceModified == jsonFile.lastModified() && jsonFile.exists();
+    }
+
+    // isBuiltFrom for a store file, reading only its trailer.
+    private static boolean isStoreBuiltFrom(File storeFile, File jsonFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            long position = channel.size() - TRAILER_SIZE;
+            if (position < 0) throw new IOException("Not a question store");
+            while (trailer.hasRemaining()) {
+                if (channel.read(trailer, position + trailer.position()) < 0) throw new IOException("Truncated question store");
+            }
+            if (trailer.getInt(TRAILER_SIZE - 4) != MAGIC || trailer.getInt(TRAILER_SIZE - 8) != VERSION) {
+                throw new IOException("Not a question store");
+            }
+            return trailer.getLong(16) == jsonFile.length() && trailer.getLong(24) == jsonFile.lastModified()
+                    && jsonFile.exists();
+        }
+    }
+
+    // Deletes copies left by earlier builds; one still mapped by this process (Windows) stays until next time.
+    private static void deleteOldBuilds(File dir, String storeName) {
+        File[] old = dir.listFiles((d, name) -> name.startsWith(storeName + ".") && name.endsWith(".tmp"));
+        if (old == null) return;
+        for (File file : old) {
+            file.delete();
+        }
+    }
+
+    /**
+     * Maps an existing store file.
+     *
+     * @throws IOException if the file cannot be read or is not a question store.
+     */
+    public static QuestionStore open(File storeFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new QuestionStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Builds a store in memory, for questions that have no file (the hardcoded fallback).
+     */
+    public static QuestionStore of(List<Question> questions) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (Writer writer = new Writer(bytes)) {
+                for (Question question : questions) {
+                    writer.add(question);
+                }
+                writer.finish(0, 0);
+            }
+            return new QuestionStore(ByteBuffer.wrap(bytes.toByteArray()));
+        } catch (IOException ex) {
+            // Only in-memory streams are involved.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Number of questions in the store.
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Decodes the question at the given position.
+     *
+     * @param index 0 to size() - 1.
+     */
+    public Question get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Question " + index + " of " + count);
+        }
+        int pos = buffer.getInt(offsetsPos + 4 * index) + 4;
+        int correctIndex = buffer.get(pos++);
+        String[] fields = new String[8];
+        for (int i = 0; i < fields.length; i++) {
+            int length = buffer.getInt(pos);
+            fields[i] = readString(pos + 4, length);
+            pos += 4 + length;
+        }
+        String[] options = { fields[1], fields[2], fields[3], fields[4] };
+        return new Question(fields[0], options, correctIndex, fields[5], fields[6], fields[7]);
+    }
+
+    /**
+     * Picks k distinct questions uniformly at random, decoding only those.
+     *
+     * @param k      number of questions wanted; fewer are returned if the store is smaller.
+     * @param random source of randomness.
+     * @return the questions in random order.
+     */
+    public List<Question> sample(int k, Random random) {
+        int[] indexes = sampleIndexes(k, random);
+        List<Question> questions = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            questions.add(get(index));
+        }
+        return questions;
+    }
+
+    /**
+     * Picks k distinct question indexes uniformly at random, in O(k) time and space whatever the
+     * size of the store (see QuestionSampler).
+     *
+     * @return min(k, size()) indexes in random order.
+     */
+    public int[] sampleIndexes(int k, Random random) {
+        return QuestionSampler.sampleIndexes(count, k, random);
+    }
+
+    /**
+     * Looks up the questions tagged with a keyword by binary search over the keyword directory.
+     *
+     * @param keyword compared after normalizeKeyword.
+     * @return the indexes of the matching questions in ascending order; empty if none match.
+     */
+    public int[] indexesWithKeyword(String keyword) {
+        int position = keywordPosition(keyword);
+        if (position < 0) {
+            return new int[0];
+        }
+        int[] indexes = new int[keywordFrequency(position)];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = keywordIndexAt(position, i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Finds a keyword in the sorted keyword directory.
+     *
+     * @return its position, or -1 if no question has the keyword.
+     */
+    public int keywordPosition(String keyword) {
+        byte[] key = normalizeKeyword(keyword).getBytes(StandardCharsets.UTF_8);
+        int low = 0, high = keywordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = buffer.getInt(directoryPos + 4 * mid);
+            int cmp = compare(entry + 4, buffer.getInt(entry), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // The i-th question index (ascending) tagged with the keyword at a directory position.
+    public int keywordIndexAt(int position, int i) {
+        int entry = buffer.getInt(directoryPos + 4 * position);
+        return buffer.getInt(entry + 4 + buffer.getInt(entry) + 4 + 4 * i);
+    }
+
+    // Number of distinct keywords.
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    // The keyword at a position of the sorted keyword directory.
+    public String keywordAt(int position) {
+        int entry = buffer.getInt(directoryPos + 4 * position);
+        return readString(entry + 4, buffer.getInt(entry));
+    }
+
+    // Number of questions tagged with the keyword at a position of the keyword directory.
+    public int keywordFrequency(int position) {
+        int entry = buffer.getInt(directoryPos + 4 * position);
+        return buffer.getInt(entry + 4 + buffer.getInt(entry));
+    }
+
+    // Compares the UTF-8 bytes at pos with key, as unsigned bytes (the order the writer sorted by).
+    private int compare(int pos, int length, byte[] key) {
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(buffer.get(pos + i) & 0xff, key[i] & 0xff);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String readString(int pos, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(pos, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The form keywords are indexed and looked up in: lower case, trimmed, inner runs of
+     * whitespace collapsed to one space ("  Java  Loops" and "java loops" are the same topic).
+     */
+    public static String normalizeKeyword(String keyword) {
+        return WHITESPACE.matcher(keyword.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits a question's comma-separated keywords into normalized, non-empty keywords.
+     */
+    public static List<String> keywordsOf(String keywords) {
+        List<String> result = new ArrayList<>();
+        if (keywords == null) return result;
+        for (String keyword : keywords.split(",")) {
+            String key = normalizeKeyword(keyword);
+            if (!key.isEmpty() && !result.contains(key)) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the store sequentially; the indexes are kept in memory until finish.
+     */
+    static class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private int[] offsets = new int[64];
+        private int count = 0;
+        // Postings per keyword, sorted by UTF-8 bytes so the reader can binary search them.
+        private final Map<String, List<Integer>> keywords = new TreeMap<>(Writer::compareUtf8);
+
+        Writer(OutputStream out) {
+            this.out = new DataOutputStream(out);
+        }
+
+        void add(Question question) {
+            try {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count] = out.size();
+                byte[][] fields = {
+                    bytes(question.getQuestionText()),
+                    bytes(question.getOptions()[0]), bytes(question.getOptions()[1]),
+                    bytes(question.getOptions()[2]), bytes(question.getOptions()[3]),
+                    bytes(question.getHint()), bytes(question.getKeywords()), bytes(question.getExplanation())
+                };
+                int length = 1;
+                for (byte[] field : fields) {
+                    length += 4 + field.length;
+                }
+                out.writeInt(length);
+                out.writeByte(question.getCorrectIndex());
+                for (byte[] field : fields) {
+                    out.writeInt(field.length);
+                    out.write(field);
+                }
+                // keywordsOf drops repeats, so each question is listed once per keyword.
+                for (String key : keywordsOf(question.getKeywords())) {
+                    keywords.computeIfAbsent(key, k -> new ArrayList<>()).add(count);
+                }
+                count++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        // Writes the indexes and the trailer, recording which JSON file version the store was built from.
+        void finish(long sourceLength, long sourceModified) throws IOException {
+            int offsetsPos = out.size();
+            for (int i = 0; i < count; i++) {
+                out.writeInt(offsets[i]);
+            }
+            int[] entries = new int[keywords.size()];
+            int k = 0;
+            for (Map.Entry<String, List<Integer>> entry : keywords.entrySet()) {
+                entries[k++] = out.size();
+                byte[] key = bytes(entry.getKey());
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(entry.getValue().size());
+                for (int index : entry.getValue()) {
+                    out.writeInt(index);
+                }
+            }
+            int directoryPos = out.size();
+            for (int entry : entries) {
+                out.writeInt(entry);
+            }
+            out.writeInt(count);
+            out.writeInt(offsetsPos);
+            out.writeInt(entries.length);
+            out.writeInt(directoryPos);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeInt(VERSION);
+            out.writeInt(MAGIC);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private static byte[] bytes(String s) {
+            return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static int compareUtf8(String a, String b) {
+            return Arrays.compareUnsigned(bytes(a), bytes(b));
+        }
+    }
+}
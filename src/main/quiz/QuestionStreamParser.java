@@ -0,0 +1,180 @@
+package src.main.quiz;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader for the question bank JSON (the Supabase response and questions_cache.json).
+ * Questions are decoded one at a time with Gson's JsonReader and handed to a consumer, while an
+ * MD5 digest is computed over the raw bytes as they pass through. Only the question being read is
+ * held in memory, never the whole document.
+ */
+public class QuestionStreamParser {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Parses a JSON array of questions.
+     * Entries missing the question text, an option or the correct option are skipped.
+     *
+     * @param in   the raw JSON bytes; read to the end and closed.
+     * @param sink receives every valid question in document order.
+     * @return the MD5 digest of all bytes read, as a hexadecimal string.
+     * @throws IOException if the stream cannot be read or is not a JSON array of objects.
+     */
+    public static String parse(InputStream in, Consumer<Question> sink) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream digestIn = new DigestInputStream(in, digest);
+             JsonReader reader = new JsonReader(new InputStreamReader(digestIn, StandardCharsets.UTF_8))) {
+            try {
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    throw new IOException("Questions not in array format");
+                }
+                reader.beginArray();
+                int index = 0;
+                while (reader.hasNext()) {
+                    Question question = readQuestion(reader);
+                    if (question != null) {
+                        sink.accept(question);
+                    } else {
+                        System.out.println("Skipping question at index " + index + " due to missing field.");
+                    }
+                    index++;
+                }
+                reader.endArray();
+            } catch (IllegalStateException | NumberFormatException ex) {
+                // JsonReader reports unexpected tokens as unchecked exceptions.
+                throw new IOException("Malformed question bank: " + ex.getMessage(), ex);
+            }
+            // Trailing whitespace still belongs to the digest.
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (digestIn.read(buffer) != -1) {
+                // drain
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Computes the MD5 digest of a file without parsing it.
+     *
+     * @return the digest as a hexadecimal string, comparable with the one returned by parse.
+     */
+    public static String digest(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    // Reads one question object; returns null when a required field is missing.
+    private static Question readQuestion(JsonReader reader) throws IOException {
+        String text = null, hint = "", keywords = "", explanation = "";
+        String[] options = new String[4];
+        Integer correct = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "question": text = reader.nextString(); break;
+                case "optionA": options[0] = reader.nextString(); break;
+                case "optionB": options[1] = reader.nextString(); break;
+                case "optionC": options[2] = reader.nextString(); break;
+                case "optionD": options[3] = reader.nextString(); break;
+                case "correctOption": correct = reader.nextInt(); break;
+                case "hint": hint = reader.nextString(); break;
+                case "keywords": keywords = reader.nextString(); break;
+                case "explanation": explanation = reader.nextString(); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (text == null || options[0] == null || options[1] == null || options[2] == null
+                || options[3] == null || correct == null) {
+            return null;
+        }
+        return new Question(text, options, correct, hint, keywords, explanation);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide MD5.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(byte[] hashBytes) {
+        StringBuilder sb = new StringBuilder(hashBytes.length * 2);
+        for (byte b : hashBytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Input stream that writes every byte it reads to an output stream,
+     * so a download can be parsed and saved in the same pass.
+     */
+    static class CopyingInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        CopyingInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) copy.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must reach the copy too, so read them instead.
+            byte[] buffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read == -1) break;
+                skipped += read;
+            }
+            return skipped;
+        }
+    }
+}
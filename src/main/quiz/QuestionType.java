@@ -0,0 +1,13 @@
+package src.main.quiz;
+
+/**
+ * The kinds of question the game modes ask.
+ */
+public enum QuestionType {
+    // Four options, one correct; the question bank (quiz, matching and fighting modes).
+    MULTIPLE_CHOICE,
+    // Code to write and run through JDoodle; no options.
+    CODING_CHALLENGE,
+    // A typed answer compared with one expected string (retro runner).
+    SHORT_ANSWER
+}
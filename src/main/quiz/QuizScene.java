@@ -7,8 +7,10 @@ import src.main.utils.PreferencesManager;
 import src.main.utils.SceneManager;
 import src.main.utils.AudioManager;
 import src.main.quiz.WrongAnswerRecord;
-import src.main.api.JDoodleClient;
+import src.main.leaderboard.LeaderboardEntry;
+import src.main.leaderboard.LeaderboardRanking;
 import src.main.leaderboard.LeaderboardService;
+import src.main.leaderboard.PlayerRank;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
@@ -43,7 +45,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Arrays;
@@ -61,6 +63,13 @@ public class QuizScene {
     private static int timeRemaining;
     private static List<Question> questions;
     private static List<WrongAnswerRecord> wrongAnswers;
+    // Topic (question keyword) practised on its own, or null for a normal session.
+    private static String practiceTopic = null;
+    // Keywords of recent wrong answers, newest first; normal sessions lean towards them.
+    private static final LinkedList<String> recentWrongKeywords = new LinkedList<>();
+    private static final int MAX_RECENT_WRONG_KEYWORDS = 20;
+    // When the current question was shown, for the answer latency in QuestionStats.
+    private static long questionShownAt;
     
     public static final int MAX_QUESTIONS = 10;
     private static boolean quizEnded = false;
@@ -687,6 +696,8 @@ public class QuizScene {
             return new Pane(); // Delegate to CodeChallengeScene.
         }
         
+        questionShownAt = System.currentTimeMillis();
+        
         // Build quiz UI.
         VBox quizLayout = new VBox(20);
         quizLayout.setAlignment(Pos.CENTER);
@@ -713,7 +724,9 @@ public class QuizScene {
                     }
                 }
                 feedbackLabel.setText("");
+                long latency = System.currentTimeMillis() - questionShownAt;
                 if (index == currentQuestion.getCorrectIndex()) {
+                    QuestionStats.get().recordAnswer(currentQuestion, true, latency);
                     addScore(10);
                     feedbackLabel.setText("✅ Correct! Great job!");
                     AudioManager.playApplause();
@@ -749,14 +762,16 @@ public class QuizScene {
                     if (wrongAnswers == null) {
                         wrongAnswers = new ArrayList<>();
                     }
-                    wrongAnswers.add(new WrongAnswerRecord(
+                    WrongAnswerRecord record = new WrongAnswerRecord(
                         currentQuestion.getQuestionText(),
                         options[index],
                         currentQuestion.getOptions()[currentQuestion.getCorrectIndex()],
                         currentQuestion.getHint(),
                         currentQuestion.getKeywords(),
                         currentQuestion.getExplanation()
-                    ));
+                    );
+                    wrongAnswers.add(record);
+                    QuestionStats.get().recordWrongAnswer(record, latency);
                 }
             });
             optionsBox.getChildren().add(optionButton);
@@ -1032,7 +1047,10 @@ public class QuizScene {
         leftPane.setPadding(new Insets(20));
         leftPane.setPrefWidth(300);
         
-        Label scoreSummary = new Label("Time's up!\nYour Score: " + score + "\nDifficulty: " + PreferencesManager.getDifficultyString());
+        QuestionStats stats = QuestionStats.get();
+        Label scoreSummary = new Label("Time's up!\nYour Score: " + score + "\nDifficulty: " + PreferencesManager.getDifficultyString()
+                + "\nMastery: " + Math.round(stats.getMastery() * 100) + "% (" + stats.getRatedAnswers() + " answers)");
+        stats.saveAsync();
         Label enterNameLabel = new Label("Enter your name:");
         TextField nameField = new TextField();
         // auto‑fill username from session
@@ -1042,11 +1060,16 @@ public class QuizScene {
         Button mainMenuBtn = createAnimatedButton("Main Menu");
         Button quitBtn = createAnimatedButton("Quit");
         
+        Label rankLabel = new Label();
+        // Loaded while the player reads the summary, so the rank shows as soon as the score is saved.
+        LeaderboardRanking.get().refreshAsync();
+        
         saveScoreBtn.setOnAction(e -> {
             String name = nameField.getText();
             if (name != null && !name.trim().isEmpty()) {
                 LeaderboardService.pushLeaderboardDataAsync(name, score, PreferencesManager.getDifficultyString(), "Classic");
                 saveScoreBtn.setDisable(true);
+                LeaderboardRanking.get().rankAsync(name, 0, rank -> showRank(rankLabel, rank));
             }
         });
         
@@ -1064,7 +1087,7 @@ public class QuizScene {
         
         quitBtn.setOnAction(e -> System.exit(0));
         
-        leftPane.getChildren().addAll(scoreSummary, enterNameLabel, nameField, saveScoreBtn, playAgainBtn, mainMenuBtn, quitBtn);
+        leftPane.getChildren().addAll(scoreSummary, enterNameLabel, nameField, saveScoreBtn, rankLabel, playAgainBtn, mainMenuBtn, quitBtn);
         Parent revisionPane = createWrongAnswersPane();
         
         BorderPane endLayout = new BorderPane();
@@ -1076,6 +1099,22 @@ public class QuizScene {
         SceneManager.setRoot(new StackPane(endLayout));
     }
     
+    /**
+     * Shows a player's leaderboard rank within their difficulty on the end screen.
+     */
+    private static void showRank(Label rankLabel, PlayerRank rank) {
+        if (rank == null) {
+            rankLabel.setText("");
+            return;
+        }
+        LeaderboardEntry entry = rank.getEntry();
+        if (entry == null) {
+            rankLabel.setText("Not in the top " + LeaderboardRanking.TOP_PLAYERS + " yet");
+            return;
+        }
+        rankLabel.setText("Rank #" + rank.getRank() + " on " + entry.getTime() + "\nTotal: " + entry.getScore());
+    }
+    
     /**
      * Stops the quiz timer and resets the remaining time.
      */
@@ -1088,7 +1127,8 @@ public class QuizScene {
     
     /**
      * Resets the game by stopping the timer, resetting score and health bars, and loading questions.
-     * Also shuffles and limits the number of questions based on user preferences and available credits.
+     * The session mixes multiple-choice questions and coding challenges in the numbers set by the
+     * difficulty and the available credits, up to MAX_QUESTIONS, and leans towards recently missed topics.
      */
     public static void resetGame() {
         stopTimer();
@@ -1103,51 +1143,66 @@ public class QuizScene {
         if (computerHealthBar != null) {
             computerHealthBar.setProgress(computerHealth);
         }        
-        List<Question> cached = QuestionService.loadQuestionsWithCache();
+        rememberWrongKeywords();
+        // Both come from the background refresh, so Play Again never waits on the network.
+        QuestionRepository repository = QuestionBank.snapshot();
         List<Question> loadedQuestions;
-        if (cached.isEmpty()) {
-            System.out.println("No questions loaded. Falling back to hardcoded questions.");
-            loadedQuestions = new ArrayList<>(QuestionService.initializeHardcodedQuestions());
-        } else {
-            loadedQuestions = new ArrayList<>(cached);
-        }
-        int remainingCredits = JDoodleClient.getRemainingCredits();
+        int remainingCredits = QuestionBank.getRemainingCredits();
         System.out.println("Remaining JDoodle Credits: " + remainingCredits);
-        if (remainingCredits <= 0) {
-            System.out.println("You have used all credits for the day.");
-            List<Question> mcqQuestions = new ArrayList<>();
-            for (Question q : loadedQuestions) {
-                if (q.getOptions().length != 0) {
-                    mcqQuestions.add(q);
-                }
+        // Each part of the session is sampled at its final size; nothing is shuffled or cut afterwards.
+        if (practiceTopic != null) {
+            // Topic practice: multiple-choice questions tagged with the topic only.
+            int count = Math.min(PreferencesManager.getDifficultyQuestionBankNumbers(), MAX_QUESTIONS);
+            loadedQuestions = QuestionStats.get().choose(repository.sampleWithKeyword(practiceTopic,
+                    count * QuestionStats.CANDIDATES_PER_PICK, new Random()), count);
+            System.out.println("Practising topic '" + practiceTopic + "': " + loadedQuestions.size() + " questions.");
+            if (loadedQuestions.isEmpty()) {
+                loadedQuestions = repository.sample(MAX_QUESTIONS, new Random());
             }
-            loadedQuestions = new ArrayList<>(mcqQuestions);
+        } else if (remainingCredits <= 0) {
+            System.out.println("You have used all credits for the day.");
+            // The bank holds multiple-choice questions only.
+            loadedQuestions = repository.sampleSession(MAX_QUESTIONS, 0, recentWrongKeywords, QuestionStats.get(), new Random());
         } else {
-            if (!cached.isEmpty()) {
-                int MAX_NUM_CACHED_QUESTIONS = PreferencesManager.getDifficultyQuestionBankNumbers();
-                if (loadedQuestions.size() > MAX_NUM_CACHED_QUESTIONS) {
-                    loadedQuestions = new ArrayList<>(loadedQuestions.subList(0, MAX_NUM_CACHED_QUESTIONS));
-                }
-                List<Question> codingChallenges = new ArrayList<>();
-                codingChallenges.add(new Question("Write a function named 'sum' that takes two integers and returns their sum."));
-                codingChallenges.add(new Question("Write a function named 'reverseString' that returns the reverse of a given string."));
-                Collections.shuffle(codingChallenges, new Random());
-                int codingCount = PreferencesManager.getDifficultyJavaPythonCodingNumbers();
-                for (int i = 0; i < codingCount && i < codingChallenges.size(); i++) {
-                    loadedQuestions.add(codingChallenges.get(i));
-                }
-            }
+            int codingCount = Math.min(PreferencesManager.getDifficultyJavaPythonCodingNumbers(), MAX_QUESTIONS);
+            int multipleChoiceCount = Math.min(PreferencesManager.getDifficultyQuestionBankNumbers(), MAX_QUESTIONS - codingCount);
+            loadedQuestions = repository.sampleSession(multipleChoiceCount, codingCount, recentWrongKeywords, QuestionStats.get(), new Random());
         }
-        Collections.shuffle(loadedQuestions, new Random());
         System.out.println("Number of questions: " + loadedQuestions.size());
-        if (loadedQuestions.size() > MAX_QUESTIONS) {
-            loadedQuestions = new ArrayList<>(loadedQuestions.subList(0, MAX_QUESTIONS));
-        }
         questions = loadedQuestions;
         System.out.println("Number of questions towards end of resetGame: " + questions.size());
         wrongAnswers = new ArrayList<>();
+        // Fetch any bank changes and the spent credits while this session is played.
+        QuestionBank.refreshAsync();
     }
     
+    // Adds the keywords of the finished session's wrong answers to the recent ones.
+    private static void rememberWrongKeywords() {
+        if (wrongAnswers == null) return;
+        for (WrongAnswerRecord record : wrongAnswers) {
+            for (String keyword : QuestionStore.keywordsOf(record.getKeywords())) {
+                recentWrongKeywords.remove(keyword);
+                recentWrongKeywords.addFirst(keyword);
+            }
+        }
+        while (recentWrongKeywords.size() > MAX_RECENT_WRONG_KEYWORDS) {
+            recentWrongKeywords.removeLast();
+        }
+    }
+
+    /**
+     * Selects the topic of the next sessions, or null to go back to normal sessions.
+     * The questions of the current session are dropped when the topic changes.
+     *
+     * @param topic a keyword from QuestionRepository.topics(), or null.
+     */
+    public static void setPracticeTopic(String topic) {
+        if (topic == null ? practiceTopic != null : !topic.equals(practiceTopic)) {
+            practiceTopic = topic;
+            questions = null;
+        }
+    }
+
     /**
      * Retrieves a random question from the list.
      * If the question is a coding challenge (no options), transitions to the CodeChallengeScene.
@@ -1157,14 +1212,11 @@ public class QuizScene {
     private static Question getRandomQuestion() {
         int QuestionBankNumbers = PreferencesManager.getDifficultyQuestionBankNumbers();
         if (questions == null || questions.isEmpty()) {
-            questions = new ArrayList<>(QuestionService.loadQuestionsWithCache());
-            if (questions.size() > QuestionBankNumbers) {
-                questions = new ArrayList<>(questions.subList(0, QuestionBankNumbers));
-            }
+            questions = QuestionBank.snapshot().sample(QuestionBankNumbers, new Random());
             System.out.println("Total questions loaded for session in getRandomQuesitons: " + questions.size());
-            Collections.shuffle(questions, new Random());
         }
-        Question q = questions.remove(0);
+        // The session is in random order, so taking the last one is as random and O(1).
+        Question q = questions.remove(questions.size() - 1);
         if (q.getOptions().length == 0) {
             Platform.runLater(() -> SceneManager.setRoot(CodeChallengeScene.createRoot(q)));
         }
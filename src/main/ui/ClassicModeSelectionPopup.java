@@ -4,6 +4,7 @@ import src.main.game.Classic.RetroRunning.PixelRetroRunner;
 import src.main.game.Classic.Fighting.FightingGame;
 import src.main.quiz.QuizScene;
 import src.main.quiz.MatchingTitlesScene;
+import src.main.quiz.QuestionBank;
 import src.main.utils.SceneManager;
 
 
@@ -12,7 +13,9 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.Label;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
@@ -21,6 +24,9 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.util.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
 
 
 public class ClassicModeSelectionPopup {
@@ -57,8 +63,8 @@ public class ClassicModeSelectionPopup {
         
         // Create an overlay pane styled as a popup window
         BorderPane overlayPane = new BorderPane();
-        overlayPane.setPrefSize(400, 300);
-        overlayPane.setMaxSize(400, 300);
+        overlayPane.setPrefSize(400, 370);
+        overlayPane.setMaxSize(400, 370);
         overlayPane.setStyle("-fx-background-color: rgba(0,0,0,0.8); -fx-background-radius: 10; -fx-padding: 20px;");
         
         // Create and style the title label at the top of the popup
@@ -73,6 +79,7 @@ public class ClassicModeSelectionPopup {
         
         // Create buttons for the two classic mode options
         Button classicQuizButton = new Button("Classic Quiz");
+        Button topicPracticeButton = new Button("Practice a Topic");
         Button matchingTitlesButton = new Button("Matching Titles Game");
         Button retroBtn = new Button("Retro Running");
         Button FightingBtn = new Button("Fighting");
@@ -95,6 +102,7 @@ public class ClassicModeSelectionPopup {
                              "-fx-background-color:rgb(163, 170, 174); -fx-text-fill: white; " +
                              "-fx-background-radius: 10px;"; 
         classicQuizButton.setStyle(buttonStyle);
+        topicPracticeButton.setStyle(buttonStyle);
         matchingTitlesButton.setStyle(buttonStyle);
         retroBtn.setStyle(buttonStyle);
         FightingBtn.setStyle(buttonStyle);
@@ -113,6 +121,19 @@ public class ClassicModeSelectionPopup {
             classicScale.playFromStart();
         });
         
+        // Create and set up a scale transition for the topic practice button when hovered
+        ScaleTransition topicScale = new ScaleTransition(Duration.millis(150), topicPracticeButton);
+        topicPracticeButton.setOnMouseEntered(e -> {
+            topicScale.setToX(1.1);
+            topicScale.setToY(1.1);
+            topicScale.playFromStart();
+        });
+        topicPracticeButton.setOnMouseExited(e -> {
+            topicScale.setToX(1.0);
+            topicScale.setToY(1.0);
+            topicScale.playFromStart();
+        });
+        
         // Create and set up a scale transition for the matching titles button when hovered
         ScaleTransition matchingScale = new ScaleTransition(Duration.millis(150), matchingTitlesButton);
         matchingTitlesButton.setOnMouseEntered(e -> {
@@ -168,10 +189,34 @@ public class ClassicModeSelectionPopup {
         // Set the action for the classic quiz button:
         // Switch to the quiz scene and remove the modal popup from the root.
         classicQuizButton.setOnAction(e -> {
+            QuizScene.setPracticeTopic(null);
             SceneManager.showQuizScene();
             stackRoot.getChildren().remove(modalLayer);
         });
         
+        // Set the action for the topic practice button:
+        // Ask for a topic, then start a quiz with questions on that topic only.
+        topicPracticeButton.setOnAction(e -> {
+            Map<String, Integer> topics = QuestionBank.snapshot().topics();
+            if (topics.isEmpty()) {
+                Alert none = new Alert(Alert.AlertType.INFORMATION, "The question bank has no topics yet.");
+                none.setHeaderText(null);
+                none.showAndWait();
+                return;
+            }
+            // Most common topics first, as returned by the repository.
+            ChoiceDialog<String> dialog = new ChoiceDialog<>(topics.keySet().iterator().next(), new ArrayList<>(topics.keySet()));
+            dialog.setTitle("Practice a Topic");
+            dialog.setHeaderText("Choose a topic to practise");
+            dialog.setContentText("Topic:");
+            Optional<String> topic = dialog.showAndWait();
+            if (topic.isPresent()) {
+                QuizScene.setPracticeTopic(topic.get());
+                SceneManager.showQuizScene();
+                stackRoot.getChildren().remove(modalLayer);
+            }
+        });
+        
         // Set the action for the matching titles button:
         // Switch to the matching titles scene and remove the modal popup from the root.
         matchingTitlesButton.setOnAction(e -> {
@@ -195,7 +240,7 @@ public class ClassicModeSelectionPopup {
          
 
         // Add the buttons to the center content layout
-        centerContent.getChildren().addAll(classicQuizButton, matchingTitlesButton, retroBtn, FightingBtn);
+        centerContent.getChildren().addAll(classicQuizButton, topicPracticeButton, matchingTitlesButton, retroBtn, FightingBtn);
         overlayPane.setCenter(centerContent);
         
         // Add the overlay pane (popup window) on top of the blocker within the modal layer
@@ -0,0 +1,113 @@
+package src.main.ui;
+
+import src.main.quiz.FullQuestionPopup;
+import src.main.quiz.Question;
+import src.main.quiz.QuestionBank;
+import src.main.quiz.QuestionSearchIndex;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class QuestionSearchPopup {
+    // Results shown for one query.
+    private static final int MAX_RESULTS = 50;
+
+    /**
+     * Opens a window for searching the question bank, e.g. to spot duplicates or pick questions
+     * for a custom set. Results follow the text as it is typed. Searches run on a background
+     * thread, and only the newest query's results are shown. Double-click a result to see the
+     * whole question.
+     */
+    public static void show() {
+        Stage stage = new Stage();
+        stage.setTitle("Search Questions");
+
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search question text, options, hints and explanations");
+        searchField.setStyle("-fx-font-size: 16px;");
+
+        Label status = new Label("Type to search the question bank.");
+
+        ListView<QuestionSearchIndex.Match> results = new ListView<>();
+        VBox.setVgrow(results, Priority.ALWAYS);
+        results.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(QuestionSearchIndex.Match match, boolean empty) {
+                super.updateItem(match, empty);
+                setText(empty || match == null ? null
+                        : String.format("%.2f   %s", match.getScore(), match.getQuestion().getQuestionText()));
+            }
+        });
+        // Double-click a result to see the whole question with its answer.
+        results.setOnMouseClicked(e -> {
+            QuestionSearchIndex.Match match = results.getSelectionModel().getSelectedItem();
+            if (e.getClickCount() == 2 && match != null) {
+                FullQuestionPopup.show(describe(match.getQuestion()));
+            }
+        });
+
+        // One search thread per window; a search is never run on the FX thread.
+        ExecutorService searcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "question-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        stage.setOnHidden(e -> searcher.shutdownNow());
+        // Number of the newest query; older queries still waiting are skipped.
+        AtomicLong latest = new AtomicLong();
+
+        searchField.textProperty().addListener((obs, oldText, text) -> {
+            long query = latest.incrementAndGet();
+            if (text.isBlank()) {
+                results.getItems().clear();
+                status.setText("Type to search the question bank.");
+                return;
+            }
+            // The first search of a bank also waits for the index to be built.
+            status.setText("Searching...");
+            QuestionBank.searchIndex().thenAcceptAsync(index -> {
+                if (query != latest.get()) return;
+                long start = System.nanoTime();
+                List<QuestionSearchIndex.Match> matches = index.search(text, MAX_RESULTS);
+                long micros = (System.nanoTime() - start) / 1000;
+                Platform.runLater(() -> {
+                    if (query != latest.get()) return;
+                    results.getItems().setAll(matches);
+                    status.setText(matches.size() + (matches.size() == MAX_RESULTS ? "+" : "")
+                            + " results in " + micros + " µs");
+                });
+            }, searcher);
+        });
+
+        VBox layout = new VBox(10, searchField, status, results);
+        layout.setPadding(new Insets(20));
+        stage.setScene(new Scene(layout, 700, 500));
+        stage.show();
+    }
+
+    // The question with its options, answer and explanation, for FullQuestionPopup.
+    private static String describe(Question question) {
+        StringBuilder sb = new StringBuilder(question.getQuestionText()).append("\n\n");
+        String[] options = question.getOptions();
+        for (int i = 0; i < options.length; i++) {
+            sb.append((char) ('A' + i)).append(") ").append(options[i])
+              .append(i == question.getCorrectIndex() ? "  ✔" : "").append('\n');
+        }
+        if (question.getExplanation() != null && !question.getExplanation().isEmpty()) {
+            sb.append('\n').append(question.getExplanation());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,37 @@
+#!/bin/bash
+# Builds the application and the unit tests, then runs the tests with the JUnit console launcher.
+#
+# Usage (from anywhere):  tests/run-tests.sh [JUnit console options]
+#   e.g. tests/run-tests.sh
+#        tests/run-tests.sh --select-class src.main.quiz.QuestionCacheMergeTest
+#
+# Needs the JUnit console jar in tests/lib (see tests/README.md). Set JAVAFX_LIB to the lib
+# folder of the JavaFX SDK for your platform if it is not the bundled one.
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+TESTS="$ROOT/tests"
+JAVAFX_LIB="${JAVAFX_LIB:-$ROOT/lib/JavaFX/javafx-sdk-23.0.2/lib}"
+OUT="$TESTS/target/classes"
+
+if ! ls "$TESTS"/lib/junit-platform-console-standalone-*.jar > /dev/null 2>&1; then
+    echo "JUnit console jar not found in $TESTS/lib - see tests/README.md" >&2
+    exit 1
+fi
+
+join() { local IFS=':'; echo "$*"; }
+APP_CP="$(join "$ROOT"/lib/Gson/*.jar "$ROOT"/lib/JAR/*.jar "$JAVAFX_LIB"/*.jar)"
+JUNIT_JAR="$(ls "$TESTS"/lib/junit-platform-console-standalone-*.jar | head -n 1)"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+cd "$ROOT"
+javac -encoding UTF-8 -Xlint:deprecation,unchecked -d "$OUT" \
+    -cp "$APP_CP:$JUNIT_JAR" \
+    $(find src tests/src -name '*.java')
+
+# Run from the repository root so code reading resources finds them; tests use temp files otherwise.
+if [ $# -eq 0 ]; then
+    set -- --scan-class-path "$OUT"
+fi
+java -jar "$JUNIT_JAR" execute --class-path "$OUT:$APP_CP" --disable-banner "$@"
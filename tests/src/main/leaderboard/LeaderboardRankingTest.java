@@ -0,0 +1,260 @@
+package src.main.leaderboard;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardRankingTest {
+    private static final String[] DIFFICULTIES = { "Grandmaster", "Pro", "Elite", "Beginner", "Amateur" };
+    // Leaderboard order: higher score first, then name.
+    private static final Comparator<LeaderboardEntry> ORDER =
+            Comparator.comparingInt(LeaderboardEntry::getScore).reversed().thenComparing(LeaderboardEntry::getName);
+
+    @TempDir
+    Path dir;
+
+    // The leaderboard table in memory, answering keyset pages from a sorted list.
+    private static class TableServer implements LeaderboardRanking.Server, ScoreOutbox.BatchSender {
+        final Map<String, LeaderboardEntry> rows = new LinkedHashMap<>();
+        final List<String> requests = new ArrayList<>();
+        // Difficulties whose pages fail.
+        final List<String> failing = new ArrayList<>();
+        int batchStatus = 204;
+        // Run after the next page is read, once.
+        Runnable afterPage;
+
+        void put(String name, int score, String difficulty) {
+            rows.put(name, new LeaderboardEntry(name, score, difficulty, "Classic"));
+        }
+
+        @Override
+        public LeaderboardPage loadPage(String difficulty, LeaderboardEntry after, int limit) {
+            requests.add(difficulty);
+            if (failing.contains(difficulty)) return null;
+            List<LeaderboardEntry> matching = new ArrayList<>();
+            for (LeaderboardEntry row : sorted(difficulty)) {
+                if (after == null || ORDER.compare(row, after) > 0) matching.add(row);
+            }
+            List<LeaderboardEntry> page = new ArrayList<>(matching.subList(0, Math.min(limit, matching.size())));
+            if (afterPage != null) {
+                Runnable hook = afterPage;
+                afterPage = null;
+                hook.run();
+            }
+            return new LeaderboardPage(page, matching.size() > limit);
+        }
+
+        @Override
+        public int send(String batchId, JsonArray scores) {
+            if (batchStatus != 204) return batchStatus;
+            for (JsonElement element : scores) {
+                JsonObject save = element.getAsJsonObject();
+                String name = save.get("name").getAsString();
+                LeaderboardEntry row = rows.get(name);
+                int score = save.get("score").getAsInt();
+                rows.put(name, row == null
+                        ? new LeaderboardEntry(name, score, save.get("difficulty").getAsString(), save.get("mode").getAsString())
+                        : new LeaderboardEntry(name, row.getScore() + score, row.getTime(), row.getMode()));
+            }
+            return 204;
+        }
+
+        List<LeaderboardEntry> sorted(String difficulty) {
+            List<LeaderboardEntry> sorted = new ArrayList<>();
+            for (LeaderboardEntry row : rows.values()) {
+                if (row.getTime().equals(difficulty)) sorted.add(row);
+            }
+            sorted.sort(ORDER);
+            return sorted;
+        }
+    }
+
+    @Test
+    void ranksTheTopPlayersLikeASortedList() {
+        TableServer server = new TableServer();
+        Random random = new Random(7);
+        for (int i = 0; i < 400; i++) {
+            // Few distinct scores, so most players tie with others.
+            server.put("Player" + random.nextInt(1000) + "-" + i, random.nextInt(20) * 5,
+                    DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+        }
+        // About 80 players per difficulty, of which the top 50 are loaded, in pages of up to 500.
+        LeaderboardRanking ranking = new LeaderboardRanking(outbox(server), server, 50);
+        ranking.loadDue(0);
+        assertEquals(5, server.requests.size());
+
+        for (LeaderboardEntry row : server.rows.values()) {
+            List<LeaderboardEntry> top = server.sorted(row.getTime());
+            top = top.subList(0, Math.min(50, top.size()));
+            int index = top.indexOf(row);
+            PlayerRank rank = ranking.rankOf(row.getName(), 2);
+            if (index < 0) {
+                assertEquals(-1, rank.getRank(), row.getName());
+                continue;
+            }
+            assertEquals(index + 1, rank.getRank(), row.getName());
+            assertEquals(row.getScore(), rank.getEntry().getScore());
+            int first = Math.max(0, index - 2);
+            assertEquals(names(top.subList(first, Math.min(top.size(), index + 3))), names(rank.getAround()), row.getName());
+            assertEquals(first + 1, rank.getAroundFirstRank(), row.getName());
+        }
+        for (String difficulty : DIFFICULTIES) {
+            assertEquals(names(server.sorted(difficulty).subList(0, 10)), names(ranking.top(difficulty, 10)));
+        }
+    }
+
+    @Test
+    void keepsMatchingASortedListAsScoresAreSaved() {
+        TableServer server = new TableServer();
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            server.put("Player" + i, random.nextInt(50), DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+        }
+        // The server takes no batch, so every save is only in the ranking and in the oracle below.
+        server.batchStatus = 503;
+        ScoreOutbox outbox = outbox(server);
+        LeaderboardRanking ranking = new LeaderboardRanking(outbox, server, LeaderboardRanking.TOP_PLAYERS);
+        ranking.loadDue(0);
+        Map<String, LeaderboardEntry> oracle = new LinkedHashMap<>(server.rows);
+
+        for (int i = 0; i < 500; i++) {
+            // Some saves are by new players, who go on the difficulty they saved with.
+            String name = "Player" + random.nextInt(220);
+            String difficulty = DIFFICULTIES[random.nextInt(DIFFICULTIES.length)];
+            int score = random.nextInt(20);
+            save(ranking, outbox, name, score, difficulty);
+            LeaderboardEntry row = oracle.get(name);
+            oracle.put(name, row == null ? new LeaderboardEntry(name, score, difficulty, "Classic")
+                    : new LeaderboardEntry(name, row.getScore() + score, row.getTime(), row.getMode()));
+
+            List<LeaderboardEntry> sorted = sorted(oracle, oracle.get(name).getTime());
+            PlayerRank rank = ranking.rankOf(name, 1);
+            assertEquals(sorted.indexOf(oracle.get(name)) + 1, rank.getRank(), name);
+            assertEquals(oracle.get(name).getScore(), rank.getEntry().getScore(), name);
+            assertEquals(names(sorted.subList(0, Math.min(5, sorted.size()))), names(ranking.top(difficulty(rank), 5)));
+        }
+    }
+
+    @Test
+    void countsSavesLeftFromTheLastRun() {
+        TableServer server = new TableServer();
+        server.put("Ana", 10, "Pro");
+        server.put("Ben", 12, "Pro");
+        server.batchStatus = 503;
+        ScoreOutbox outbox = outbox(server);
+        outbox.add("Ana", 5, "Pro", "Classic");
+
+        LeaderboardRanking ranking = new LeaderboardRanking(outbox, server, 50);
+        ranking.loadDue(0);
+        PlayerRank ana = ranking.rankOf("Ana", 0);
+        assertEquals(15, ana.getEntry().getScore());
+        assertEquals(1, ana.getRank());
+    }
+
+    @Test
+    void keepsASaveConfirmedDuringTheLoad() {
+        TableServer server = new TableServer();
+        server.put("Ana", 10, "Grandmaster");
+        server.put("Ben", 12, "Grandmaster");
+        ScoreOutbox outbox = outbox(server);
+        LeaderboardRanking ranking = new LeaderboardRanking(outbox, server, 50);
+        save(ranking, outbox, "Ana", 5, "Grandmaster");
+        // The save reaches the server after the Grandmaster page was read without it.
+        server.afterPage = () -> assertTrue(outbox.drain(1000));
+        ranking.loadDue(0);
+        assertEquals(15, ranking.rankOf("Ana", 0).getEntry().getScore());
+        assertEquals(1, ranking.rankOf("Ana", 0).getRank());
+
+        // The next load started after the save was confirmed: the server's score has it.
+        ranking.loadDue(10 * 60_000);
+        assertEquals(15, ranking.rankOf("Ana", 0).getEntry().getScore());
+    }
+
+    @Test
+    void waitsBeforeRetryingADifficultyThatFailed() {
+        TableServer server = new TableServer();
+        server.put("Ana", 10, "Pro");
+        server.put("Ben", 12, "Elite");
+        server.failing.add("Pro");
+        LeaderboardRanking ranking = new LeaderboardRanking(outbox(server), server, 50);
+
+        ranking.loadDue(0);
+        assertFalse(ranking.isLoaded());
+        // The loaded difficulties are still answered; a player not found may be on the missing one.
+        assertEquals(1, ranking.rankOf("Ben", 0).getRank());
+        assertNull(ranking.rankOf("Ana", 0));
+
+        int requests = server.requests.size();
+        server.failing.clear();
+        ranking.loadDue(1000);
+        assertEquals(requests, server.requests.size());
+        ranking.loadDue(60_000);
+        assertEquals(List.of("Pro"), server.requests.subList(requests, server.requests.size()));
+        assertEquals(1, ranking.rankOf("Ana", 0).getRank());
+    }
+
+    @Test
+    void leavesPlayersBelowTheTopUnranked() {
+        TableServer server = new TableServer();
+        for (int i = 0; i < 30; i++) {
+            server.put("Player" + i, 100 - i, "Pro");
+        }
+        server.batchStatus = 503;
+        ScoreOutbox outbox = outbox(server);
+        LeaderboardRanking ranking = new LeaderboardRanking(outbox, server, 10);
+        ranking.loadDue(0);
+
+        assertEquals(10, ranking.rankOf("Player9", 0).getRank());
+        assertEquals(-1, ranking.rankOf("Player20", 0).getRank());
+        // Player20 may have any score below the top, and a new name may already be down there too.
+        save(ranking, outbox, "Player20", 50, "Pro");
+        save(ranking, outbox, "Zed", 500, "Pro");
+        assertEquals(-1, ranking.rankOf("Player20", 0).getRank());
+        assertEquals(-1, ranking.rankOf("Zed", 0).getRank());
+    }
+
+    private ScoreOutbox outbox(TableServer server) {
+        return new ScoreOutbox(dir.resolve("outbox.jsonl").toFile(), server);
+    }
+
+    // Saves a score the way LeaderboardService.pushLeaderboardDataAsync does.
+    private static void save(LeaderboardRanking ranking, ScoreOutbox outbox, String name, int score, String difficulty) {
+        long seq = outbox.add(name, score, difficulty, "Classic");
+        ranking.applySave(seq, name, score, difficulty, "Classic");
+    }
+
+    private static String difficulty(PlayerRank rank) {
+        return rank.getEntry().getTime();
+    }
+
+    private static List<LeaderboardEntry> sorted(Map<String, LeaderboardEntry> rows, String difficulty) {
+        List<LeaderboardEntry> sorted = new ArrayList<>();
+        for (LeaderboardEntry row : rows.values()) {
+            if (row.getTime().equals(difficulty)) sorted.add(row);
+        }
+        sorted.sort(ORDER);
+        return sorted;
+    }
+
+    private static List<String> names(List<LeaderboardEntry> entries) {
+        List<String> names = new ArrayList<>();
+        for (LeaderboardEntry entry : entries) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+}
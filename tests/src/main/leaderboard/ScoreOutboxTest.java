@@ -0,0 +1,134 @@
+package src.main.leaderboard;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreOutboxTest {
+    @TempDir
+    Path dir;
+
+    // Batches sent, answered with a fixed status.
+    private static class RecordingSender implements ScoreOutbox.BatchSender {
+        final List<String> ids = new ArrayList<>();
+        final List<JsonArray> batches = new ArrayList<>();
+        int status = 204;
+
+        @Override
+        public int send(String batchId, JsonArray scores) {
+            ids.add(batchId);
+            batches.add(scores);
+            return status;
+        }
+    }
+
+    @Test
+    void replaysTheUnfinishedBatchAfterACrash() throws IOException {
+        // Three saves, a batch covering the first two whose response never came, and a line cut short.
+        File file = write(
+                "{\"seq\":1,\"name\":\"Ana\",\"score\":10,\"difficulty\":\"Pro\",\"mode\":\"Classic\"}",
+                "{\"seq\":2,\"name\":\"Ana\",\"score\":5,\"difficulty\":\"Pro\",\"mode\":\"Classic\"}",
+                "{\"batch\":\"batch-1\",\"upTo\":2}",
+                "{\"seq\":3,\"name\":\"Ben\",\"score\":7,\"difficulty\":\"Elite\",\"mode\":\"Matching\"}",
+                "{\"seq\":4,\"name\":\"Ben\",\"sco");
+        RecordingSender sender = new RecordingSender();
+        ScoreOutbox outbox = new ScoreOutbox(file, sender);
+        assertEquals(3, outbox.pendingCount());
+        // The cut-short line is gone from the file, the batch is not.
+        assertEquals(4, Files.readAllLines(file.toPath()).size());
+
+        assertTrue(outbox.drain(1000));
+
+        // The unfinished batch is resent under its id with the same scores, then the rest is a new batch.
+        assertEquals(2, sender.ids.size());
+        assertEquals("batch-1", sender.ids.get(0));
+        assertEquals(List.of("Ana:15"), scores(sender.batches.get(0)));
+        assertNotEquals("batch-1", sender.ids.get(1));
+        assertEquals(List.of("Ben:7"), scores(sender.batches.get(1)));
+        assertEquals(0, outbox.pendingCount());
+        assertEquals(List.of(), Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    void numbersNewSavesAfterTheLoadedOnes() throws IOException {
+        File file = write("{\"seq\":41,\"name\":\"Ana\",\"score\":10,\"difficulty\":\"Pro\",\"mode\":\"Classic\"}");
+        ScoreOutbox outbox = new ScoreOutbox(file, new RecordingSender());
+        assertEquals(42, outbox.add("Ben", 3, "Pro", "Classic"));
+        assertEquals(2, outbox.pendingSaves().size());
+        assertEquals(40, outbox.confirmedUpTo());
+        assertTrue(outbox.drain(1000));
+        assertEquals(42, outbox.confirmedUpTo());
+    }
+
+    @Test
+    void keepsSavesWhenTheServerRefusesTheKey() {
+        File file = dir.resolve("outbox.jsonl").toFile();
+        RecordingSender sender = new RecordingSender();
+        ScoreOutbox outbox = new ScoreOutbox(file, sender);
+        outbox.add("Ana", 10, "Pro", "Classic");
+        outbox.add("Ben", 4, "Elite", "Classic");
+        for (int status : new int[] { 401, 403, 408, 429, 500, 503, -1 }) {
+            sender.status = status;
+            assertFalse(outbox.drain(1000), "status " + status);
+            assertEquals(2, outbox.pendingCount(), "status " + status);
+        }
+        // Every retry was the same batch, and a restart resends it too.
+        assertEquals(1, sender.ids.stream().distinct().count());
+        RecordingSender next = new RecordingSender();
+        assertTrue(new ScoreOutbox(file, next).drain(1000));
+        assertEquals(sender.ids.get(0), next.ids.get(0));
+        assertEquals(List.of("Ana:10", "Ben:4"), scores(next.batches.get(0)));
+    }
+
+    @Test
+    void movesAMalformedBatchToTheRejectedFile() throws IOException {
+        File file = dir.resolve("outbox.jsonl").toFile();
+        RecordingSender sender = new RecordingSender();
+        sender.status = 422;
+        ScoreOutbox outbox = new ScoreOutbox(file, sender);
+        outbox.add("Ana", 10, "Pro", "Classic");
+        outbox.add("Ana", 2, "Pro", "Classic");
+
+        assertTrue(outbox.drain(1000));
+
+        assertEquals(0, outbox.pendingCount());
+        List<String> rejected = Files.readAllLines(dir.resolve("outbox.rejected.jsonl"));
+        assertEquals(2, rejected.size());
+        JsonObject first = JsonParser.parseString(rejected.get(0)).getAsJsonObject();
+        assertEquals("Ana", first.get("name").getAsString());
+        assertEquals(10, first.get("score").getAsInt());
+        assertEquals(422, first.get("status").getAsInt());
+        assertEquals(sender.ids.get(0), first.get("batch").getAsString());
+    }
+
+    // "name:score" of every entry of a sent batch.
+    private static List<String> scores(JsonArray batch) {
+        List<String> scores = new ArrayList<>();
+        for (JsonElement element : batch) {
+            JsonObject entry = element.getAsJsonObject();
+            scores.add(entry.get("name").getAsString() + ":" + entry.get("score").getAsInt());
+        }
+        return scores;
+    }
+
+    private File write(String... lines) throws IOException {
+        Path file = dir.resolve("outbox.jsonl");
+        Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+}
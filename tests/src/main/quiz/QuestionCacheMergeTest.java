@@ -0,0 +1,108 @@
+package src.main.quiz;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuestionCacheMergeTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replacesChangedRowsInPlace() throws IOException {
+        List<String> merged = merge("[{\"id\":1,\"q\":\"a\"},{\"id\":2,\"q\":\"b\"},{\"id\":3,\"q\":\"c\"}]",
+                "[{\"id\":2,\"q\":\"B\"}]", "deleted");
+        assertEquals(List.of("{\"id\":1,\"q\":\"a\"}", "{\"id\":2,\"q\":\"B\"}", "{\"id\":3,\"q\":\"c\"}"), merged);
+    }
+
+    @Test
+    void dropsRowsWhoseChangeIsATombstone() throws IOException {
+        List<String> merged = merge("[{\"id\":1,\"q\":\"a\"},{\"id\":2,\"q\":\"b\"}]",
+                "[{\"id\":1,\"q\":\"a\",\"deleted\":true}]", "deleted");
+        assertEquals(List.of("{\"id\":2,\"q\":\"b\"}"), merged);
+    }
+
+    @Test
+    void appendsNewRowsInServerOrderButNotNewTombstones() throws IOException {
+        List<String> merged = merge("[{\"id\":1,\"q\":\"a\"}]",
+                "[{\"id\":5,\"q\":\"e\"},{\"id\":4,\"q\":\"d\",\"deleted\":true},{\"id\":3,\"q\":\"c\",\"deleted\":false}]",
+                "deleted");
+        assertEquals(List.of("{\"id\":1,\"q\":\"a\"}", "{\"id\":5,\"q\":\"e\"}",
+                "{\"id\":3,\"q\":\"c\",\"deleted\":false}"), merged);
+    }
+
+    @Test
+    void keepsDeletedFlagAsDataWithoutADeletedColumn() throws IOException {
+        List<String> merged = merge("[{\"id\":1,\"q\":\"a\"}]", "[{\"id\":1,\"q\":\"a\",\"deleted\":true}]", null);
+        assertEquals(List.of("{\"id\":1,\"q\":\"a\",\"deleted\":true}"), merged);
+    }
+
+    @Test
+    void deletesEveryRowAndLeavesAnEmptyArray() throws IOException {
+        List<String> merged = merge("[{\"id\":1},{\"id\":2}]",
+                "[{\"id\":2,\"deleted\":true},{\"id\":1,\"deleted\":true}]", "deleted");
+        assertEquals(List.of(), merged);
+    }
+
+    @Test
+    void keepsCachedRowsWithoutAKey() throws IOException {
+        List<String> merged = merge("[{\"q\":\"no id\"},{\"id\":1,\"q\":\"a\"}]", "[{\"id\":1,\"q\":\"A\"}]", "deleted");
+        assertEquals(List.of("{\"q\":\"no id\"}", "{\"id\":1,\"q\":\"A\"}"), merged);
+    }
+
+    @Test
+    void mergesChangesAlreadyInTheCacheWithoutDuplicates() throws IOException {
+        // The changed-rows query overlaps the last sync, so it returns rows the cache already has.
+        String changes = "[{\"id\":2,\"q\":\"B\"},{\"id\":3,\"q\":\"c\"},{\"id\":1,\"deleted\":true}]";
+        List<String> once = merge("[{\"id\":1,\"q\":\"a\"},{\"id\":2,\"q\":\"b\"}]", changes, "deleted");
+        List<String> twice = merge("[" + String.join(",", once) + "]", changes, "deleted");
+        assertEquals(List.of("{\"id\":2,\"q\":\"B\"}", "{\"id\":3,\"q\":\"c\"}"), twice);
+        assertEquals(once, twice);
+    }
+
+    @Test
+    void rejectsAMalformedCache() throws IOException {
+        File cache = write("cache.json", "[{\"id\":1},");
+        File out = dir.resolve("out.json").toFile();
+        assertThrows(IOException.class, () -> QuestionCacheMerge.merge(cache, new JsonArray(), "deleted", out));
+    }
+
+    @Test
+    void rejectsDataAfterTheCachedArray() throws IOException {
+        File cache = write("cache.json", "[{\"id\":1}] [{\"id\":2}]");
+        File out = dir.resolve("out.json").toFile();
+        assertThrows(IOException.class, () -> QuestionCacheMerge.merge(cache, new JsonArray(), "deleted", out));
+    }
+
+    // Merges changes into a cache holding the given JSON and returns the written rows as JSON strings.
+    private List<String> merge(String cacheJson, String changesJson, String deletedColumn) throws IOException {
+        File cache = write("cache.json", cacheJson);
+        File out = dir.resolve("out.json").toFile();
+        JsonArray changes = JsonParser.parseString(changesJson).getAsJsonArray();
+        int written = QuestionCacheMerge.merge(cache, changes, deletedColumn, out);
+        List<String> rows = new ArrayList<>();
+        for (JsonElement row : JsonParser.parseString(Files.readString(out.toPath())).getAsJsonArray()) {
+            rows.add(row.toString());
+        }
+        assertEquals(rows.size(), written);
+        return rows;
+    }
+
+    private File write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+}
@@ -0,0 +1,88 @@
+package src.main.quiz;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionDeduplicatorTest {
+    @Test
+    void collapsesAnExactCopy() {
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        assertEquals(-1, deduplicator.add(question("What does the static keyword mean in Java?", "a", "b", "c", "d")));
+        assertEquals(0, deduplicator.add(question("What does the static keyword mean in Java?", "a", "b", "c", "d")));
+        assertEquals(1, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    void collapsesCaseAndPunctuationChanges() {
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        deduplicator.add(question("Which collection keeps its elements sorted by their natural order?",
+                "HashSet", "TreeSet", "ArrayList", "LinkedList"));
+        assertEquals(0, deduplicator.add(question("which collection keeps its elements sorted, by their natural order",
+                "hashset", "TREESET", "ArrayList", "LinkedList")));
+    }
+
+    @Test
+    void keepsDifferentQuestionsWithTheSameOptions() {
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        deduplicator.add(question("Which keyword prevents a method from being overridden?", "final", "static", "const", "sealed"));
+        assertEquals(-1, deduplicator.add(question("Which keyword declares a class member shared by all instances?",
+                "final", "static", "const", "sealed")));
+        assertEquals(0, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    void keepsQuestionsWithoutWords() {
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        assertEquals(-1, deduplicator.add(question("?", "", "", "", "")));
+        assertEquals(-1, deduplicator.add(question("?", "", "", "", "")));
+    }
+
+    @Test
+    void findsEarlyQuestionsAfterTheBucketTableGrew() {
+        // Thousands of questions grow the bucket table several times from its 1024 slots.
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        List<Question> questions = generate(5000, new Random(1));
+        for (Question question : questions) {
+            assertEquals(-1, deduplicator.add(question));
+        }
+        assertEquals(0, deduplicator.getDuplicateCount());
+        for (int i = 0; i < questions.size(); i += 7) {
+            assertEquals(i, deduplicator.add(questions.get(i)), "copy of question " + i);
+        }
+        assertEquals((questions.size() + 6) / 7, deduplicator.getDuplicateCount());
+    }
+
+    @Test
+    void keepsNewQuestionsAfterTheBucketTableGrew() {
+        QuestionDeduplicator deduplicator = new QuestionDeduplicator();
+        for (Question question : generate(3000, new Random(2))) {
+            deduplicator.add(question);
+        }
+        for (Question question : generate(500, new Random(3))) {
+            assertEquals(-1, deduplicator.add(question));
+        }
+        assertEquals(0, deduplicator.getDuplicateCount());
+    }
+
+    // Questions of ten random words from a large vocabulary, so no two are near-duplicates.
+    private static List<Question> generate(int count, Random random) {
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 10; w++) {
+                text.append("w").append(random.nextInt(100_000)).append(' ');
+            }
+            questions.add(question(text.append('?').toString(), "o" + random.nextInt(100_000),
+                    "o" + random.nextInt(100_000), "o" + random.nextInt(100_000), "o" + random.nextInt(100_000)));
+        }
+        return questions;
+    }
+
+    private static Question question(String text, String a, String b, String c, String d) {
+        return new Question(text, new String[] { a, b, c, d }, 0, "", "", "");
+    }
+}
@@ -0,0 +1,20 @@
+package src.main.quiz;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionServiceTest {
+    @Test
+    void startsTheChangedRowsQueryBeforeATimestampWatermark() {
+        assertEquals("2026-10-18T03:39:44.123456Z", QuestionService.syncFrom("2026-10-18T03:44:44.123456+00:00"));
+        assertEquals("2026-10-18T05:55:00+02:00", QuestionService.syncFrom("2026-10-18T06:00:00+02:00"));
+        assertEquals("2026-10-18T03:39:44", QuestionService.syncFrom("2026-10-18T03:44:44"));
+    }
+
+    @Test
+    void startsTheChangedRowsQueryAtAnyOtherWatermark() {
+        assertEquals("1234", QuestionService.syncFrom("1234"));
+        assertEquals("v7", QuestionService.syncFrom("v7"));
+    }
+}
@@ -0,0 +1,84 @@
+package src.main.quiz;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionStatsTest {
+    @Test
+    void recordsTheAnswerThatGrowsTheTable() {
+        // 126 questions, then one with 3 new topics: adding the second topic grows the table from 256 slots.
+        QuestionStats stats = new QuestionStats();
+        List<Question> earlier = new ArrayList<>();
+        for (int i = 0; i < 126; i++) {
+            Question question = question("Question " + i, "");
+            earlier.add(question);
+            stats.recordAnswer(question, true, 1000);
+        }
+        Question last = question("Question with topics", "loops, arrays, recursion");
+        stats.recordAnswer(last, false, 2000);
+
+        assertEquals(1, stats.getAttempts(last));
+        assertEquals(126 + 1 + 3, stats.size());
+        for (Question question : earlier) {
+            assertEquals(1, stats.getAttempts(question), question.getQuestionText());
+        }
+    }
+
+    @Test
+    void countsEveryAnswerAcrossManyResizes() {
+        QuestionStats stats = new QuestionStats();
+        Random random = new Random(5);
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            StringBuilder topics = new StringBuilder();
+            for (int t = random.nextInt(4); t > 0; t--) {
+                topics.append("topic").append(random.nextInt(50)).append(',');
+            }
+            questions.add(question("Question " + i, topics.toString()));
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            Question question = questions.get(random.nextInt(questions.size()));
+            stats.recordAnswer(question, random.nextBoolean(), 500 + random.nextInt(5000));
+            expected.merge(question.getQuestionText(), 1, Integer::sum);
+        }
+        for (Question question : questions) {
+            assertEquals(expected.getOrDefault(question.getQuestionText(), 0), stats.getAttempts(question),
+                    question.getQuestionText());
+        }
+    }
+
+    @Test
+    void correctAnswersMakeAQuestionLookEasier() {
+        QuestionStats stats = new QuestionStats();
+        Question question = question("What is 2 + 2?", "arithmetic");
+        double before = stats.successProbability(question);
+        for (int i = 0; i < 5; i++) {
+            stats.recordAnswer(question, true, 1000);
+        }
+        assertTrue(stats.successProbability(question) > before);
+        assertTrue(stats.getMastery() > 0.5);
+    }
+
+    @Test
+    void unseenQuestionsStartFromTheirTopic() {
+        QuestionStats stats = new QuestionStats();
+        for (int i = 0; i < 5; i++) {
+            stats.recordAnswer(question("Hard pointer question " + i, "pointers"), false, 1000);
+        }
+        double sameTopic = stats.successProbability(question("Another pointer question", "pointers"));
+        double otherTopic = stats.successProbability(question("A loop question", "loops"));
+        assertTrue(sameTopic < otherTopic);
+    }
+
+    private static Question question(String text, String keywords) {
+        return new Question(text, new String[] { "a", "b", "c", "d" }, 0, "", keywords, "");
+    }
+}